@@ -0,0 +1,62 @@
+package tictactoe;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+/**
+ * Benchmarks of a whole console game: {@link TicTacToeConsoleController#playGame(TicTacToe)}
+ * reading a scripted game to a tie, once with clean input and once with an invalid token and an
+ * out-of-bounds move before every move.
+ */
+public final class ControllerBenchmarks {
+
+  private static final String CLEAN = "2 2 1 1 3 3 1 3 3 1 2 1 2 3 3 2 1 2\n";
+
+  private ControllerBenchmarks() {
+  }
+
+  /**
+   * Run the controller benchmarks and write the results as JSON.
+   *
+   * @param args the arguments of {@link Benchmarks#run},
+   *             writing {@code controller-benchmark-results.json} by default
+   * @throws IOException if the results cannot be written
+   */
+  public static void main(String[] args) throws IOException {
+    Benchmarks.run(args, "controller-benchmark-results.json", ControllerBenchmarks::run);
+  }
+
+  /**
+   * Run every controller benchmark.
+   *
+   * @param harness the harness to run them on
+   */
+  public static void run(BenchmarkHarness harness) {
+    StringBuilder garbage = new StringBuilder();
+    String[] tokens = CLEAN.trim().split(" ");
+    for (int i = 0; i < tokens.length; i += 2) {
+      garbage.append("x#! 9 9 ").append(tokens[i]).append(' ').append(tokens[i + 1]).append(' ');
+    }
+    play(harness, "clean", CLEAN);
+    play(harness, "garbage", garbage.append('\n').toString());
+  }
+
+  /**
+   * Benchmark playing one script.
+   *
+   * @param harness the harness
+   * @param name    the name of the script
+   * @param script  the input of the game
+   */
+  private static void play(BenchmarkHarness harness, String name, String script) {
+    harness.measure("ControllerBenchmarks.playGame", BenchmarkHarness.params("input", name),
+        (count, blackhole) -> {
+          for (long i = 0; i < count; i++) {
+            StringBuilder out = new StringBuilder(1024);
+            new TicTacToeConsoleController(new StringReader(script), out)
+                .playGame(new TicTacToeModel());
+            blackhole.consume(out);
+          }
+        });
+  }
+}
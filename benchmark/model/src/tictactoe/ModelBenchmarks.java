@@ -0,0 +1,132 @@
+package tictactoe;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Benchmarks of the model's hot paths: making a move, checking whether the game is over, copying
+ * the board, keying the position and rendering it. Each runs on every board implementation in an
+ * opening, a midgame and a terminal position.
+ */
+public final class ModelBenchmarks {
+
+  /**
+   * Positions to measure from, as the cells {@code r * 3 + c} played so far.
+   */
+  private static final String[] POSITIONS = {"opening", "midgame", "terminal"};
+  private static final int[][] MOVES = {
+      {},
+      {4, 0, 8, 2},
+      {0, 3, 1, 4, 2}
+  };
+  private static final String[] IMPLS = {"TicTacToeModel", "MnkTicTacToeModel",
+      "BitboardTicTacToeModel", "TransitionTableTicTacToeModel"};
+
+  private ModelBenchmarks() {
+  }
+
+  /**
+   * Run the model benchmarks and write the results as JSON.
+   *
+   * @param args the arguments of {@link Benchmarks#run},
+   *             writing {@code model-benchmark-results.json} by default
+   * @throws IOException if the results cannot be written
+   */
+  public static void main(String[] args) throws IOException {
+    Benchmarks.run(args, "model-benchmark-results.json", ModelBenchmarks::run);
+  }
+
+  /**
+   * Run every model benchmark.
+   *
+   * @param harness the harness to run them on
+   */
+  public static void run(BenchmarkHarness harness) {
+    for (String impl : IMPLS) {
+      Supplier<TicTacToe> games = games(impl);
+      for (int p = 0; p < POSITIONS.length; p++) {
+        TicTacToe m = games.get();
+        for (int cell : MOVES[p]) {
+          m.move(cell / 3, cell % 3);
+        }
+        run(harness, BenchmarkHarness.params("impl", impl, "position", POSITIONS[p]), m);
+      }
+    }
+  }
+
+  /**
+   * Returns a supplier of new games of one implementation.
+   *
+   * @param impl the name of the implementation
+   * @return the supplier
+   */
+  private static Supplier<TicTacToe> games(String impl) {
+    switch (impl) {
+      case "MnkTicTacToeModel":
+        return MnkTicTacToeModel::new;
+      case "BitboardTicTacToeModel":
+        return BitboardTicTacToeModel::new;
+      case "TransitionTableTicTacToeModel":
+        return TransitionTableTicTacToeModel::new;
+      default:
+        return TicTacToeModel::new;
+    }
+  }
+
+  /**
+   * Run the benchmarks on one game in one position.
+   *
+   * @param harness the harness
+   * @param params  the implementation and position
+   * @param m       the game, which is left in the same position
+   */
+  private static void run(BenchmarkHarness harness, Map<String, String> params, TicTacToe m) {
+    int free = 0;
+    while (free < 9 && m.getMarkAt(free / 3, free % 3) != null) {
+      free++;
+    }
+    int r = free / 3;
+    int c = free % 3;
+
+    // Making a move and taking it back; in the terminal position the move is rejected.
+    harness.measure("ModelBenchmarks.move", params, (count, blackhole) -> {
+      for (long i = 0; i < count; i++) {
+        try {
+          m.move(r, c);
+          blackhole.consume(m.isGameOver());
+          m.undo();
+        } catch (IllegalStateException e) {
+          blackhole.consume(e);
+        }
+      }
+    });
+    harness.measure("ModelBenchmarks.isGameOver", params, (count, blackhole) -> {
+      for (long i = 0; i < count; i++) {
+        blackhole.consume(m.isGameOver());
+      }
+    });
+    harness.measure("ModelBenchmarks.getBoard", params, (count, blackhole) -> {
+      for (long i = 0; i < count; i++) {
+        blackhole.consume(m.getBoard());
+      }
+    });
+    // Keying the position: the incremental Zobrist key against hashing a copy of the board.
+    harness.measure("ModelBenchmarks.getZobristKey", params, (count, blackhole) -> {
+      for (long i = 0; i < count; i++) {
+        blackhole.consume(m.getZobristKey());
+      }
+    });
+    harness.measure("ModelBenchmarks.hashBoard", params, (count, blackhole) -> {
+      for (long i = 0; i < count; i++) {
+        blackhole.consume(Arrays.deepHashCode(m.getBoard()));
+      }
+    });
+    harness.measure("ModelBenchmarks.toString", params, (count, blackhole) -> {
+      for (long i = 0; i < count; i++) {
+        blackhole.consume(m.toString());
+      }
+    });
+  }
+}
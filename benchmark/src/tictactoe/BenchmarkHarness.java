@@ -0,0 +1,369 @@
+package tictactoe;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * A small harness for timing hot paths in the style of JMH. Each benchmark is warmed up for a
+ * number of timed iterations and then measured for more, calling the operation in batches sized
+ * so the clock is read rarely. Every measured iteration records the average time per operation and
+ * the bytes the thread allocated per operation, and the results can be written as JSON in the
+ * layout JMH uses, so runs can be compared with the same tools.
+ */
+public final class BenchmarkHarness {
+
+  // Two-sided 99.9% Student t quantiles for 1 to 10 degrees of freedom, as JMH reports its error.
+  private static final double[] T_999 = {
+      636.62, 31.599, 12.924, 8.610, 6.869, 5.959, 5.408, 5.041, 4.781, 4.587};
+
+  private final int warmupIterations;
+  private final int measurementIterations;
+  private final long iterationNanos;
+  private final Pattern filter;
+  private final com.sun.management.ThreadMXBean threads;
+  private final List<Result> results;
+  private final Blackhole blackhole;
+
+  /**
+   * Constructs a harness.
+   *
+   * @param warmupIterations      the number of iterations run before measuring
+   * @param measurementIterations the number of iterations measured
+   * @param iterationMillis       the length of each iteration, in milliseconds
+   * @param filter                a pattern a benchmark's name must contain to be run
+   * @throws IllegalArgumentException if a count or the length is not positive, or the filter is
+   *                                  null
+   */
+  public BenchmarkHarness(int warmupIterations, int measurementIterations, long iterationMillis,
+      Pattern filter) throws IllegalArgumentException {
+    if (warmupIterations < 0 || measurementIterations <= 0 || iterationMillis <= 0
+        || filter == null) {
+      throw new IllegalArgumentException("Invalid benchmark configuration.");
+    }
+    this.warmupIterations = warmupIterations;
+    this.measurementIterations = measurementIterations;
+    this.iterationNanos = iterationMillis * 1_000_000;
+    this.filter = filter;
+    this.threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    this.results = new ArrayList<>();
+    this.blackhole = new Blackhole();
+  }
+
+  /**
+   * An operation to benchmark. It runs the operation the given number of times in a loop and hands
+   * every result to the blackhole, so the work can neither be removed nor hoisted out of the loop.
+   */
+  public interface Operation {
+    void run(long count, Blackhole blackhole);
+  }
+
+  /**
+   * Benchmark an operation unless its name does not match the filter, and print the result.
+   *
+   * @param name      the benchmark, as {@code Suite.method}
+   * @param params    the parameters of this run, in order
+   * @param operation the operation
+   */
+  public void measure(String name, Map<String, String> params, Operation operation) {
+    if (!this.filter.matcher(name).find()) {
+      return;
+    }
+    long batch = 1;
+    while (this.timeBatch(operation, batch) < 1_000_000 && batch < (1L << 40)) {
+      batch *= 2;
+    }
+    for (int i = 0; i < this.warmupIterations; i++) {
+      this.iteration(operation, batch);
+    }
+    double[] nanos = new double[this.measurementIterations];
+    double[] bytes = new double[this.measurementIterations];
+    for (int i = 0; i < this.measurementIterations; i++) {
+      double[] measured = this.iteration(operation, batch);
+      nanos[i] = measured[0];
+      bytes[i] = measured[1];
+    }
+    Result result = new Result(name, params, nanos, bytes);
+    this.results.add(result);
+    System.out.printf("%-40s %-36s %12.2f +- %8.2f ns/op %10.1f B/op%n", name, params,
+        result.getScore(), error(nanos), mean(bytes));
+  }
+
+  /**
+   * Returns the results measured so far, in the order they were run.
+   *
+   * @return the results
+   */
+  public List<Result> getResults() {
+    return Collections.unmodifiableList(this.results);
+  }
+
+  /**
+   * Write the results as a JSON array in the layout of JMH's JSON output: the primary metric is
+   * the average time in nanoseconds per operation, and the allocation per operation is the
+   * secondary metric {@code gc.alloc.rate.norm}.
+   *
+   * @param out the writer
+   * @throws IOException if the writer fails
+   */
+  public void writeJson(Writer out) throws IOException {
+    out.write("[\n");
+    for (int i = 0; i < this.results.size(); i++) {
+      Result r = this.results.get(i);
+      out.write("  {\n");
+      out.write("    \"benchmark\" : " + quote(r.name) + ",\n");
+      out.write("    \"mode\" : \"avgt\",\n");
+      out.write("    \"warmupIterations\" : " + this.warmupIterations + ",\n");
+      out.write("    \"measurementIterations\" : " + this.measurementIterations + ",\n");
+      out.write("    \"params\" : {");
+      String separator = "";
+      for (Map.Entry<String, String> param : r.params.entrySet()) {
+        out.write(separator + "\n      " + quote(param.getKey()) + " : "
+            + quote(param.getValue()));
+        separator = ",";
+      }
+      out.write(r.params.isEmpty() ? "},\n" : "\n    },\n");
+      out.write("    \"primaryMetric\" : " + metric(r.nanos, "ns/op") + ",\n");
+      out.write("    \"secondaryMetrics\" : {\n");
+      out.write("      \"gc.alloc.rate.norm\" : " + metric(r.bytes, "B/op") + "\n");
+      out.write("    }\n");
+      out.write(i + 1 < this.results.size() ? "  },\n" : "  }\n");
+    }
+    out.write("]\n");
+    out.flush();
+  }
+
+  /**
+   * Run batches of the operation for one iteration.
+   *
+   * @param operation the operation
+   * @param batch     the number of operations per batch
+   * @return the nanoseconds and the bytes allocated per operation
+   */
+  private double[] iteration(Operation operation, long batch) {
+    long tid = Thread.currentThread().getId();
+    long operations = 0;
+    long bytesBefore = this.threads.getThreadAllocatedBytes(tid);
+    long start = System.nanoTime();
+    long elapsed;
+    do {
+      operation.run(batch, this.blackhole);
+      operations += batch;
+      elapsed = System.nanoTime() - start;
+    } while (elapsed < this.iterationNanos);
+    long bytes = this.threads.getThreadAllocatedBytes(tid) - bytesBefore;
+    return new double[] {(double) elapsed / operations, (double) bytes / operations};
+  }
+
+  /**
+   * Time one batch of the operation.
+   *
+   * @param operation the operation
+   * @param batch     the number of operations
+   * @return the nanoseconds taken
+   */
+  private long timeBatch(Operation operation, long batch) {
+    long start = System.nanoTime();
+    operation.run(batch, this.blackhole);
+    return System.nanoTime() - start;
+  }
+
+  /**
+   * Format the samples of one metric as JMH does.
+   *
+   * @param samples the value of each measured iteration
+   * @param unit    the unit of the values
+   * @return the JSON object
+   */
+  private static String metric(double[] samples, String unit) {
+    StringBuilder raw = new StringBuilder();
+    for (double sample : samples) {
+      raw.append(raw.length() == 0 ? "" : ", ").append(sample);
+    }
+    return "{ \"score\" : " + mean(samples) + ", \"scoreError\" : " + error(samples)
+        + ", \"scoreUnit\" : " + quote(unit) + ", \"rawData\" : [ [ " + raw + " ] ] }";
+  }
+
+  /**
+   * Returns the mean of some samples.
+   *
+   * @param samples the samples
+   * @return the mean
+   */
+  private static double mean(double[] samples) {
+    double sum = 0;
+    for (double sample : samples) {
+      sum += sample;
+    }
+    return sum / samples.length;
+  }
+
+  /**
+   * Returns the half-width of the 99.9% confidence interval of the mean of some samples.
+   *
+   * @param samples the samples
+   * @return the error, or 0 for a single sample
+   */
+  private static double error(double[] samples) {
+    if (samples.length < 2) {
+      return 0;
+    }
+    double mean = mean(samples);
+    double squares = 0;
+    for (double sample : samples) {
+      squares += (sample - mean) * (sample - mean);
+    }
+    double deviation = Math.sqrt(squares / (samples.length - 1));
+    int freedom = samples.length - 1;
+    double t = freedom <= T_999.length ? T_999[freedom - 1] : 3.291;
+    return t * deviation / Math.sqrt(samples.length);
+  }
+
+  /**
+   * Quote a string for JSON.
+   *
+   * @param text the string
+   * @return the quoted string
+   */
+  private static String quote(String text) {
+    StringBuilder quoted = new StringBuilder("\"");
+    for (char ch : text.toCharArray()) {
+      if (ch == '"' || ch == '\\') {
+        quoted.append('\\').append(ch);
+      } else if (ch < 0x20) {
+        quoted.append(String.format("\\u%04x", (int) ch));
+      } else {
+        quoted.append(ch);
+      }
+    }
+    return quoted.append('"').toString();
+  }
+
+  /**
+   * Returns parameters as an ordered map, given as alternating names and values.
+   *
+   * @param namesAndValues the names and values
+   * @return the parameters
+   */
+  public static Map<String, String> params(String... namesAndValues) {
+    Map<String, String> params = new LinkedHashMap<>();
+    for (int i = 0; i + 1 < namesAndValues.length; i += 2) {
+      params.put(namesAndValues[i], namesAndValues[i + 1]);
+    }
+    return params;
+  }
+
+  /**
+   * The measurements of one benchmark with one set of parameters.
+   */
+  public static final class Result {
+    private final String name;
+    private final Map<String, String> params;
+    private final double[] nanos;
+    private final double[] bytes;
+
+    private Result(String name, Map<String, String> params, double[] nanos, double[] bytes) {
+      this.name = name;
+      this.params = new LinkedHashMap<>(params);
+      this.nanos = nanos;
+      this.bytes = bytes;
+    }
+
+    /**
+     * Returns the name of the benchmark.
+     *
+     * @return the name
+     */
+    public String getName() {
+      return this.name;
+    }
+
+    /**
+     * Returns the mean time per operation.
+     *
+     * @return the score in nanoseconds per operation
+     */
+    public double getScore() {
+      return mean(this.nanos);
+    }
+
+    /**
+     * Returns the mean allocation per operation.
+     *
+     * @return the bytes allocated per operation
+     */
+    public double getAllocation() {
+      return mean(this.bytes);
+    }
+  }
+
+  /**
+   * Consumes benchmark results the way JMH's blackhole does. Every call reads volatile fields and
+   * compares the value with them, which the compiler cannot prove to be false, so the value must be
+   * computed on every iteration, yet the branch is never taken.
+   */
+  public static final class Blackhole {
+    private volatile int i1 = 1;
+    private volatile int i2 = 2;
+    private volatile long l1 = 1;
+    private volatile long l2 = 2;
+    private volatile int mask = 1;
+    private int random = 1;
+    private Object object;
+
+    private Blackhole() {
+    }
+
+    /**
+     * Consume an int.
+     *
+     * @param value the value
+     */
+    public void consume(int value) {
+      if (value == this.i1 & value == this.i2) {
+        throw new IllegalStateException("The blackhole was fooled.");
+      }
+    }
+
+    /**
+     * Consume a long.
+     *
+     * @param value the value
+     */
+    public void consume(long value) {
+      if (value == this.l1 & value == this.l2) {
+        throw new IllegalStateException("The blackhole was fooled.");
+      }
+    }
+
+    /**
+     * Consume a boolean.
+     *
+     * @param value the value
+     */
+    public void consume(boolean value) {
+      this.consume(value ? 1 : 0);
+    }
+
+    /**
+     * Consume an object.
+     *
+     * @param value the value
+     */
+    public void consume(Object value) {
+      int mask = this.mask;
+      this.random = this.random * 1664525 + 1013904223;
+      if ((this.random & mask) == 0) {
+        // Publish the object now and then, less often each time, so it always escapes.
+        this.object = value;
+        this.mask = (mask << 1) + 1;
+      }
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package tictactoe;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Runs a suite of benchmarks and writes the results as JSON. The model and controller suites
+ * live in modules of their own, each on the classpath of the one module it measures, and each has
+ * a {@code main} that calls {@link #run(String[], String, Consumer)}.
+ */
+public final class Benchmarks {
+
+  private Benchmarks() {
+  }
+
+  /**
+   * Run a suite of benchmarks.
+   *
+   * @param args        optionally {@code -quick} for short iterations and {@code -filter}
+   *                    followed by a pattern the benchmark names must contain, then optionally
+   *                    the JSON file to write
+   * @param defaultPath the JSON file to write when none is given
+   * @param suite       runs the benchmarks on a harness
+   * @throws IOException if the results cannot be written
+   */
+  public static void run(String[] args, String defaultPath, Consumer<BenchmarkHarness> suite)
+      throws IOException {
+    boolean quick = false;
+    Pattern filter = Pattern.compile("");
+    int i = 0;
+    for (; i < args.length && args[i].startsWith("-"); i++) {
+      if (args[i].equalsIgnoreCase("-quick")) {
+        quick = true;
+      } else if (args[i].equalsIgnoreCase("-filter") && i + 1 < args.length) {
+        filter = Pattern.compile(args[++i]);
+      }
+    }
+    Path path = Paths.get(i < args.length ? args[i] : defaultPath);
+
+    BenchmarkHarness harness = quick
+        ? new BenchmarkHarness(1, 3, 100, filter)
+        : new BenchmarkHarness(5, 5, 1000, filter);
+    suite.accept(harness);
+    try (Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+      harness.writeJson(out);
+    }
+    System.out.println("Wrote " + harness.getResults().size() + " results to " + path);
+  }
+}
@@ -0,0 +1,233 @@
+package tictactoe;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class plays scripted games without a console. Every line of the input is one game, given
+ * as the same one-based row and column tokens a player would enter on the console, including
+ * {@code q} to quit and {@code u} and {@code r} to undo and redo. Lines are handed to a pool of
+ * workers in batches, each game is played on a fresh {@link TicTacToeModel} by the console's own
+ * session without rendering the board, and one record per game is written in input order:
+ *
+ * <pre>
+ * line outcome plies rejected
+ * </pre>
+ *
+ * <p>where outcome is {@code X} or {@code O} for a win, {@code TIE}, {@code QUIT} or
+ * {@code UNFINISHED} when the tokens ran out first, plies is the number of marks on the board and
+ * rejected is the number of tokens or moves the console would have reported as invalid. Blank
+ * lines are skipped but still counted, so the line number always points back into the input.
+ */
+public class BatchGameRunner {
+
+  private final int threads;
+  private final int batchSize;
+
+  /**
+   * Constructs a runner with one worker per available processor.
+   */
+  public BatchGameRunner() {
+    this(Runtime.getRuntime().availableProcessors(), 4096);
+  }
+
+  /**
+   * Constructs a runner.
+   *
+   * @param threads   the number of workers playing games
+   * @param batchSize the number of lines handed to a worker at a time
+   * @throws IllegalArgumentException if either argument is not positive
+   */
+  public BatchGameRunner(int threads, int batchSize) throws IllegalArgumentException {
+    if (threads <= 0 || batchSize <= 0) {
+      throw new IllegalArgumentException("Threads and batch size must be positive.");
+    }
+    this.threads = threads;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Play the games in a move file and write their records to a result file, then print the number
+   * of games played per second.
+   *
+   * @param args the move file, the result file and optionally the number of workers
+   * @throws IOException if either file cannot be read or written
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.err.println("Usage: BatchGameRunner <move file> <result file> [threads]");
+      return;
+    }
+    BatchGameRunner runner = args.length > 2
+        ? new BatchGameRunner(Integer.parseInt(args[2]), 4096) : new BatchGameRunner();
+    Path input = Paths.get(args[0]);
+    Path output = Paths.get(args[1]);
+    long begin = System.nanoTime();
+    long games;
+    try (Reader in = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+        Writer out = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+      games = runner.run(in, out);
+    }
+    double seconds = (System.nanoTime() - begin) / 1e9;
+    System.out.printf("%d games in %.3f s (%.0f games/s) on %d workers%n", games, seconds,
+        games / seconds, runner.threads);
+  }
+
+  /**
+   * Play every game in the input and write one record per game to the output, in input order.
+   * Only a bounded number of batches is in flight at a time, so inputs of any length are
+   * streamed.
+   *
+   * @param in  the games to play, one per line
+   * @param out the output to write the records to, which is flushed but not closed
+   * @return the number of games played
+   * @throws IOException              if reading the input or writing the output fails
+   * @throws IllegalArgumentException if either argument is null
+   */
+  public long run(Reader in, Writer out) throws IOException, IllegalArgumentException {
+    if (in == null || out == null) {
+      throw new IllegalArgumentException("Input for run is null.");
+    }
+    BufferedReader reader = in instanceof BufferedReader
+        ? (BufferedReader) in : new BufferedReader(in);
+    Writer writer = out instanceof BufferedWriter ? out : new BufferedWriter(out);
+    ExecutorService pool = Executors.newFixedThreadPool(this.threads);
+    ArrayDeque<Future<Batch>> pending = new ArrayDeque<>();
+    long games = 0;
+    try {
+      int lineNumber = 0;
+      List<String> lines = new ArrayList<>(this.batchSize);
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lines.add(line);
+        if (lines.size() == this.batchSize) {
+          final List<String> batch = lines;
+          final int first = lineNumber + 1;
+          pending.add(pool.submit(() -> play(batch, first)));
+          lineNumber += lines.size();
+          lines = new ArrayList<>(this.batchSize);
+          if (pending.size() > 2 * this.threads) {
+            games += this.drain(pending.remove(), writer);
+          }
+        }
+      }
+      if (!lines.isEmpty()) {
+        final List<String> batch = lines;
+        final int first = lineNumber + 1;
+        pending.add(pool.submit(() -> play(batch, first)));
+      }
+      while (!pending.isEmpty()) {
+        games += this.drain(pending.remove(), writer);
+      }
+      writer.flush();
+    } finally {
+      for (Future<Batch> f : pending) {
+        f.cancel(true);
+      }
+      pool.shutdown();
+    }
+    return games;
+  }
+
+  /**
+   * Wait for a batch and write its records.
+   *
+   * @param result the batch being played
+   * @param out    the output to write the records to
+   * @return the number of games in the batch
+   * @throws IOException if writing the output fails
+   */
+  private long drain(Future<Batch> result, Writer out) throws IOException {
+    Batch batch;
+    try {
+      batch = result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while playing games.");
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("A worker failed while playing games.", e.getCause());
+    }
+    out.append(batch.records);
+    return batch.games;
+  }
+
+  /**
+   * Play a batch of games.
+   *
+   * @param lines the lines of the batch, one game each
+   * @param first the line number of the first line
+   * @return the records of the batch
+   */
+  private static Batch play(List<String> lines, int first) {
+    Batch batch = new Batch();
+    for (int i = 0; i < lines.size(); i++) {
+      if (!lines.get(i).isBlank()) {
+        playLine(lines.get(i), first + i, batch.records);
+        batch.games++;
+      }
+    }
+    return batch;
+  }
+
+  /**
+   * Play the game on one line and append its record. The line is fed to a silent
+   * {@link ConsoleSession} through a {@link ConsoleTokenizer}, so tokens are handled exactly as the
+   * console controller handles them, and tokens after the game ends are ignored.
+   *
+   * @param line       the tokens of the game
+   * @param lineNumber the line number of the game
+   * @param records    the records to append to
+   */
+  private static void playLine(String line, int lineNumber, StringBuilder records) {
+    TicTacToe m = new TicTacToeModel();
+    ConsoleTokenizer tokens = new ConsoleTokenizer();
+    ConsoleSession session = new ConsoleSession(m, new EnumMap<Player, MoveProvider>(Player.class),
+        null, () -> { });
+    session.advance();
+    for (int i = 0; i < line.length() && !session.isFinished(); i++) {
+      if (tokens.push(line.charAt(i))) {
+        session.accept(tokens, tokens.getKind());
+      }
+    }
+    if (!session.isFinished() && tokens.finish()) {
+      session.accept(tokens, tokens.getKind());
+    }
+
+    int plies = 0;
+    for (int r = 0; r < 3; r++) {
+      for (int c = 0; c < 3; c++) {
+        plies += m.getMarkAt(r, c) == null ? 0 : 1;
+      }
+    }
+    records.append(lineNumber).append(' ');
+    if (m.isGameOver()) {
+      records.append(m.getWinner() == null ? "TIE" : m.getWinner().toString());
+    } else {
+      records.append(session.isFinished() ? "QUIT" : "UNFINISHED");
+    }
+    records.append(' ').append(plies).append(' ').append(session.getRejected()).append('\n');
+  }
+
+  /**
+   * The records of a batch of games.
+   */
+  private static final class Batch {
+    private final StringBuilder records = new StringBuilder();
+    private int games;
+  }
+}
@@ -0,0 +1,244 @@
+package tictactoe;
+
+import java.util.Map;
+
+/**
+ * This class holds the turn-by-turn logic of a console game, independent of where its input
+ * comes from. It is fed one token at a time and writes every prompt and message the console shows
+ * into a text buffer, so the same game can be driven by a blocking loop over a {@code Readable}
+ * or by an event loop that receives input in arbitrary fragments. A session without a buffer
+ * plays silently and only counts the input it rejects, which is how scripted games are played.
+ */
+final class ConsoleSession {
+
+  private final TicTacToe m;
+  private final Map<Player, MoveProvider> computers;
+  private final StringBuilder out;
+  private final Runnable beforeComputer;
+  private final boolean history;
+  private int row;
+  private boolean hasRow;
+  private boolean updated;
+  private boolean finished;
+  private int rejected;
+
+  /**
+   * Constructs a session for a game.
+   *
+   * @param m              the game to play
+   * @param computers      the move provider of each computer player
+   * @param out            the buffer to write prompts and messages to, or null to write nothing
+   * @param beforeComputer called before a computer player chooses its move
+   */
+  ConsoleSession(TicTacToe m, Map<Player, MoveProvider> computers, StringBuilder out,
+      Runnable beforeComputer) {
+    this(m, computers, out, beforeComputer, true);
+  }
+
+  /**
+   * Constructs a session for a game, optionally without the undo and redo commands, which then
+   * are reported as not valid numbers like any other word.
+   *
+   * @param m              the game to play
+   * @param computers      the move provider of each computer player
+   * @param out            the buffer to write prompts and messages to, or null to write nothing
+   * @param beforeComputer called before a computer player chooses its move
+   * @param history        whether {@code u} and {@code r} undo and redo moves
+   */
+  ConsoleSession(TicTacToe m, Map<Player, MoveProvider> computers, StringBuilder out,
+      Runnable beforeComputer, boolean history) {
+    this.m = m;
+    this.computers = computers;
+    this.out = out;
+    this.beforeComputer = beforeComputer;
+    this.history = history;
+    this.updated = true;
+  }
+
+  /**
+   * Let computer players move and prompt the next human player, or announce the result once the
+   * game is over. Called once to begin the game and after every token.
+   */
+  void advance() {
+    if (this.finished) {
+      return;
+    }
+    MoveProvider computer;
+    while (!this.m.isGameOver() && (computer = this.computers.get(this.m.getTurn())) != null) {
+      this.beforeComputer.run();
+      this.computerMove(computer);
+      this.updated = true;
+    }
+
+    if (this.m.isGameOver()) {
+      this.finished = true;
+      if (this.out == null) {
+        return;
+      }
+      this.out.append(this.m.toString()).append("\n").append("Game is over! ");
+      if (this.m.getWinner() == null) {
+        this.out.append("Tie game.");
+      } else {
+        this.out.append(this.m.getWinner()).append(" wins.");
+      }
+    } else if (this.updated) {
+      if (this.out != null) {
+        this.out.append(this.m.toString()).append("\n")
+            .append("Enter a move for ").append(this.m.getTurn().toString()).append(":\n");
+      }
+      this.updated = false;
+    }
+  }
+
+  /**
+   * Returns whether the game has been won, tied or quit.
+   *
+   * @return whether the session needs no more input
+   */
+  boolean isFinished() {
+    return this.finished;
+  }
+
+  /**
+   * Returns the number of tokens and moves rejected so far: tokens that are not numbers or
+   * commands, moves that are off the board or onto a taken cell, and undo or redo commands with
+   * nothing to step through.
+   *
+   * @return the number of rejected inputs
+   */
+  int getRejected() {
+    return this.rejected;
+  }
+
+  /**
+   * Handle the token just read by a tokenizer: a number is half of a move, {@code q} quits,
+   * {@code u} undoes, {@code r} redoes and anything else is reported as not a valid number.
+   *
+   * @param token the tokenizer holding the token
+   * @param kind  the kind of the token
+   */
+  void accept(ConsoleTokenizer token, int kind) {
+    if (kind == ConsoleTokenizer.END || (kind == ConsoleTokenizer.WORD && token.isLetter('q'))) {
+      this.end();
+    } else if (kind == ConsoleTokenizer.NUMBER) {
+      this.number(token.getNumber());
+    } else if (this.history && token.isLetter('u')) {
+      this.step(true);
+    } else if (this.history && token.isLetter('r')) {
+      this.step(false);
+    } else {
+      this.reject("Not a valid number: ", token.getText());
+    }
+  }
+
+  /**
+   * Handle the end of the input, which quits the game.
+   */
+  void end() {
+    if (this.finished) {
+      return;
+    }
+    this.finished = true;
+    if (this.out != null) {
+      this.out.append("Game quit! Ending game state:\n").append(this.m.toString()).append("\n");
+    }
+  }
+
+  /**
+   * Handle a number entered: the first of a pair is the row and the second the column of a move,
+   * both one-based.
+   *
+   * @param num the number entered
+   */
+  private void number(int num) {
+    if (this.finished) {
+      return;
+    }
+    if (!this.hasRow) {
+      this.row = num;
+      this.hasRow = true;
+    } else {
+      this.hasRow = false;
+      if (this.m.tryMove(this.row - 1, num - 1) == MoveResult.OK) {
+        this.updated = true;
+      } else {
+        this.reject("Not a valid move: ", this.row + ", " + num);
+      }
+    }
+    this.advance();
+  }
+
+  /**
+   * Handle an undo or redo command, which also drops a row entered without its column.
+   *
+   * @param undo true to undo, false to redo
+   */
+  private void step(boolean undo) {
+    if (this.finished) {
+      return;
+    }
+    this.hasRow = false;
+    this.updated = this.stepHistory(undo);
+    this.advance();
+  }
+
+  /**
+   * Undo or redo a move. Computer players do not wait for input, so the step is repeated until it
+   * is a human player's turn again or there is nothing left to step through.
+   *
+   * @param undo true to undo moves, false to redo them
+   * @return whether any move was undone or redone
+   */
+  private boolean stepHistory(boolean undo) {
+    int steps = 0;
+    try {
+      do {
+        if (undo) {
+          this.m.undo();
+        } else {
+          this.m.redo();
+        }
+        steps++;
+      } while (this.computers.containsKey(this.m.getTurn()) && !this.m.isGameOver());
+    } catch (IllegalStateException e) {
+      if (steps == 0) {
+        this.reject(undo ? "Nothing to undo." : "Nothing to redo.", "");
+      }
+    }
+    return steps > 0;
+  }
+
+  /**
+   * Let a computer player make its move and announce it, using one-based coordinates like the
+   * human players enter.
+   *
+   * @param computer the move provider of the player whose turn it is
+   * @throws IllegalStateException if the computer chooses an invalid move
+   */
+  private void computerMove(MoveProvider computer) throws IllegalStateException {
+    Player turn = this.m.getTurn();
+    int[] choice = computer.nextMove(this.m);
+    try {
+      this.m.move(choice[0], choice[1]);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalStateException("The computer player chose an invalid move.");
+    }
+    if (this.out != null) {
+      this.out.append(turn).append(" moves: ").append(choice[0] + 1).append(", ")
+          .append(choice[1] + 1).append("\n");
+    }
+  }
+
+  /**
+   * Count a rejected input and report it.
+   *
+   * @param message the message describing the rejection
+   * @param input   the rejected input, appended after the message
+   */
+  private void reject(String message, String input) {
+    this.rejected++;
+    if (this.out != null) {
+      this.out.append(message).append(input).append("\n");
+    }
+  }
+}
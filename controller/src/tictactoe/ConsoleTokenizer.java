@@ -0,0 +1,209 @@
+package tictactoe;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+
+/**
+ * This class splits console input into whitespace-separated tokens the way a {@code Scanner}
+ * with its default delimiter does, but reads straight from a reusable char buffer. A token that is
+ * an int is parsed as it is read, so the common case of entering a move creates no strings and
+ * throws no exceptions; the text of any other token is kept in a second reusable buffer and only
+ * turned into a string when asked for. Input that arrives in fragments, such as from a
+ * non-blocking socket, can instead be pushed in one character at a time.
+ */
+final class ConsoleTokenizer {
+
+  /**
+   * There are no more tokens.
+   */
+  static final int END = 0;
+  /**
+   * The token is an int.
+   */
+  static final int NUMBER = 1;
+  /**
+   * The token is anything else.
+   */
+  static final int WORD = 2;
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private final Readable in;
+  private final Runnable beforeRead;
+  private final CharBuffer buffer;
+  private char[] token;
+  private int length;
+  private int number;
+  private int kind;
+  private boolean complete;
+  private boolean exhausted;
+
+  /**
+   * Constructs a tokenizer that is only fed through {@link #push(char)} and {@link #finish()}.
+   */
+  ConsoleTokenizer() {
+    this(null, null);
+  }
+
+  /**
+   * Constructs a tokenizer over an input.
+   *
+   * @param in         the input to read from
+   * @param beforeRead called whenever the buffer is empty and reading the input may block
+   */
+  ConsoleTokenizer(Readable in, Runnable beforeRead) {
+    this.in = in;
+    this.beforeRead = beforeRead;
+    if (in != null) {
+      this.buffer = CharBuffer.allocate(BUFFER_SIZE);
+      this.buffer.flip();
+    } else {
+      this.buffer = null;
+    }
+    this.token = new char[16];
+  }
+
+  /**
+   * Read the next token. Reading blocks until the token is followed by whitespace or the input
+   * ends, like a scanner does.
+   *
+   * @return {@link #NUMBER}, {@link #WORD} or {@link #END} when the input is exhausted
+   * @throws IOException if reading the input fails
+   */
+  int next() throws IOException {
+    int ch;
+    while ((ch = this.read()) >= 0) {
+      if (this.push((char) ch)) {
+        return this.kind;
+      }
+    }
+    return this.finish() ? this.kind : END;
+  }
+
+  /**
+   * Feed one character of input to the tokenizer, for input that arrives in fragments rather than
+   * through a {@code Readable}.
+   *
+   * @param ch the next character of the input
+   * @return whether the character completed a token, which can now be inspected
+   */
+  boolean push(char ch) {
+    if (Character.isWhitespace(ch)) {
+      return this.finish();
+    }
+    if (this.complete) {
+      this.length = 0;
+      this.complete = false;
+    }
+    if (this.length == this.token.length) {
+      char[] grown = new char[this.length * 2];
+      System.arraycopy(this.token, 0, grown, 0, this.length);
+      this.token = grown;
+    }
+    this.token[this.length++] = ch;
+    return false;
+  }
+
+  /**
+   * Complete the token being read, if there is one, as whitespace or the end of the input does.
+   *
+   * @return whether a token was completed, which can now be inspected
+   */
+  boolean finish() {
+    if (this.length == 0 || this.complete) {
+      return false;
+    }
+    this.complete = true;
+    this.kind = this.parseNumber() ? NUMBER : WORD;
+    return true;
+  }
+
+  /**
+   * Returns the kind of the current token.
+   *
+   * @return {@link #NUMBER} or {@link #WORD}
+   */
+  int getKind() {
+    return this.kind;
+  }
+
+  /**
+   * Returns the value of the current token.
+   *
+   * @return the int of the last token completed
+   */
+  int getNumber() {
+    return this.number;
+  }
+
+  /**
+   * Returns whether the current token is a single letter, ignoring case.
+   *
+   * @param letter the lower case letter to compare with
+   * @return whether the token is that letter
+   */
+  boolean isLetter(char letter) {
+    return this.length == 1 && Character.toLowerCase(this.token[0]) == letter;
+  }
+
+  /**
+   * Returns the text of the current token.
+   *
+   * @return the text of the last token completed
+   */
+  String getText() {
+    return new String(this.token, 0, this.length);
+  }
+
+  /**
+   * Parse the current token as an optionally signed decimal int.
+   *
+   * @return whether the token is an int, in which case its value is stored
+   */
+  private boolean parseNumber() {
+    int i = 0;
+    boolean negative = this.token[0] == '-';
+    if ((negative || this.token[0] == '+') && this.length > 1) {
+      i++;
+    }
+    // Accumulate negatively so that Integer.MIN_VALUE parses without overflowing.
+    long value = 0;
+    for (; i < this.length; i++) {
+      char ch = this.token[i];
+      if (ch < '0' || ch > '9') {
+        return false;
+      }
+      value = value * 10 - (ch - '0');
+      if (value < Integer.MIN_VALUE) {
+        return false;
+      }
+    }
+    if (!negative && value == Integer.MIN_VALUE) {
+      return false;
+    }
+    this.number = (int) (negative ? value : -value);
+    return true;
+  }
+
+  /**
+   * Returns the next character of the input, refilling the buffer when it runs out.
+   *
+   * @return the character, or -1 at the end of the input
+   * @throws IOException if reading the input fails
+   */
+  private int read() throws IOException {
+    while (!this.buffer.hasRemaining()) {
+      if (this.exhausted) {
+        return -1;
+      }
+      this.beforeRead.run();
+      this.buffer.clear();
+      int n = this.in.read(this.buffer);
+      this.buffer.flip();
+      if (n < 0) {
+        this.exhausted = true;
+      }
+    }
+    return this.buffer.get();
+  }
+}
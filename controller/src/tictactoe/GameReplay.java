@@ -0,0 +1,187 @@
+package tictactoe;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * This class rebuilds the position after any ply of a recorded game. The models cannot be copied,
+ * so a snapshot is a model of its own: the game is cut into intervals of a fixed number of plies,
+ * and the snapshot of an interval has played the moves up to its end and undone them back to its
+ * start. Seeking to a ply moves the snapshot of that ply's interval with undo and redo, which take
+ * constant time, so a seek costs at most one interval of steps however long the game is. Snapshots
+ * are built the first time their interval is visited.
+ */
+public class GameReplay {
+
+  /**
+   * Number of plies between snapshots when none is given.
+   */
+  public static final int DEFAULT_INTERVAL = 16;
+
+  private final Supplier<? extends TicTacToe> games;
+  private final int[][] moves;
+  private final int interval;
+  private final TicTacToe[] snapshots;
+  private final int[] plies;
+  private int ply;
+
+  /**
+   * Constructs a replay with a snapshot every {@link #DEFAULT_INTERVAL} plies.
+   *
+   * @param games creates a new game of the kind recorded
+   * @param moves the moves of the game as zero-based row and column pairs, in order
+   * @throws IllegalArgumentException if an argument is null or a move is not legal
+   */
+  public GameReplay(Supplier<? extends TicTacToe> games, List<int[]> moves)
+      throws IllegalArgumentException {
+    this(games, moves, DEFAULT_INTERVAL);
+  }
+
+  /**
+   * Constructs a replay, checking that the moves make a legal game.
+   *
+   * @param games    creates a new game of the kind recorded
+   * @param moves    the moves of the game as zero-based row and column pairs, in order
+   * @param interval the number of plies between snapshots
+   * @throws IllegalArgumentException if an argument is null, the interval is not positive or a
+   *                                  move is not legal
+   */
+  public GameReplay(Supplier<? extends TicTacToe> games, List<int[]> moves, int interval)
+      throws IllegalArgumentException {
+    if (games == null || moves == null) {
+      throw new IllegalArgumentException("Input for constructor is null.");
+    }
+    if (interval <= 0) {
+      throw new IllegalArgumentException("The snapshot interval must be positive.");
+    }
+    this.games = games;
+    this.moves = new int[moves.size()][];
+    for (int i = 0; i < this.moves.length; i++) {
+      int[] move = moves.get(i);
+      if (move == null || move.length != 2) {
+        throw new IllegalArgumentException("Move " + (i + 1) + " is not a row and column.");
+      }
+      this.moves[i] = move.clone();
+    }
+    this.interval = interval;
+    this.snapshots = new TicTacToe[this.moves.length / interval + 1];
+    this.plies = new int[this.snapshots.length];
+    // Building the last snapshot plays every move, which checks the whole game.
+    this.snapshot(this.snapshots.length - 1);
+  }
+
+  /**
+   * Parses a move list of one-based row and column numbers separated by whitespace, as they are
+   * entered on the console.
+   *
+   * @param text the move list
+   * @return the moves as zero-based row and column pairs
+   * @throws IllegalArgumentException if the text holds anything but an even count of numbers
+   */
+  public static List<int[]> parseMoves(String text) throws IllegalArgumentException {
+    String[] tokens = text.trim().split("\\s+");
+    if (tokens.length == 1 && tokens[0].isEmpty()) {
+      return new ArrayList<>();
+    }
+    if (tokens.length % 2 != 0) {
+      throw new IllegalArgumentException("The move list has a row without a column.");
+    }
+    List<int[]> moves = new ArrayList<>(tokens.length / 2);
+    try {
+      for (int i = 0; i < tokens.length; i += 2) {
+        moves.add(new int[] {Integer.parseInt(tokens[i]) - 1, Integer.parseInt(tokens[i + 1]) - 1});
+      }
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("The move list holds something other than numbers.");
+    }
+    return moves;
+  }
+
+  /**
+   * Returns the number of plies in the game.
+   *
+   * @return the number of moves recorded
+   */
+  public int getLength() {
+    return this.moves.length;
+  }
+
+  /**
+   * Returns the ply of the last position sought.
+   *
+   * @return the number of moves played in the current position
+   */
+  public int getPly() {
+    return this.ply;
+  }
+
+  /**
+   * Returns a recorded move.
+   *
+   * @param ply the index of the move, starting from 0
+   * @return the zero-based row and column of the move
+   * @throws IllegalArgumentException if there is no such move
+   */
+  public int[] getMove(int ply) throws IllegalArgumentException {
+    if (ply < 0 || ply >= this.moves.length) {
+      throw new IllegalArgumentException("There is no move " + ply + ".");
+    }
+    return this.moves[ply].clone();
+  }
+
+  /**
+   * Returns the position after the given number of moves. The game returned belongs to the
+   * replay and may be the same object for other plies, so it must only be read, and it is only
+   * valid until the next seek.
+   *
+   * @param ply the number of moves to play, from 0 to {@link #getLength()}
+   * @return the game in that position
+   * @throws IllegalArgumentException if the ply is out of range
+   */
+  public TicTacToe seek(int ply) throws IllegalArgumentException {
+    if (ply < 0 || ply > this.moves.length) {
+      throw new IllegalArgumentException("Not a valid ply: " + ply);
+    }
+    int index = ply / this.interval;
+    TicTacToe game = this.snapshot(index);
+    for (; this.plies[index] < ply; this.plies[index]++) {
+      game.redo();
+    }
+    for (; this.plies[index] > ply; this.plies[index]--) {
+      game.undo();
+    }
+    this.ply = ply;
+    return game;
+  }
+
+  /**
+   * Returns the snapshot of an interval, building it when it is first needed.
+   *
+   * @param index the interval
+   * @return the snapshot
+   * @throws IllegalArgumentException if a move is not legal
+   */
+  private TicTacToe snapshot(int index) throws IllegalArgumentException {
+    if (this.snapshots[index] != null) {
+      return this.snapshots[index];
+    }
+    TicTacToe game = this.games.get();
+    int start = index * this.interval;
+    int end = Math.min(start + this.interval, this.moves.length);
+    for (int i = 0; i < end; i++) {
+      try {
+        game.move(this.moves[i][0], this.moves[i][1]);
+      } catch (IllegalArgumentException | IllegalStateException e) {
+        throw new IllegalArgumentException("Move " + (i + 1) + " is not legal: "
+            + (this.moves[i][0] + 1) + ", " + (this.moves[i][1] + 1));
+      }
+    }
+    for (int i = end; i > start; i--) {
+      game.undo();
+    }
+    this.snapshots[index] = game;
+    this.plies[index] = start;
+    return game;
+  }
+}
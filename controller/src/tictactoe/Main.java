@@ -1,17 +1,43 @@
 package tictactoe;
 
 import java.io.InputStreamReader;
+import java.util.EnumMap;
+import java.util.Map;
 
 /**
  * Run a Tic Tac Toe game interactively on the console.
  */
 public class Main {
+
+  private static final long THINK_MILLIS = 1000;
+
   /**
    * Run a Tic Tac Toe game interactively on the console.
+   *
+   * @param args optionally {@code -x} and/or {@code -o} to let the computer play that side, then
+   *             optionally the rows, columns and win length of a generalized game
    */
   public static void main(String[] args) {
+    Map<Player, MoveProvider> computers = new EnumMap<>(Player.class);
+    int i = 0;
+    boolean computerX = false;
+    boolean computerO = false;
+    for (; i < args.length && args[i].startsWith("-"); i++) {
+      computerX |= args[i].equalsIgnoreCase("-x");
+      computerO |= args[i].equalsIgnoreCase("-o");
+    }
+    TicTacToe m = args.length - i == 3
+        ? new MnkTicTacToeModel(Integer.parseInt(args[i]), Integer.parseInt(args[i + 1]),
+            Integer.parseInt(args[i + 2]))
+        : new TicTacToeModel();
+    if (computerX) {
+      computers.put(Player.X, new SearchMoveProvider(THINK_MILLIS));
+    }
+    if (computerO) {
+      computers.put(Player.O, new SearchMoveProvider(THINK_MILLIS));
+    }
     new TicTacToeConsoleController(new InputStreamReader(System.in),
-        System.out).playGame(new TicTacToeModel());
+        System.out, computers).playGame(m);
 
   }
 }
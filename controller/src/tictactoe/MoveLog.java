@@ -0,0 +1,747 @@
+package tictactoe;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * A write-ahead log of the games a host is running, so that games in progress survive the host
+ * dying. Games are created through the log, and every move, undo and redo made on them is
+ * appended to the log file and forced to disk before the call returns. Opening a log replays it
+ * and returns every game that had not finished.
+ *
+ * <p>With group commit, callers on many threads hand their entries to a single committer thread,
+ * which writes whatever has gathered while the previous force was running and forces it once, so
+ * one disk flush makes a whole batch of moves durable. Without it, each call writes and forces
+ * its own entry.
+ *
+ * <p>Entries of finished games are dead weight, so once they make up most of the log it is
+ * compacted: the games still open are written to a new file, each as its creation followed by its
+ * move history, which then replaces the log. Opening a log compacts it the same way.
+ *
+ * <p>The file is an 8-byte header of the magic number and the format version, followed by
+ * fixed-size entries of the game id, the entry type, three int arguments and a CRC-32C. An entry
+ * torn by a crash fails its checksum, and the log is cut back to the last whole entry.
+ */
+public final class MoveLog implements Closeable {
+
+  static final int MAGIC = 0x5454574C;
+  static final int VERSION = 1;
+  static final int HEADER_BYTES = 8;
+  static final int ENTRY_BYTES = 28;
+  static final int START = 1;
+  static final int MOVE = 2;
+  static final int UNDO = 3;
+  static final int REDO = 4;
+  static final int END = 5;
+  // Compact once the log holds more than this many entries and over half of them are dead.
+  private static final long COMPACT_MIN_ENTRIES = 4096;
+
+  private final Path path;
+  private final boolean groupCommit;
+  private final Object lock;
+  private final CRC32C crc;
+  private final Map<Long, LoggedGame> open;
+  private final Thread committer;
+  private FileChannel channel;
+  private ByteBuffer pending;
+  private ByteBuffer writing;
+  private long appended;
+  private long durable;
+  private long entries;
+  private long liveEntries;
+  private long nextId;
+  private long compactions;
+  private IOException failure;
+  private boolean closed;
+
+  private MoveLog(Path path, boolean groupCommit) {
+    this.path = path;
+    this.groupCommit = groupCommit;
+    this.lock = new Object();
+    this.crc = new CRC32C();
+    this.open = new LinkedHashMap<>();
+    this.pending = ByteBuffer.allocate(ENTRY_BYTES * 256);
+    this.writing = ByteBuffer.allocate(ENTRY_BYTES * 256);
+    this.nextId = 1;
+    this.committer = groupCommit ? new Thread(this::commitLoop, "tictactoe-move-log") : null;
+  }
+
+  /**
+   * Open a log, creating it if the file does not exist, and rebuild the games it holds that had
+   * not finished.
+   *
+   * @param path        the log file
+   * @param groupCommit true to force batches of entries from many threads at once, false to
+   *                    force every entry on its own
+   * @return the log, compacted to the games still open
+   * @throws IOException if the file cannot be read or written, or is not a move log of this
+   *                     version
+   */
+  public static MoveLog open(Path path, boolean groupCommit) throws IOException {
+    MoveLog log = new MoveLog(path, groupCommit);
+    if (Files.exists(path)) {
+      log.recover();
+    }
+    synchronized (log.lock) {
+      log.compact();
+    }
+    if (log.committer != null) {
+      log.committer.setDaemon(true);
+      log.committer.start();
+    }
+    return log;
+  }
+
+  /**
+   * Start a standard three-by-three game.
+   *
+   * @return the new game, logged under a new id
+   * @throws IllegalStateException if the log is closed or has failed
+   */
+  public LoggedGame newGame() throws IllegalStateException {
+    return this.newGame(TicTacToe.UPPER_ROW - TicTacToe.LOWER_ROW + 1,
+        TicTacToe.UPPER_COL - TicTacToe.LOWER_COL + 1, 3);
+  }
+
+  /**
+   * Start a generalized game.
+   *
+   * @param rows the number of rows on the board
+   * @param cols the number of columns on the board
+   * @param k    the number of marks in a row needed to win
+   * @return the new game, logged under a new id
+   * @throws IllegalArgumentException if the dimensions are not valid for a game
+   * @throws IllegalStateException    if the log is closed or has failed
+   */
+  public LoggedGame newGame(int rows, int cols, int k)
+      throws IllegalArgumentException, IllegalStateException {
+    LoggedGame game;
+    synchronized (this.lock) {
+      game = new LoggedGame(this.nextId++, rows, cols, k);
+    }
+    this.append(game, START, rows, cols, k);
+    return game;
+  }
+
+  /**
+   * Returns the games that have not finished, in the order they were started. Right after the log
+   * is opened these are the games recovered from the file.
+   *
+   * @return the open games
+   */
+  public List<LoggedGame> getOpenGames() {
+    synchronized (this.lock) {
+      return Collections.unmodifiableList(new ArrayList<>(this.open.values()));
+    }
+  }
+
+  /**
+   * Returns the number of times the log has been compacted, including when it was opened.
+   *
+   * @return the number of compactions
+   */
+  public long getCompactions() {
+    synchronized (this.lock) {
+      return this.compactions;
+    }
+  }
+
+  /**
+   * Returns the number of entries in the log file, including those waiting to be written.
+   *
+   * @return the number of entries
+   */
+  public long getEntryCount() {
+    synchronized (this.lock) {
+      return this.entries;
+    }
+  }
+
+  /**
+   * Write every entry still waiting and close the file. The open games stay in the file and are
+   * recovered the next time it is opened.
+   *
+   * @throws IOException if the waiting entries cannot be written
+   */
+  @Override
+  public void close() throws IOException {
+    synchronized (this.lock) {
+      if (this.closed) {
+        return;
+      }
+      this.closed = true;
+      this.lock.notifyAll();
+    }
+    if (this.committer != null) {
+      try {
+        this.committer.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    synchronized (this.lock) {
+      this.channel.close();
+      if (this.failure != null) {
+        throw this.failure;
+      }
+    }
+  }
+
+  /**
+   * Read the log file and rebuild the games it holds, cutting off a torn entry at the end.
+   *
+   * @throws IOException if the file cannot be read or is not a move log of this version
+   */
+  private void recover() throws IOException {
+    ByteBuffer entry = ByteBuffer.allocate(ENTRY_BYTES);
+    try (FileChannel in = FileChannel.open(this.path, StandardOpenOption.READ)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+      while (header.hasRemaining() && in.read(header) >= 0) {
+        // Keep reading until the header is full or the file ends.
+      }
+      if (header.hasRemaining() || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+        throw new IOException("The file is not a move log of version " + VERSION + ".");
+      }
+      while (true) {
+        entry.clear();
+        while (entry.hasRemaining() && in.read(entry) >= 0) {
+          // Keep reading until the entry is full or the file ends.
+        }
+        this.crc.reset();
+        this.crc.update(entry.array(), 0, ENTRY_BYTES - 4);
+        if (entry.hasRemaining() || (int) this.crc.getValue() != entry.getInt(ENTRY_BYTES - 4)) {
+          // The end of the log, or an entry only partly written when the host died.
+          break;
+        }
+        this.replay(entry.getLong(0), entry.getInt(8), entry.getInt(12), entry.getInt(16),
+            entry.getInt(20));
+      }
+    }
+    // A game can end with its last move durable but not the entry that marks it finished.
+    this.open.values().removeIf(game -> game.delegate.isGameOver());
+  }
+
+  /**
+   * Apply one entry read from the file.
+   *
+   * @param id   the game
+   * @param type the kind of entry
+   * @param a    the first argument
+   * @param b    the second argument
+   * @param c    the third argument
+   * @throws IOException if the entry does not fit the games read so far
+   */
+  private void replay(long id, int type, int a, int b, int c) throws IOException {
+    this.nextId = Math.max(this.nextId, id + 1);
+    LoggedGame game = this.open.get(id);
+    try {
+      if (type == START && game == null) {
+        this.open.put(id, new LoggedGame(id, a, b, c));
+        return;
+      }
+      if (game == null) {
+        throw new IOException("The move log refers to game " + id + " before it starts.");
+      }
+      if (type == MOVE) {
+        game.delegate.move(a, b);
+        game.record(MOVE, a, b);
+      } else if (type == UNDO) {
+        game.delegate.undo();
+        game.record(UNDO, 0, 0);
+      } else if (type == REDO) {
+        game.delegate.redo();
+        game.record(REDO, 0, 0);
+      } else if (type == END) {
+        this.open.remove(id);
+      } else {
+        throw new IOException("The move log has an unknown entry type " + type + ".");
+      }
+    } catch (IllegalArgumentException | IllegalStateException e) {
+      throw new IOException("The move log holds an illegal step in game " + id + ".");
+    }
+  }
+
+  /**
+   * Rewrite the log with only the games still open, replacing the file atomically, and make every
+   * entry appended so far durable. Called with the lock held.
+   *
+   * @throws IOException if the new file cannot be written
+   */
+  private void compact() throws IOException {
+    Path temp = this.path.resolveSibling(this.path.getFileName() + ".tmp");
+    ByteBuffer out = ByteBuffer.allocate(HEADER_BYTES + ENTRY_BYTES * 256);
+    long count = 0;
+    try (FileChannel file = FileChannel.open(temp, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      out.putInt(MAGIC).putInt(VERSION);
+      for (LoggedGame game : this.open.values()) {
+        out = this.flushIfFull(file, out, 2L * game.historySize + 1);
+        this.encode(out, game.id, START, game.rows, game.cols, game.k);
+        for (int i = 0; i < game.historySize; i++) {
+          this.encode(out, game.id, MOVE, game.history[2 * i], game.history[2 * i + 1]);
+        }
+        for (int i = game.moveCount; i < game.historySize; i++) {
+          this.encode(out, game.id, UNDO, 0, 0);
+        }
+        game.entries = game.historySize * 2L - game.moveCount + 1;
+        count += game.entries;
+      }
+      out.flip();
+      while (out.hasRemaining()) {
+        file.write(out);
+      }
+      file.force(true);
+    }
+    if (this.channel != null) {
+      this.channel.close();
+    }
+    Files.move(temp, this.path, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+    this.channel = FileChannel.open(this.path, StandardOpenOption.WRITE,
+        StandardOpenOption.APPEND);
+    this.entries = count;
+    this.liveEntries = count;
+    this.pending.clear();
+    this.durable = this.appended;
+    this.compactions++;
+    this.lock.notifyAll();
+  }
+
+  /**
+   * Write out a buffer that has no room for the given number of entries, or grow it when even an
+   * empty buffer would not fit them.
+   *
+   * @param file    the file being written
+   * @param out     the buffer
+   * @param needed  the number of entries about to be added
+   * @return the buffer to add them to
+   * @throws IOException if the file cannot be written
+   */
+  private ByteBuffer flushIfFull(FileChannel file, ByteBuffer out, long needed)
+      throws IOException {
+    long bytes = needed * ENTRY_BYTES;
+    if (out.remaining() >= bytes) {
+      return out;
+    }
+    out.flip();
+    while (out.hasRemaining()) {
+      file.write(out);
+    }
+    out.clear();
+    if (out.capacity() < bytes) {
+      return ByteBuffer.allocate((int) Math.min(Integer.MAX_VALUE - 8, bytes));
+    }
+    return out;
+  }
+
+  /**
+   * Add one entry to the log and wait until it is durable.
+   *
+   * @param game the game the entry is about
+   * @param type the kind of entry
+   * @param a    the first argument
+   * @param b    the second argument
+   * @param c    the third argument
+   * @throws IllegalStateException if the log is closed or the entry could not be written
+   */
+  private void append(LoggedGame game, int type, int a, int b, int c)
+      throws IllegalStateException {
+    synchronized (this.lock) {
+      // The step goes into the history even when it is refused, so that a caller taking it back
+      // after a failure takes it back from the game and from its history alike.
+      game.record(type, a, b);
+      if (this.closed || this.failure != null) {
+        throw new IllegalStateException("The move log is closed or has failed.");
+      }
+      if (type == START) {
+        this.open.put(game.id, game);
+      }
+      if (this.pending.remaining() < ENTRY_BYTES) {
+        ByteBuffer bigger = ByteBuffer.allocate(2 * this.pending.capacity());
+        this.pending.flip();
+        bigger.put(this.pending);
+        this.pending = bigger;
+      }
+      this.encode(this.pending, game.id, type, a, b, c);
+      long sequence = ++this.appended;
+      this.entries++;
+      this.liveEntries++;
+      game.entries++;
+      if (type == END) {
+        this.open.remove(game.id);
+        this.liveEntries -= game.entries;
+      }
+
+      if (!this.groupCommit) {
+        try {
+          this.write(this.pending);
+          this.durable = sequence;
+          this.compactIfWasteful();
+        } catch (IOException e) {
+          this.failure = e;
+        }
+      } else {
+        // Once queued the entry reaches the file whatever the caller does, so an interrupt must
+        // not make it look unlogged; the wait goes on and the interrupt is restored afterwards.
+        boolean interrupted = false;
+        this.lock.notifyAll();
+        while (this.durable < sequence && this.failure == null) {
+          try {
+            this.lock.wait();
+          } catch (InterruptedException e) {
+            interrupted = true;
+          }
+        }
+        if (interrupted) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      if (this.durable < sequence) {
+        throw new IllegalStateException("The move could not be logged.");
+      }
+    }
+  }
+
+  /**
+   * Write batches of entries until the log is closed, forcing each batch once. Entries appended
+   * while a batch is being forced gather in the other buffer for the next one.
+   */
+  private void commitLoop() {
+    while (true) {
+      long target;
+      synchronized (this.lock) {
+        while (this.pending.position() == 0 && !this.closed) {
+          try {
+            this.lock.wait();
+          } catch (InterruptedException e) {
+            // Only close stops the committer.
+          }
+        }
+        if (this.pending.position() == 0) {
+          return;
+        }
+        ByteBuffer batch = this.pending;
+        this.pending = this.writing;
+        this.writing = batch;
+        target = this.appended;
+      }
+
+      IOException error = null;
+      try {
+        this.write(this.writing);
+      } catch (IOException e) {
+        error = e;
+      }
+      synchronized (this.lock) {
+        if (error == null) {
+          this.durable = Math.max(this.durable, target);
+          try {
+            this.compactIfWasteful();
+          } catch (IOException e) {
+            error = e;
+          }
+        }
+        if (error != null) {
+          this.failure = error;
+        }
+        this.lock.notifyAll();
+        if (error != null) {
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Compact the log once finished games make up most of it. Called with the lock held.
+   *
+   * @throws IOException if the new file cannot be written
+   */
+  private void compactIfWasteful() throws IOException {
+    if (this.entries > COMPACT_MIN_ENTRIES && this.entries > 2 * this.liveEntries) {
+      this.compact();
+    }
+  }
+
+  /**
+   * Write a buffer of entries to the end of the file, force it to disk and empty the buffer.
+   *
+   * @param buffer the entries, from the start of the buffer to its position
+   * @throws IOException if the file cannot be written
+   */
+  private void write(ByteBuffer buffer) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      this.channel.write(buffer);
+    }
+    this.channel.force(false);
+    buffer.clear();
+  }
+
+  /**
+   * Add one entry to a buffer.
+   *
+   * @param out  the buffer
+   * @param id   the game
+   * @param type the kind of entry
+   * @param a    the first argument
+   * @param b    the second argument
+   * @param c    the third argument
+   */
+  private void encode(ByteBuffer out, long id, int type, int a, int b, int c) {
+    int start = out.position();
+    out.putLong(id).putInt(type).putInt(a).putInt(b).putInt(c);
+    this.crc.reset();
+    this.crc.update(out.array(), out.arrayOffset() + start, ENTRY_BYTES - 4);
+    out.putInt((int) this.crc.getValue());
+  }
+
+  /**
+   * Add a move entry to a buffer.
+   *
+   * @param out  the buffer
+   * @param id   the game
+   * @param type the kind of entry
+   * @param r    the row
+   * @param c    the column
+   */
+  private void encode(ByteBuffer out, long id, int type, int r, int c) {
+    this.encode(out, id, type, r, c, 0);
+  }
+
+  /**
+   * A game whose every change is written to the log before it is acknowledged. It plays like the
+   * game it wraps; when a change cannot be logged it is taken back and an
+   * {@link IllegalStateException} is thrown. A game that is won or tied is marked finished in the
+   * log by the move that ends it, and an abandoned game is marked with {@link #finish()}.
+   */
+  public final class LoggedGame implements TicTacToe {
+
+    private final long id;
+    private final int rows;
+    private final int cols;
+    private final int k;
+    private final TicTacToe delegate;
+    // Rows and columns played; entries from moveCount up to historySize can be redone.
+    private int[] history;
+    private int moveCount;
+    private int historySize;
+    private long entries;
+    private boolean finished;
+
+    /**
+     * Constructs a game with an empty board.
+     *
+     * @param id   the id of the game in the log
+     * @param rows the number of rows on the board
+     * @param cols the number of columns on the board
+     * @param k    the number of marks in a row needed to win
+     * @throws IllegalArgumentException if the dimensions are not valid for a game
+     */
+    private LoggedGame(long id, int rows, int cols, int k) throws IllegalArgumentException {
+      this.id = id;
+      this.rows = rows;
+      this.cols = cols;
+      this.k = k;
+      this.delegate = rows == 3 && cols == 3 && k == 3
+          ? new TicTacToeModel() : new MnkTicTacToeModel(rows, cols, k);
+      this.history = new int[16];
+    }
+
+    /**
+     * Returns the id the game is logged under, which stays the same when it is recovered.
+     *
+     * @return the id of the game
+     */
+    public long getId() {
+      return this.id;
+    }
+
+    /**
+     * Mark an unfinished game as abandoned, so it is not recovered. Games that end in a win or a
+     * tie are marked automatically.
+     *
+     * @throws IllegalStateException if the game is already finished or cannot be logged
+     */
+    public void finish() throws IllegalStateException {
+      this.checkOpen();
+      this.finished = true;
+      append(this, END, 0, 0, 0);
+    }
+
+    @Override
+    public void move(int r, int c) throws IllegalArgumentException, IllegalStateException {
+      this.checkOpen();
+      this.delegate.move(r, c);
+      try {
+        append(this, MOVE, r, c, 0);
+      } catch (IllegalStateException e) {
+        this.takeBack(UNDO);
+        throw e;
+      }
+      this.finishIfOver();
+    }
+
+    @Override
+    public MoveResult tryMove(int r, int c) throws IllegalStateException {
+      if (this.finished) {
+        return MoveResult.GAME_OVER;
+      }
+      MoveResult result = this.delegate.tryMove(r, c);
+      if (result == MoveResult.OK) {
+        try {
+          append(this, MOVE, r, c, 0);
+        } catch (IllegalStateException e) {
+          this.takeBack(UNDO);
+          throw e;
+        }
+        this.finishIfOver();
+      }
+      return result;
+    }
+
+    @Override
+    public void undo() throws IllegalStateException {
+      this.checkOpen();
+      this.delegate.undo();
+      try {
+        append(this, UNDO, 0, 0, 0);
+      } catch (IllegalStateException e) {
+        this.takeBack(REDO);
+        throw e;
+      }
+    }
+
+    @Override
+    public void redo() throws IllegalStateException {
+      this.checkOpen();
+      this.delegate.redo();
+      try {
+        append(this, REDO, 0, 0, 0);
+      } catch (IllegalStateException e) {
+        this.takeBack(UNDO);
+        throw e;
+      }
+      this.finishIfOver();
+    }
+
+    @Override
+    public Player getTurn() {
+      return this.delegate.getTurn();
+    }
+
+    @Override
+    public boolean isGameOver() {
+      return this.delegate.isGameOver();
+    }
+
+    @Override
+    public Player getWinner() {
+      return this.delegate.getWinner();
+    }
+
+    @Override
+    public Player[][] getBoard() {
+      return this.delegate.getBoard();
+    }
+
+    @Override
+    public ReadOnlyBoard getBoardView() {
+      return this.delegate.getBoardView();
+    }
+
+    @Override
+    public Player getMarkAt(int r, int c) throws IllegalArgumentException {
+      return this.delegate.getMarkAt(r, c);
+    }
+
+    @Override
+    public long getZobristKey() {
+      return this.delegate.getZobristKey();
+    }
+
+    @Override
+    public String toString() {
+      return this.delegate.toString();
+    }
+
+    /**
+     * Update the move history for an entry. Called with the log's lock held.
+     *
+     * @param type the kind of entry
+     * @param r    the row of a move
+     * @param c    the column of a move
+     */
+    private void record(int type, int r, int c) {
+      if (type == MOVE) {
+        if (2 * this.moveCount == this.history.length) {
+          this.history = Arrays.copyOf(this.history, 2 * this.history.length);
+        }
+        this.history[2 * this.moveCount] = r;
+        this.history[2 * this.moveCount + 1] = c;
+        this.historySize = ++this.moveCount;
+      } else if (type == UNDO) {
+        this.moveCount--;
+      } else if (type == REDO) {
+        this.moveCount++;
+      }
+    }
+
+    /**
+     * Take back a step that could not be logged, from the game and from its move history, so that
+     * the open games never show a step the log does not hold.
+     *
+     * @param type the step that takes it back, UNDO or REDO
+     */
+    private void takeBack(int type) {
+      synchronized (MoveLog.this.lock) {
+        if (type == UNDO) {
+          this.delegate.undo();
+        } else {
+          this.delegate.redo();
+        }
+        this.record(type, 0, 0);
+      }
+    }
+
+    /**
+     * Log the end of the game once it has been won or tied. The move that ended it is already
+     * durable, so if the end cannot be logged the move stands: recovery drops games that are over
+     * whether or not their end was logged.
+     */
+    private void finishIfOver() {
+      if (this.delegate.isGameOver()) {
+        this.finished = true;
+        try {
+          append(this, END, 0, 0, 0);
+        } catch (IllegalStateException e) {
+          // The log is closed or has failed; the game is over either way.
+        }
+      }
+    }
+
+    /**
+     * Check that the game may still change.
+     *
+     * @throws IllegalStateException if the game has finished
+     */
+    private void checkOpen() throws IllegalStateException {
+      if (this.finished) {
+        throw new IllegalStateException("The game has finished.");
+      }
+    }
+  }
+}
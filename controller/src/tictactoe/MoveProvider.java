@@ -0,0 +1,17 @@
+package tictactoe;
+
+/**
+ * Represents a computer player for Tic Tac Toe: given a game that is not over, choose the move for
+ * the player whose turn it is.
+ */
+public interface MoveProvider {
+
+  /**
+   * Choose a move for the player whose turn it is. The game must not be changed.
+   *
+   * @param m a non-null tic tac toe Model whose game is not over
+   * @return the chosen move as a {@code {row, column}} pair, zero-based like
+   *         {@link TicTacToe#move(int, int)}
+   */
+  int[] nextMove(TicTacToe m);
+}
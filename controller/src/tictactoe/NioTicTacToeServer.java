@@ -0,0 +1,411 @@
+package tictactoe;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class serves console games over TCP from a single thread. A selector watches every
+ * connection; bytes are decoded and fed to a {@link ConsoleTokenizer} as they arrive, however the
+ * client splits them, and each completed token is handed to the connection's
+ * {@link ConsoleSession}, which plays it on its own {@link TicTacToeModel} and writes the same
+ * prompts and messages as the console controller. Output is queued in a per-connection buffer and
+ * written whenever the socket can take it; a client that stops reading has its input paused
+ * until its output drains. Connections beyond the limit are told the server is full and closed,
+ * and a client that sends nothing for the idle timeout has its game quit.
+ */
+public class NioTicTacToeServer implements Closeable {
+
+  private static final String FULL_MESSAGE = "Server is full.\n";
+  private static final int READ_BUFFER_SIZE = 1024;
+  // Output queued beyond this many bytes stops the connection's input from being read.
+  private static final int OUTPUT_HIGH_WATER = 64 * 1024;
+
+  private final int port;
+  private final int maxConnections;
+  private final int idleTimeoutMillis;
+  private final AtomicInteger active;
+  private final AtomicLong completed;
+  private Selector selector;
+  private ServerSocketChannel serverChannel;
+  private Thread loop;
+  private volatile boolean running;
+
+  /**
+   * Constructs a server that is not listening yet.
+   *
+   * @param port              the port to listen on, or 0 for any free port
+   * @param maxConnections    the number of games that may be played at once
+   * @param idleTimeoutMillis how long a client may wait before entering input, in milliseconds
+   * @throws IllegalArgumentException if the port is out of range or either limit is not positive
+   */
+  public NioTicTacToeServer(int port, int maxConnections, int idleTimeoutMillis)
+      throws IllegalArgumentException {
+    if (port < 0 || port > 65535 || maxConnections <= 0 || idleTimeoutMillis <= 0) {
+      throw new IllegalArgumentException("Invalid server configuration.");
+    }
+    this.port = port;
+    this.maxConnections = maxConnections;
+    this.idleTimeoutMillis = idleTimeoutMillis;
+    this.active = new AtomicInteger();
+    this.completed = new AtomicLong();
+  }
+
+  /**
+   * Serve games until the process is stopped.
+   *
+   * @param args optionally the port, the connection limit and the idle timeout in seconds
+   * @throws IOException          if the port cannot be listened on
+   * @throws InterruptedException if the main thread is interrupted while serving
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : 4000;
+    int max = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+    int idle = args.length > 2 ? Integer.parseInt(args[2]) * 1000 : 300_000;
+    NioTicTacToeServer server = new NioTicTacToeServer(port, max, idle);
+    server.start();
+    System.out.printf("Serving tic tac toe on port %d for up to %d players%n",
+        server.getPort(), max);
+    server.loop.join();
+  }
+
+  /**
+   * Start listening and run the event loop on a background thread.
+   *
+   * @throws IOException           if the port cannot be listened on
+   * @throws IllegalStateException if the server has already been started
+   */
+  public synchronized void start() throws IOException, IllegalStateException {
+    if (this.serverChannel != null) {
+      throw new IllegalStateException("The server has already been started.");
+    }
+    this.selector = Selector.open();
+    this.serverChannel = ServerSocketChannel.open();
+    this.serverChannel.bind(new InetSocketAddress(this.port),
+        Math.min(this.maxConnections, 4096));
+    this.serverChannel.configureBlocking(false);
+    this.serverChannel.register(this.selector, SelectionKey.OP_ACCEPT);
+    this.running = true;
+    this.loop = new Thread(this::eventLoop, "tictactoe-event-loop");
+    this.loop.setDaemon(true);
+    this.loop.start();
+  }
+
+  /**
+   * Returns the port the server listens on, which is only known after a start on port 0.
+   *
+   * @return the local port
+   * @throws IllegalStateException if the server has not been started
+   */
+  public int getPort() throws IllegalStateException {
+    if (this.serverChannel == null) {
+      throw new IllegalStateException("The server has not been started.");
+    }
+    return this.serverChannel.socket().getLocalPort();
+  }
+
+  /**
+   * Returns the address clients on this machine can reach the server at.
+   *
+   * @return the loopback address and the local port
+   */
+  public InetSocketAddress getLocalAddress() {
+    return new InetSocketAddress(InetAddress.getLoopbackAddress(), this.getPort());
+  }
+
+  /**
+   * Returns the number of games being played.
+   *
+   * @return the number of open sessions
+   */
+  public int getActiveSessions() {
+    return this.active.get();
+  }
+
+  /**
+   * Returns the number of sessions that have ended, however they ended.
+   *
+   * @return the number of finished sessions
+   */
+  public long getCompletedSessions() {
+    return this.completed.get();
+  }
+
+  /**
+   * Stop the event loop and close every connection.
+   */
+  @Override
+  public synchronized void close() {
+    if (this.serverChannel == null || !this.running) {
+      return;
+    }
+    this.running = false;
+    this.selector.wakeup();
+    try {
+      this.loop.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Dispatch ready connections until the server is closed, checking for idle clients a few times
+   * per timeout.
+   */
+  private void eventLoop() {
+    long checkInterval = Math.max(1, Math.min(this.idleTimeoutMillis / 4, 1000));
+    long nextCheck = System.currentTimeMillis() + checkInterval;
+    try {
+      while (this.running) {
+        this.selector.select(checkInterval);
+        Iterator<SelectionKey> ready = this.selector.selectedKeys().iterator();
+        while (ready.hasNext()) {
+          SelectionKey key = ready.next();
+          ready.remove();
+          if (!key.isValid()) {
+            continue;
+          }
+          if (key.isAcceptable()) {
+            this.accept();
+          } else {
+            this.handle(key);
+          }
+        }
+        long now = System.currentTimeMillis();
+        if (now >= nextCheck) {
+          this.closeIdle(now);
+          nextCheck = now + checkInterval;
+        }
+      }
+    } catch (IOException e) {
+      // The selector failed; nothing more can be served.
+    } finally {
+      for (SelectionKey key : this.selector.keys()) {
+        closeQuietly(key);
+      }
+      try {
+        this.selector.close();
+        this.serverChannel.close();
+      } catch (IOException e) {
+        // Closing is best effort.
+      }
+    }
+  }
+
+  /**
+   * Accept every pending connection, starting a game on each or turning it away when the server
+   * is full.
+   *
+   * @throws IOException if the listening socket fails
+   */
+  private void accept() throws IOException {
+    SocketChannel channel;
+    while ((channel = this.serverChannel.accept()) != null) {
+      if (this.active.get() >= this.maxConnections) {
+        try (SocketChannel rejected = channel) {
+          rejected.write(StandardCharsets.UTF_8.encode(FULL_MESSAGE));
+        } catch (IOException e) {
+          // The client has already gone.
+        }
+        continue;
+      }
+      channel.configureBlocking(false);
+      channel.socket().setTcpNoDelay(true);
+      Connection connection = new Connection();
+      SelectionKey key = channel.register(this.selector, 0, connection);
+      this.active.incrementAndGet();
+      connection.session.advance();
+      this.update(key, connection);
+    }
+  }
+
+  /**
+   * Read from and write to a ready connection.
+   *
+   * @param key the key of the connection
+   */
+  private void handle(SelectionKey key) {
+    Connection connection = (Connection) key.attachment();
+    SocketChannel channel = (SocketChannel) key.channel();
+    try {
+      if (key.isReadable()) {
+        int n = channel.read(connection.input);
+        connection.lastActive = System.currentTimeMillis();
+        connection.decode(n < 0);
+      }
+      if (key.isValid() && key.isWritable()) {
+        connection.output.flip();
+        channel.write(connection.output);
+        connection.output.compact();
+      }
+      this.update(key, connection);
+    } catch (IOException | IllegalStateException e) {
+      // The client went away mid-game.
+      this.finish(key);
+    }
+  }
+
+  /**
+   * Queue a connection's new output and choose what to wait for next: writing while output is
+   * queued and reading while the game needs input and the client keeps up with its output. A
+   * connection with nothing left to do is closed.
+   *
+   * @param key        the key of the connection
+   * @param connection the connection
+   * @throws IOException if writing to the client fails
+   */
+  private void update(SelectionKey key, Connection connection) throws IOException {
+    connection.encode();
+    if (connection.output.position() > 0) {
+      // Try to write straight away; most turns fit in the socket buffer.
+      connection.output.flip();
+      ((SocketChannel) key.channel()).write(connection.output);
+      connection.output.compact();
+    }
+    boolean writing = connection.output.position() > 0;
+    if (connection.session.isFinished() && !writing) {
+      this.finish(key);
+      return;
+    }
+    boolean reading = !connection.session.isFinished()
+        && connection.output.position() < OUTPUT_HIGH_WATER;
+    key.interestOps((reading ? SelectionKey.OP_READ : 0) | (writing ? SelectionKey.OP_WRITE : 0));
+  }
+
+  /**
+   * Quit the games of clients that have sent nothing for the idle timeout.
+   *
+   * @param now the current time in milliseconds
+   */
+  private void closeIdle(long now) {
+    for (SelectionKey key : this.selector.keys()) {
+      if (key.isValid() && key.attachment() instanceof Connection) {
+        Connection connection = (Connection) key.attachment();
+        if (!connection.session.isFinished()
+            && now - connection.lastActive >= this.idleTimeoutMillis) {
+          connection.session.end();
+          try {
+            this.update(key, connection);
+          } catch (IOException e) {
+            this.finish(key);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Close a connection and count its session as completed.
+   *
+   * @param key the key of the connection
+   */
+  private void finish(SelectionKey key) {
+    closeQuietly(key);
+    this.active.decrementAndGet();
+    this.completed.incrementAndGet();
+  }
+
+  /**
+   * Cancel a key and close its channel, ignoring any failure.
+   *
+   * @param key the key to close
+   */
+  private static void closeQuietly(SelectionKey key) {
+    key.cancel();
+    try {
+      key.channel().close();
+    } catch (IOException e) {
+      // Closing is best effort.
+    }
+  }
+
+  /**
+   * The state of one connection: its game, its buffers and its position in the input.
+   */
+  private static final class Connection {
+    private final ByteBuffer input = ByteBuffer.allocate(READ_BUFFER_SIZE);
+    private final CharBuffer chars = CharBuffer.allocate(READ_BUFFER_SIZE);
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final ConsoleTokenizer tokenizer = new ConsoleTokenizer();
+    private final StringBuilder text = new StringBuilder();
+    private final ConsoleSession session = new ConsoleSession(new TicTacToeModel(),
+        new EnumMap<Player, MoveProvider>(Player.class), this.text, () -> { });
+    private ByteBuffer output = ByteBuffer.allocate(READ_BUFFER_SIZE);
+    private long lastActive = System.currentTimeMillis();
+
+    /**
+     * Decode the bytes just read and play every token they complete. A character split across
+     * reads stays in the input buffer until the rest of it arrives.
+     *
+     * @param ended whether the client has closed its side of the connection
+     */
+    void decode(boolean ended) {
+      this.input.flip();
+      CoderResult result;
+      do {
+        result = this.decoder.decode(this.input, this.chars, ended);
+        this.play();
+      } while (result.isOverflow());
+      this.input.compact();
+      if (ended) {
+        this.decoder.flush(this.chars);
+        this.play();
+        if (this.tokenizer.finish()) {
+          this.session.accept(this.tokenizer, this.tokenizer.getKind());
+        }
+        this.session.end();
+      }
+    }
+
+    /**
+     * Feed the decoded characters to the tokenizer, playing each completed token until the game
+     * finishes.
+     */
+    private void play() {
+      this.chars.flip();
+      while (this.chars.hasRemaining() && !this.session.isFinished()) {
+        if (this.tokenizer.push(this.chars.get())) {
+          this.session.accept(this.tokenizer, this.tokenizer.getKind());
+        }
+      }
+      this.chars.clear();
+    }
+
+    /**
+     * Move the text written by the session into the output buffer, growing it as needed.
+     */
+    void encode() {
+      if (this.text.length() == 0) {
+        return;
+      }
+      CharBuffer pending = CharBuffer.wrap(this.text);
+      this.encoder.reset();
+      while (this.encoder.encode(pending, this.output, true).isOverflow()) {
+        ByteBuffer grown = ByteBuffer.allocate(this.output.capacity() * 2);
+        this.output.flip();
+        grown.put(this.output);
+        this.output = grown;
+      }
+      this.text.setLength(0);
+    }
+  }
+}
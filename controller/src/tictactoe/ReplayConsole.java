@@ -0,0 +1,147 @@
+package tictactoe;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * This class steps through a recorded game on the console. After every command it shows the board,
+ * the ply it is at and the move that led there. Entering {@code n} steps forward, {@code p} steps
+ * back, a number jumps to that ply and {@code q} or the end of the input stops the replay.
+ */
+public class ReplayConsole {
+
+  private final Readable in;
+  private final Appendable out;
+  private final StringBuilder pending;
+
+  /**
+   * Constructs a replay console.
+   *
+   * @param in  user input
+   * @param out system output
+   * @throws IllegalArgumentException if an argument is null
+   */
+  public ReplayConsole(Readable in, Appendable out) throws IllegalArgumentException {
+    if (in == null || out == null) {
+      throw new IllegalArgumentException("Input for constructor is null.");
+    }
+    this.in = in;
+    this.out = out;
+    this.pending = new StringBuilder();
+  }
+
+  /**
+   * Replay a game stored as a file of one-based row and column numbers, as they are entered on
+   * the console.
+   *
+   * @param args the file of moves, then optionally the rows, columns and win length of a
+   *             generalized game
+   * @throws IOException if the file cannot be read
+   */
+  public static void main(String[] args) throws IOException {
+    String text = new String(Files.readAllBytes(Paths.get(args[0])), StandardCharsets.UTF_8);
+    GameReplay replay = args.length == 4
+        ? new GameReplay(() -> new MnkTicTacToeModel(Integer.parseInt(args[1]),
+            Integer.parseInt(args[2]), Integer.parseInt(args[3])), GameReplay.parseMoves(text))
+        : new GameReplay(TicTacToeModel::new, GameReplay.parseMoves(text));
+    new ReplayConsole(new InputStreamReader(System.in), System.out).replay(replay);
+  }
+
+  /**
+   * Step through a game until the user stops.
+   *
+   * @param replay the recorded game, which starts at the empty board
+   * @throws IllegalArgumentException if the replay is null
+   * @throws IllegalStateException    if the output cannot be written
+   */
+  public void replay(GameReplay replay) throws IllegalArgumentException, IllegalStateException {
+    if (replay == null) {
+      throw new IllegalArgumentException("Input replay is null.");
+    }
+    this.pending.setLength(0);
+    ConsoleTokenizer tokens = new ConsoleTokenizer(this.in, this::flushOut);
+    this.show(replay, 0);
+    while (true) {
+      int kind;
+      try {
+        kind = tokens.next();
+      } catch (IOException e) {
+        kind = ConsoleTokenizer.END;
+      }
+      if (kind == ConsoleTokenizer.END
+          || (kind == ConsoleTokenizer.WORD && tokens.isLetter('q'))) {
+        break;
+      }
+      int ply = replay.getPly();
+      if (kind == ConsoleTokenizer.NUMBER) {
+        int target = tokens.getNumber();
+        if (target < 0 || target > replay.getLength()) {
+          this.pending.append("Not a valid ply: ").append(target).append("\n");
+        } else {
+          this.show(replay, target);
+        }
+      } else if (tokens.isLetter('n')) {
+        if (ply == replay.getLength()) {
+          this.pending.append("Already at the end.\n");
+        } else {
+          this.show(replay, ply + 1);
+        }
+      } else if (tokens.isLetter('p')) {
+        if (ply == 0) {
+          this.pending.append("Already at the start.\n");
+        } else {
+          this.show(replay, ply - 1);
+        }
+      } else {
+        this.pending.append("Not a valid command: ").append(tokens.getText()).append("\n");
+      }
+    }
+    this.pending.append("Replay stopped at ply ").append(replay.getPly()).append(".\n");
+    this.flushOut();
+  }
+
+  /**
+   * Seek to a ply and describe the position.
+   *
+   * @param replay the recorded game
+   * @param ply    the ply to show
+   */
+  private void show(GameReplay replay, int ply) {
+    TicTacToe game = replay.seek(ply);
+    this.pending.append(game.toString()).append("\n")
+        .append("Ply ").append(ply).append(" of ").append(replay.getLength());
+    if (ply > 0) {
+      int[] move = replay.getMove(ply - 1);
+      this.pending.append(", ").append(ply % 2 == 1 ? Player.X : Player.O)
+          .append(" played ").append(move[0] + 1).append(", ").append(move[1] + 1);
+    }
+    this.pending.append(".\n");
+    if (game.isGameOver()) {
+      this.pending.append("Game is over! ");
+      if (game.getWinner() == null) {
+        this.pending.append("Tie game.\n");
+      } else {
+        this.pending.append(game.getWinner()).append(" wins.\n");
+      }
+    }
+  }
+
+  /**
+   * Write the text gathered since the last flush to the output in a single append.
+   */
+  private void flushOut() {
+    if (this.pending.length() == 0) {
+      return;
+    }
+    try {
+      this.out.append(this.pending);
+    } catch (IOException e) {
+      throw new IllegalStateException("Appenable class throws an IOException.");
+    } finally {
+      this.pending.setLength(0);
+    }
+  }
+}
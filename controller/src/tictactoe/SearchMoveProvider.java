@@ -0,0 +1,288 @@
+package tictactoe;
+
+import java.util.Arrays;
+
+/**
+ * This class represents a computer player that searches the game tree. It runs negamax with
+ * alpha-beta pruning under iterative deepening, one ply deeper per iteration, and returns the best
+ * move of the deepest iteration finished within its time budget. It works on boards of any size:
+ * only empty cells within two steps of an existing mark are searched, and wins are checked along
+ * the four lines through the last move. The number of marks in a row that wins is read from the
+ * game.
+ */
+public class SearchMoveProvider implements MoveProvider {
+
+  private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+  private static final int RADIUS = 2;
+  private static final int WIN_SCORE = 1_000_000;
+  private static final int INFINITY = WIN_SCORE + 1;
+  private static final int CHECK_INTERVAL = 1024;
+  private static final byte EMPTY = 0;
+
+  private final long budgetNanos;
+  // Search state, reloaded from the model on every call.
+  private int winLength;
+  private int rows;
+  private int cols;
+  private byte[] cells;
+  private int[] nearby;
+  private int filled;
+  private long deadline;
+  private long nodes;
+  private boolean timeUp;
+
+  /**
+   * Constructs a search player.
+   *
+   * @param budgetMillis the time allowed for each move, in milliseconds
+   * @throws IllegalArgumentException if the budget is not positive
+   */
+  public SearchMoveProvider(long budgetMillis) throws IllegalArgumentException {
+    if (budgetMillis <= 0) {
+      throw new IllegalArgumentException("Time budget must be positive.");
+    }
+    this.budgetNanos = budgetMillis * 1_000_000L;
+  }
+
+  @Override
+  public int[] nextMove(TicTacToe m) throws IllegalArgumentException {
+    if (m == null || m.isGameOver()) {
+      throw new IllegalArgumentException("There is no move to make.");
+    }
+    this.deadline = System.nanoTime() + this.budgetNanos;
+    this.winLength = winLengthOf(m);
+    this.load(m.getBoardView());
+    byte mark = m.getTurn() == Player.X ? (byte) 1 : (byte) 2;
+    if (this.filled == 0) {
+      return new int[] {this.rows / 2, this.cols / 2};
+    }
+
+    int best = -1;
+    for (int cell = 0; cell < this.cells.length && best < 0; cell++) {
+      if (this.isCandidate(cell)) {
+        best = cell;
+      }
+    }
+    for (int cell = 0; cell < this.cells.length && best < 0; cell++) {
+      if (this.cells[cell] == EMPTY) {
+        best = cell;
+      }
+    }
+    this.nodes = 0;
+    this.timeUp = false;
+    int remaining = this.cells.length - this.filled;
+    for (int depth = 1; depth <= remaining; depth++) {
+      int iterationBest = best;
+      int alpha = -INFINITY;
+      // Search the previous iteration's best move first so that it sets the tightest window.
+      int score = this.scoreMove(best, mark, depth, alpha);
+      if (!this.timeUp) {
+        alpha = score;
+      }
+      for (int cell = 0; cell < this.cells.length && !this.timeUp; cell++) {
+        if (cell != best && this.isCandidate(cell)) {
+          score = this.scoreMove(cell, mark, depth, alpha);
+          if (!this.timeUp && score > alpha) {
+            alpha = score;
+            iterationBest = cell;
+          }
+        }
+      }
+      if (this.timeUp) {
+        break;
+      }
+      best = iterationBest;
+      if (alpha >= WIN_SCORE - depth) {
+        break;
+      }
+    }
+    return new int[] {best / this.cols, best % this.cols};
+  }
+
+  /**
+   * Returns the score of playing a root move, searched to the given depth.
+   *
+   * @param cell  the cell to play
+   * @param mark  the mark of the player to move
+   * @param depth the number of plies to search, including this move
+   * @param alpha the score of the best move found so far
+   * @return the score of the move for the player to move
+   */
+  private int scoreMove(int cell, byte mark, int depth, int alpha) {
+    this.place(cell, mark);
+    int score = this.isWin(cell, mark) ? WIN_SCORE - 1
+        : -this.negamax(depth - 1, 1, -INFINITY, -alpha, (byte) (3 - mark));
+    this.remove(cell);
+    return score;
+  }
+
+  /**
+   * Returns the score of a position for the player to move. Wins score higher the sooner they
+   * come; a position at the search horizon scores as a draw.
+   *
+   * @param depth the number of plies left to search
+   * @param ply   the number of plies played since the root
+   * @param alpha the lowest score still of interest
+   * @param beta  the highest score still of interest
+   * @param mark  the mark of the player to move
+   * @return the score of the position
+   */
+  private int negamax(int depth, int ply, int alpha, int beta, byte mark) {
+    if (++this.nodes % CHECK_INTERVAL == 0 && System.nanoTime() > this.deadline) {
+      this.timeUp = true;
+    }
+    if (this.timeUp || depth == 0 || this.filled == this.cells.length) {
+      return 0;
+    }
+    int best = -INFINITY;
+    for (int cell = 0; cell < this.cells.length && alpha < beta; cell++) {
+      if (!this.isCandidate(cell)) {
+        continue;
+      }
+      this.place(cell, mark);
+      int score = this.isWin(cell, mark) ? WIN_SCORE - ply - 1
+          : -this.negamax(depth - 1, ply + 1, -beta, -alpha, (byte) (3 - mark));
+      this.remove(cell);
+      best = Math.max(best, score);
+      alpha = Math.max(alpha, score);
+    }
+    return best;
+  }
+
+  /**
+   * Returns the number of marks in a row that wins a game.
+   *
+   * @param game the game
+   * @return the win length
+   * @throws IllegalArgumentException if the game is not a generalized game and not played on a
+   *                                  three-by-three board
+   */
+  private static int winLengthOf(TicTacToe game) throws IllegalArgumentException {
+    if (game instanceof MnkTicTacToeModel) {
+      return ((MnkTicTacToeModel) game).getWinLength();
+    }
+    ReadOnlyBoard board = game.getBoardView();
+    if (board.getRows() != 3 || board.getCols() != 3) {
+      throw new IllegalArgumentException("The win length of the game is unknown.");
+    }
+    return 3;
+  }
+
+  /**
+   * Copies the board of a game into the search state.
+   *
+   * @param board the board to copy
+   */
+  private void load(ReadOnlyBoard board) {
+    this.rows = board.getRows();
+    this.cols = board.getCols();
+    if (this.cells == null || this.cells.length != this.rows * this.cols) {
+      this.cells = new byte[this.rows * this.cols];
+      this.nearby = new int[this.rows * this.cols];
+    } else {
+      Arrays.fill(this.cells, EMPTY);
+      Arrays.fill(this.nearby, 0);
+    }
+    this.filled = 0;
+    for (int r = 0; r < this.rows; r++) {
+      for (int c = 0; c < this.cols; c++) {
+        Player p = board.getMarkAt(r, c);
+        if (p != null) {
+          this.place(r * this.cols + c, p == Player.X ? (byte) 1 : (byte) 2);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns whether a cell is worth searching: empty and near an existing mark.
+   *
+   * @param cell the cell index
+   * @return whether the cell is a candidate move
+   */
+  private boolean isCandidate(int cell) {
+    return this.cells[cell] == EMPTY && this.nearby[cell] > 0;
+  }
+
+  /**
+   * Marks a cell and counts the mark towards every cell near it.
+   *
+   * @param cell the cell index
+   * @param mark the mark to place
+   */
+  private void place(int cell, byte mark) {
+    this.cells[cell] = mark;
+    this.filled++;
+    this.updateNearby(cell, 1);
+  }
+
+  /**
+   * Clears a cell placed by {@link #place(int, byte)}.
+   *
+   * @param cell the cell index
+   */
+  private void remove(int cell) {
+    this.cells[cell] = EMPTY;
+    this.filled--;
+    this.updateNearby(cell, -1);
+  }
+
+  /**
+   * Adds a delta to the nearby-mark count of every cell within the radius of a cell.
+   *
+   * @param cell  the cell index
+   * @param delta the amount to add
+   */
+  private void updateNearby(int cell, int delta) {
+    int r = cell / this.cols;
+    int c = cell % this.cols;
+    for (int i = Math.max(0, r - RADIUS); i <= Math.min(this.rows - 1, r + RADIUS); i++) {
+      for (int j = Math.max(0, c - RADIUS); j <= Math.min(this.cols - 1, c + RADIUS); j++) {
+        this.nearby[i * this.cols + j] += delta;
+      }
+    }
+  }
+
+  /**
+   * Returns whether the mark just placed on a cell completes a winning line through it.
+   *
+   * @param cell the cell index
+   * @param mark the mark on the cell
+   * @return whether the move wins
+   */
+  private boolean isWin(int cell, byte mark) {
+    int r = cell / this.cols;
+    int c = cell % this.cols;
+    for (int[] d : DIRECTIONS) {
+      int count = 1 + this.countRun(r, c, d[0], d[1], mark)
+          + this.countRun(r, c, -d[0], -d[1], mark);
+      if (count >= this.winLength) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Counts consecutive cells holding a mark, stepping away from a cell in one direction.
+   *
+   * @param r    row of the starting cell
+   * @param c    column of the starting cell
+   * @param dr   row step
+   * @param dc   column step
+   * @param mark the mark to count
+   * @return the number of matching cells, at most the win length minus one
+   */
+  private int countRun(int r, int c, int dr, int dc, byte mark) {
+    int count = 0;
+    int i = r + dr;
+    int j = c + dc;
+    while (count < this.winLength - 1 && i >= 0 && i < this.rows && j >= 0 && j < this.cols
+        && this.cells[i * this.cols + j] == mark) {
+      count++;
+      i += dr;
+      j += dc;
+    }
+    return count;
+  }
+}
@@ -3,24 +3,26 @@ package tictactoe;
 /**
  * A single game of Tic Tac Toe, played on a three-by-three grid with two players,
  * with the object of the game to achieve three markers in a row either vertically,
- * horizontally, or diagonally. {@link Player} X goes first.
+ * horizontally, or diagonally. {@link Player} X goes first. Implementations may generalize the
+ * grid size and the number of markers in a row; the actual dimensions of a game are given by
+ * {@link #getBoardView()}.
  */
 public interface TicTacToe {
 
   /**
-   * Lowest boundary of row.
+   * Lowest boundary of row on the standard three-by-three grid.
    */
   int LOWER_ROW = 0;
   /**
-   * Highest boundary of row.
+   * Highest boundary of row on the standard three-by-three grid.
    */
   int UPPER_ROW = 2;
   /**
-   * Lowest boundary of column.
+   * Lowest boundary of column on the standard three-by-three grid.
    */
   int LOWER_COL = 0;
   /**
-   * Highest boundary of column.
+   * Highest boundary of column on the standard three-by-three grid.
    */
   int UPPER_COL = 2;
 
@@ -35,6 +37,33 @@ public interface TicTacToe {
    */
   void move(int r, int c);
 
+  /**
+   * Execute a move if it is legal, or report why it is not instead of throwing. The checks are
+   * the same as those of {@link #move(int, int)} and are made in the same order: the position,
+   * then the cell, then whether the game is over.
+   *
+   * @param r the row of the intended move
+   * @param c the column of the intended move
+   * @return {@link MoveResult#OK} if the move was made, or the reason it was not
+   */
+  MoveResult tryMove(int r, int c);
+
+  /**
+   * Take back the last move, restoring the turn, winner and game-over state from before it. The
+   * move can then be replayed with {@link #redo()} until a new move is made.
+   *
+   * @throws IllegalStateException if no move has been made
+   */
+  void undo();
+
+  /**
+   * Replay the most recently undone move.
+   *
+   * @throws IllegalStateException if there is no undone move to replay, because none was undone
+   *                               or a new move has been made since
+   */
+  void redo();
+
   /**
    * Get the current turn, i.e., the player who will mark on the next call to move().
    *
@@ -66,6 +95,14 @@ public interface TicTacToe {
    */
   Player[][] getBoard();
 
+  /**
+   * Return a read-only view of the current game state. The view is backed by the game itself, so
+   * it is cheap to obtain and reflects every later move; use {@link #getBoard()} for a snapshot.
+   *
+   * @return a read-only view of the game board
+   */
+  ReadOnlyBoard getBoardView();
+
   /**
    * Return the current {@link Player} mark at a given row and column, or {@code null} if the
    * position is empty.
@@ -76,4 +113,15 @@ public interface TicTacToe {
    */
   Player getMarkAt(int r, int c);
 
+  /**
+   * Return a 64-bit Zobrist key of the current position: the XOR of a fixed random number for
+   * each marked cell and the player who marked it. The key is kept up to date by every move, undo
+   * and redo, so reading it costs nothing. Equal positions on boards with the same number of
+   * columns have equal keys in every implementation, and two different positions share a key with
+   * a probability of about one in two to the power 64.
+   *
+   * @return the key of the current position, 0 for the empty board
+   */
+  long getZobristKey();
+
 }
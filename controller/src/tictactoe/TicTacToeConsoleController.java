@@ -1,21 +1,22 @@
 package tictactoe;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.InputMismatchException;
-import java.util.NoSuchElementException;
-import java.util.Scanner;
+import java.util.EnumMap;
+import java.util.Map;
 
 /**
  * The class represents TicTacToeConsoleController. It implements all methods in TicTacToeController
  * interface. It has three private fields. An In field which accepts user input. An out field which
- * shows system output. A move arraylist records valid move from user.
+ * shows system output. The tokens read are handed to a {@link ConsoleSession}, which plays the
+ * turns. Either player can instead be played by a computer {@link MoveProvider}, whose moves are
+ * announced on the output. Entering {@code u} takes back the last move and {@code r} replays it.
  */
 public class TicTacToeConsoleController implements TicTacToeController {
 
   private final Readable in;
   private final Appendable out;
-  private final ArrayList<Integer> move;
+  private final Map<Player, MoveProvider> computers;
+  private final StringBuilder pending;
 
   /**
    * Constructs a TicTacToeConsoleController with two parameters, and initializes them to in field
@@ -25,12 +26,27 @@ public class TicTacToeConsoleController implements TicTacToeController {
    * @param out system output
    */
   public TicTacToeConsoleController(Readable in, Appendable out) {
-    if (in == null || out == null) {
+    this(in, out, new EnumMap<Player, MoveProvider>(Player.class));
+  }
+
+  /**
+   * Constructs a TicTacToeConsoleController where some players are computers. Players without a
+   * move provider are human and enter their moves through the input.
+   *
+   * @param in        user input
+   * @param out       system output
+   * @param computers the move provider of each computer player
+   */
+  public TicTacToeConsoleController(Readable in, Appendable out,
+      Map<Player, MoveProvider> computers) {
+    if (in == null || out == null || computers == null) {
       throw new IllegalArgumentException("Input for constructor is null.");
     }
     this.in = in;
     this.out = out;
-    this.move = new ArrayList<Integer>();
+    this.computers = new EnumMap<Player, MoveProvider>(Player.class);
+    this.computers.putAll(computers);
+    this.pending = new StringBuilder();
   }
 
   @Override
@@ -39,96 +55,39 @@ public class TicTacToeConsoleController implements TicTacToeController {
       throw new IllegalArgumentException("Input model is null.");
     }
 
-    Scanner s1 = new Scanner(this.in);
-    boolean updated = true;
-
-    while (!m.isGameOver()) {
-
-      if (updated) {
-        StringBuilder str = new StringBuilder();
-        str.append(m.toString()).append("\n")
-            .append("Enter a move for ").append(m.getTurn().toString()).append(":\n");
-        this.appendOut(str);
-        updated = false;
-      }
-
-      int num1;
-      num1 = next(s1);
-
-      if (num1 == -2) {
-        StringBuilder str = new StringBuilder();
-        str.append("Game quit! Ending game state:\n").append(m.toString()).append("\n");
-        this.appendOut(str);
-        break;
-      }
-
-      if (num1 == -1) {
-        continue;
-      }
-
-      this.move.add(num1);
-
-      if (this.move.size() == 2) {
-        try {
-          m.move(move.get(0) - 1, move.get(1) - 1);
-          this.move.clear();
-          updated = true;
-        } catch (IllegalArgumentException | IllegalStateException e) {
-          StringBuilder str = new StringBuilder();
-          str.append(String.format("Not a valid move: %d, %d\n", move.get(0), move.get(1)));
-          this.appendOut(str);
-          this.move.clear();
-        }
+    this.pending.setLength(0);
+    ConsoleTokenizer s1 = new ConsoleTokenizer(this.in, this::flushOut);
+    // Show the position while a computer player thinks.
+    ConsoleSession session = new ConsoleSession(m, this.computers, this.pending, this::flushOut);
+    session.advance();
+    while (!session.isFinished()) {
+      int kind;
+      try {
+        kind = s1.next();
+      } catch (IOException e) {
+        // A failed read ends the input, just as running out of it does.
+        kind = ConsoleTokenizer.END;
       }
+      session.accept(s1, kind);
     }
-
-    if (m.isGameOver()) {
-      StringBuilder str = new StringBuilder();
-      str.append(m.toString()).append("\n").append("Game is over! ");
-
-      if (m.getWinner() == null) {
-        str.append("Tie game.");
-      } else {
-        str.append(m.getWinner()).append(" wins.");
-      }
-      this.appendOut(str);
-    }
+    this.flushOut();
   }
 
   /**
-   * Return the state of getting next input.
-   *
-   * @param s1 scanner to get input from user
-   * @return the state of getting next input
+   * Write the text gathered since the last flush to the game log in a single append. This is done
+   * before waiting for input, before a computer player thinks and at the end of the game, so each
+   * turn reaches the game log as one write.
    */
-  private int next(Scanner s1) {
-    try {
-      int num = s1.nextInt();
-      return num;
-    } catch (InputMismatchException e1) {
-      String n = s1.next();
-      if (n.equalsIgnoreCase("q")) {
-        return -2;
-      }
-      StringBuilder str = new StringBuilder();
-      str.append("Not a valid number: ").append(n).append("\n");
-      this.appendOut(str);
-      return -1;
-    } catch (NoSuchElementException e2) {
-      return -2;
+  private void flushOut() {
+    if (this.pending.length() == 0) {
+      return;
     }
-  }
-
-  /**
-   * Abstract the try-catch logic of appending a string to game log.
-   *
-   * @param s string ready to be appended to game log
-   */
-  private void appendOut(StringBuilder s) {
     try {
-      this.out.append(s);
+      this.out.append(this.pending);
     } catch (IOException e) {
       throw new IllegalStateException("Appenable class throws an IOException.");
+    } finally {
+      this.pending.setLength(0);
     }
   }
 
@@ -0,0 +1,581 @@
+package tictactoe;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class is a lobby that pairs remote players into shared games. Every connection joins a
+ * queue; at a fixed interval the queued players are paired in the order they arrived, the first
+ * of each pair playing X, skipping players who disconnected while they waited, and each pair
+ * plays one {@link TicTacToeModel} with every player seeing the board and prompts on their own
+ * connection. Each player is served by its own thread, and the turn passes between the two
+ * through a single atomic value, with the waiting thread parked until it is woken, so no locks
+ * are taken during a game. The lobby keeps metrics on how long players waited in the queue and
+ * how many games are being played.
+ */
+public class TicTacToeLobby implements Closeable {
+
+  private static final String FULL_MESSAGE = "Server is full.\n";
+  private static final String WAIT_MESSAGE = "Waiting for an opponent.\n";
+  // How long to wait for input when checking that a queued player is still connected.
+  private static final int PROBE_MILLIS = 1;
+
+  private final int port;
+  private final int maxConnections;
+  private final int idleTimeoutMillis;
+  private final long batchNanos;
+  private final Semaphore slots;
+  private final ConcurrentLinkedQueue<Seat> queue;
+  private final AtomicInteger waiting;
+  private final AtomicInteger activeGames;
+  private final AtomicLong gamesStarted;
+  private final LongAdder totalWaitNanos;
+  private final AtomicLong maxWaitNanos;
+  private final Set<Socket> sockets;
+  private ServerSocket serverSocket;
+  private ExecutorService players;
+  private Thread acceptor;
+  private Thread matchmaker;
+  private volatile boolean running;
+
+  /**
+   * Constructs a lobby that is not listening yet.
+   *
+   * @param port              the port to listen on, or 0 for any free port
+   * @param maxConnections    the number of players that may be queued or playing at once
+   * @param idleTimeoutMillis how long a player may take to enter input, in milliseconds
+   * @param batchMillis       the interval between pairing rounds, in milliseconds
+   * @throws IllegalArgumentException if the port is out of range or any limit is not positive
+   */
+  public TicTacToeLobby(int port, int maxConnections, int idleTimeoutMillis, long batchMillis)
+      throws IllegalArgumentException {
+    if (port < 0 || port > 65535 || maxConnections <= 0 || idleTimeoutMillis <= 0
+        || batchMillis <= 0) {
+      throw new IllegalArgumentException("Invalid lobby configuration.");
+    }
+    this.port = port;
+    this.maxConnections = maxConnections;
+    this.idleTimeoutMillis = idleTimeoutMillis;
+    this.batchNanos = TimeUnit.MILLISECONDS.toNanos(batchMillis);
+    this.slots = new Semaphore(maxConnections);
+    this.queue = new ConcurrentLinkedQueue<>();
+    this.waiting = new AtomicInteger();
+    this.activeGames = new AtomicInteger();
+    this.gamesStarted = new AtomicLong();
+    this.totalWaitNanos = new LongAdder();
+    this.maxWaitNanos = new AtomicLong();
+    this.sockets = ConcurrentHashMap.newKeySet();
+  }
+
+  /**
+   * Run a lobby until the process is stopped.
+   *
+   * @param args optionally the port, the connection limit, the idle timeout in seconds and the
+   *             pairing interval in milliseconds
+   * @throws IOException          if the port cannot be listened on
+   * @throws InterruptedException if the main thread is interrupted while serving
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : 4000;
+    int max = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+    int idle = args.length > 2 ? Integer.parseInt(args[2]) * 1000 : 300_000;
+    long batch = args.length > 3 ? Long.parseLong(args[3]) : 500;
+    TicTacToeLobby lobby = new TicTacToeLobby(port, max, idle, batch);
+    lobby.start();
+    System.out.printf("Lobby open on port %d for up to %d players%n", lobby.getPort(), max);
+    while (lobby.running) {
+      Thread.sleep(10_000);
+      System.out.printf("waiting %d, active games %d, started %d, mean wait %.1f ms, "
+              + "max wait %.1f ms%n", lobby.getWaitingPlayers(), lobby.getActiveGames(),
+          lobby.getGamesStarted(), lobby.getMeanQueueWaitMillis(),
+          lobby.getMaxQueueWaitMillis());
+    }
+  }
+
+  /**
+   * Start listening and pairing players on background threads.
+   *
+   * @throws IOException           if the port cannot be listened on
+   * @throws IllegalStateException if the lobby has already been started
+   */
+  public synchronized void start() throws IOException, IllegalStateException {
+    if (this.serverSocket != null) {
+      throw new IllegalStateException("The lobby has already been started.");
+    }
+    this.serverSocket = new ServerSocket();
+    this.serverSocket.bind(new InetSocketAddress(this.port), Math.min(this.maxConnections, 4096));
+    AtomicInteger count = new AtomicInteger();
+    this.players = Executors.newCachedThreadPool(r -> {
+      Thread t = new Thread(r, "tictactoe-player-" + count.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    });
+    this.running = true;
+    this.acceptor = new Thread(this::acceptLoop, "tictactoe-lobby-acceptor");
+    this.acceptor.setDaemon(true);
+    this.acceptor.start();
+    this.matchmaker = new Thread(this::matchLoop, "tictactoe-lobby-matchmaker");
+    this.matchmaker.setDaemon(true);
+    this.matchmaker.start();
+  }
+
+  /**
+   * Returns the port the lobby listens on, which is only known after a start on port 0.
+   *
+   * @return the local port
+   * @throws IllegalStateException if the lobby has not been started
+   */
+  public int getPort() throws IllegalStateException {
+    if (this.serverSocket == null) {
+      throw new IllegalStateException("The lobby has not been started.");
+    }
+    return this.serverSocket.getLocalPort();
+  }
+
+  /**
+   * Returns the address clients on this machine can reach the lobby at.
+   *
+   * @return the loopback address and the local port
+   */
+  public InetSocketAddress getLocalAddress() {
+    return new InetSocketAddress(InetAddress.getLoopbackAddress(), this.getPort());
+  }
+
+  /**
+   * Returns the number of players waiting for an opponent.
+   *
+   * @return the number of queued players
+   */
+  public int getWaitingPlayers() {
+    return this.waiting.get();
+  }
+
+  /**
+   * Returns the number of games being played.
+   *
+   * @return the number of active games
+   */
+  public int getActiveGames() {
+    return this.activeGames.get();
+  }
+
+  /**
+   * Returns the number of games started since the lobby opened.
+   *
+   * @return the number of games started
+   */
+  public long getGamesStarted() {
+    return this.gamesStarted.get();
+  }
+
+  /**
+   * Returns the mean time players spent in the queue before being paired.
+   *
+   * @return the mean wait in milliseconds, or 0 if nobody has been paired
+   */
+  public double getMeanQueueWaitMillis() {
+    long paired = 2 * this.gamesStarted.get();
+    return paired == 0 ? 0 : this.totalWaitNanos.sum() / 1e6 / paired;
+  }
+
+  /**
+   * Returns the longest time a player spent in the queue before being paired.
+   *
+   * @return the longest wait in milliseconds
+   */
+  public double getMaxQueueWaitMillis() {
+    return this.maxWaitNanos.get() / 1e6;
+  }
+
+  /**
+   * Stop accepting and pairing players and close every connection.
+   *
+   * @throws IOException if the listening socket cannot be closed
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    if (this.serverSocket == null || !this.running) {
+      return;
+    }
+    this.running = false;
+    this.serverSocket.close();
+    LockSupport.unpark(this.matchmaker);
+    try {
+      this.acceptor.join();
+      this.matchmaker.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    for (Socket socket : this.sockets) {
+      closeQuietly(socket);
+    }
+    this.players.shutdownNow();
+  }
+
+  /**
+   * Accept connections until the listening socket is closed, queueing each player or turning it
+   * away when every slot is taken.
+   */
+  private void acceptLoop() {
+    while (this.running) {
+      Socket socket;
+      try {
+        socket = this.serverSocket.accept();
+      } catch (IOException e) {
+        // The listening socket was closed.
+        return;
+      }
+      if (!this.slots.tryAcquire()) {
+        try (socket) {
+          socket.getOutputStream().write(FULL_MESSAGE.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+          // The client has already gone.
+        }
+        continue;
+      }
+      this.sockets.add(socket);
+      try {
+        Seat seat = new Seat(socket);
+        seat.send(WAIT_MESSAGE);
+        this.waiting.incrementAndGet();
+        this.queue.add(seat);
+      } catch (IOException e) {
+        this.release(socket);
+      }
+    }
+  }
+
+  /**
+   * Pair the queued players at every interval until the lobby is closed. A player left without
+   * an opponent in one round is the first to be paired in the next. Players who disconnected
+   * while they waited are dropped rather than paired, so they do not take an opponent into a game
+   * that ends at once.
+   */
+  private void matchLoop() {
+    Seat unpaired = null;
+    while (this.running) {
+      LockSupport.parkNanos(this, this.batchNanos);
+      if (unpaired != null && !unpaired.isConnected()) {
+        this.drop(unpaired);
+        unpaired = null;
+      }
+      Seat seat;
+      while (this.running && (seat = this.queue.poll()) != null) {
+        if (!seat.isConnected()) {
+          this.drop(seat);
+          continue;
+        }
+        if (unpaired == null) {
+          unpaired = seat;
+          continue;
+        }
+        long now = System.nanoTime();
+        this.recordWait(now - unpaired.queuedAt);
+        this.recordWait(now - seat.queuedAt);
+        this.waiting.addAndGet(-2);
+        this.activeGames.incrementAndGet();
+        this.gamesStarted.incrementAndGet();
+        SharedGame game = new SharedGame(unpaired, seat);
+        this.players.execute(() -> game.play(0));
+        this.players.execute(() -> game.play(1));
+        unpaired = null;
+      }
+    }
+  }
+
+  /**
+   * Remove a player who disconnected while queued.
+   *
+   * @param seat the player's seat, no longer in the queue
+   */
+  private void drop(Seat seat) {
+    this.waiting.decrementAndGet();
+    this.release(seat.socket);
+  }
+
+  /**
+   * Add a player's time in the queue to the metrics.
+   *
+   * @param nanos the time waited, in nanoseconds
+   */
+  private void recordWait(long nanos) {
+    this.totalWaitNanos.add(nanos);
+    this.maxWaitNanos.accumulateAndGet(nanos, Math::max);
+  }
+
+  /**
+   * Close a player's connection and free its slot.
+   *
+   * @param socket the connection
+   */
+  private void release(Socket socket) {
+    this.sockets.remove(socket);
+    this.slots.release();
+    closeQuietly(socket);
+  }
+
+  /**
+   * Close a socket, ignoring any failure.
+   *
+   * @param socket the socket to close
+   */
+  private static void closeQuietly(Socket socket) {
+    try {
+      socket.close();
+    } catch (IOException e) {
+      // Closing is best effort.
+    }
+  }
+
+  /**
+   * The connection of one player.
+   */
+  private final class Seat {
+    private final Socket socket;
+    // Buffered so that checking the connection can put back input typed while waiting.
+    private final BufferedInputStream in;
+    private final Writer out;
+    private final ConsoleTokenizer tokens;
+    private final long queuedAt;
+    private boolean gone;
+
+    /**
+     * Constructs a seat for a new connection.
+     *
+     * @param socket the connection to the player
+     * @throws IOException if the connection cannot be set up
+     */
+    Seat(Socket socket) throws IOException {
+      this.socket = socket;
+      socket.setSoTimeout(idleTimeoutMillis);
+      socket.setTcpNoDelay(true);
+      this.in = new BufferedInputStream(socket.getInputStream());
+      this.out = new BufferedWriter(
+          new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+      this.tokens = new ConsoleTokenizer(
+          new InputStreamReader(this.in, StandardCharsets.UTF_8), () -> { });
+      this.queuedAt = System.nanoTime();
+    }
+
+    /**
+     * Returns whether the player is still connected, without taking any input they typed while
+     * queued. A read that waits at most a millisecond sees the end of input or an error on a
+     * closed connection, and times out or finds input on an open one. Only called before the seat
+     * is played.
+     *
+     * @return whether the connection is open
+     */
+    boolean isConnected() {
+      boolean open;
+      try {
+        if (this.in.available() > 0) {
+          return true;
+        }
+        this.socket.setSoTimeout(PROBE_MILLIS);
+        this.in.mark(1);
+        open = this.in.read() >= 0;
+        this.in.reset();
+      } catch (SocketTimeoutException e) {
+        open = true;
+      } catch (IOException e) {
+        return false;
+      }
+      try {
+        this.socket.setSoTimeout(idleTimeoutMillis);
+      } catch (IOException e) {
+        return false;
+      }
+      return open;
+    }
+
+    /**
+     * Send text to the player.
+     *
+     * @param text the text to send
+     * @throws IOException if the player cannot be reached
+     */
+    void send(String text) throws IOException {
+      this.out.write(text);
+      this.out.flush();
+    }
+
+    /**
+     * Send text to the player, remembering instead of throwing if the player has gone.
+     *
+     * @param text the text to send
+     */
+    void tell(String text) {
+      if (this.gone) {
+        return;
+      }
+      try {
+        this.send(text);
+      } catch (IOException e) {
+        this.gone = true;
+      }
+    }
+
+    /**
+     * Read the next token from the player. A player who has gone, stopped typing for the idle
+     * timeout or closed their input has no more tokens.
+     *
+     * @return the kind of the token
+     */
+    int next() {
+      if (this.gone) {
+        return ConsoleTokenizer.END;
+      }
+      try {
+        return this.tokens.next();
+      } catch (IOException e) {
+        this.gone = true;
+        return ConsoleTokenizer.END;
+      }
+    }
+  }
+
+  /**
+   * A game shared by two seats. The state says whose turn it is or that the game has ended; only
+   * the player whose turn it is touches the model, and writing the state hands the model over,
+   * so the two threads never hold a lock.
+   */
+  private final class SharedGame {
+    private static final int OVER = 2;
+
+    private final Seat[] seats;
+    private final TicTacToe m;
+    // Only used by the side whose turn it is; the text left after a move is the next prompt.
+    private final StringBuilder text;
+    private final ConsoleSession session;
+    private final AtomicInteger state;
+    private final AtomicReferenceArray<Thread> threads;
+    private final AtomicInteger remaining;
+    // Written before the state is set to OVER, read after it is seen.
+    private int quitter;
+    private String finalBoard;
+    private String finalText;
+
+    /**
+     * Constructs a game between two players.
+     *
+     * @param x the player who moves first
+     * @param o the player who moves second
+     */
+    SharedGame(Seat x, Seat o) {
+      this.seats = new Seat[] {x, o};
+      this.m = new TicTacToeModel();
+      this.text = new StringBuilder();
+      this.session = new ConsoleSession(this.m, new EnumMap<Player, MoveProvider>(Player.class),
+          this.text, () -> { }, false);
+      this.state = new AtomicInteger(0);
+      this.threads = new AtomicReferenceArray<>(2);
+      this.remaining = new AtomicInteger(2);
+      this.quitter = -1;
+    }
+
+    /**
+     * Play one side of the game on the calling thread, waiting while the opponent moves, then
+     * tell the player the result and close their connection.
+     *
+     * @param side 0 to play X, 1 to play O
+     */
+    void play(int side) {
+      Seat me = this.seats[side];
+      this.threads.set(side, Thread.currentThread());
+      me.tell(side == 0 ? "You are X.\n" : "You are O.\n");
+      int s;
+      while ((s = this.state.get()) != OVER) {
+        if (s == side) {
+          this.takeTurn(side);
+        } else {
+          LockSupport.park(this);
+        }
+      }
+
+      if (this.quitter >= 0 && this.quitter != side) {
+        me.tell("Your opponent quit. Ending game state:\n" + this.finalBoard + "\n");
+      } else {
+        me.tell(this.finalText);
+      }
+      release(me.socket);
+      if (this.remaining.decrementAndGet() == 0) {
+        activeGames.decrementAndGet();
+      }
+    }
+
+    /**
+     * Prompt the player whose turn it is and feed their tokens to the game's console session until
+     * they make a valid move or quit, then hand the turn over. The prompt the session writes after
+     * a move is left in its buffer for the opponent.
+     *
+     * @param side the side whose turn it is
+     */
+    private void takeTurn(int side) {
+      Seat me = this.seats[side];
+      Player turn = this.m.getTurn();
+      this.session.advance();
+      while (true) {
+        if (this.text.length() > 0) {
+          me.tell(this.text.toString());
+          this.text.setLength(0);
+        }
+        this.session.accept(me.tokens, me.next());
+        if (this.session.isFinished()) {
+          this.quitter = this.m.isGameOver() ? -1 : side;
+          this.finalText = this.text.toString();
+          this.handOver(OVER, 1 - side);
+          return;
+        }
+        if (this.m.getTurn() != turn) {
+          String waiting = this.m.toString() + "\n" + "Waiting for " + this.m.getTurn()
+              + " to move.\n";
+          this.handOver(1 - side, 1 - side);
+          me.tell(waiting);
+          return;
+        }
+      }
+    }
+
+    /**
+     * Publish the new state and wake the opponent. The board is rendered first while this thread
+     * still owns the model.
+     *
+     * @param next     the new state
+     * @param opponent the side to wake
+     */
+    private void handOver(int next, int opponent) {
+      if (next == OVER) {
+        this.finalBoard = this.m.toString();
+      }
+      this.state.set(next);
+      Thread waiter = this.threads.get(opponent);
+      if (waiter != null) {
+        LockSupport.unpark(waiter);
+      }
+    }
+  }
+}
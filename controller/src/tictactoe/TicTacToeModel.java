@@ -1,19 +1,42 @@
 package tictactoe;
 
 import java.util.Arrays;
-import java.util.Objects;
-import java.util.stream.Collectors;
 
 /**
  * This class represents TicTacToeModel. It implements all methods in TicTacToe interface. It by
  * default has two private fields. A turn field of Player type which represents the player who takes
- * the turn. A 2D array of Player type represents the board of tic-tac-toe.
+ * the turn. A 2D array of Player type represents the board of tic-tac-toe. The outcome of the game
+ * is tracked incrementally by each move, so that isGameOver and getWinner run in constant time.
+ * The cells played are kept on a move stack so that undo and redo also run in constant time.
+ * The text of the board is kept as well and patched one cell at a time, so toString only builds a
+ * new string after the board has changed.
  */
 public class TicTacToeModel implements TicTacToe {
 
+  private static final String EMPTY_ROW = "   |   |  ";
+  private static final String SEPARATOR = "\n-----------\n";
+  // Distance in the rendering between the same column of two rows, and between two columns.
+  private static final int ROW_STRIDE = EMPTY_ROW.length() + SEPARATOR.length();
+  private static final int COL_STRIDE = 4;
+
   // add your implementation here
   private Player turn;
   private final Player[][] board;
+  // Per-line sums where X counts +1 and O counts -1; a line is won when its sum reaches +-3.
+  private final int[] rowSum;
+  private final int[] colSum;
+  private int diagSum;
+  private int antiDiagSum;
+  private int moveCount;
+  // Cells played, as row * 3 + column; entries from moveCount up to historySize can be redone.
+  private final byte[] history;
+  private int historySize;
+  private long zobristKey;
+  private boolean gameOver;
+  private Player winner;
+  private final ReadOnlyBoard boardView;
+  private final char[] rendering;
+  private String rendered;
 
   /**
    * Constructs a tictactoe model without parameter, but initializes it to two components, board and
@@ -22,46 +45,97 @@ public class TicTacToeModel implements TicTacToe {
   public TicTacToeModel() {
     this.board = new Player[3][3];
     this.turn = Player.X;
+    this.rowSum = new int[3];
+    this.colSum = new int[3];
+    this.diagSum = 0;
+    this.antiDiagSum = 0;
+    this.moveCount = 0;
+    this.history = new byte[9];
+    this.historySize = 0;
+    this.zobristKey = 0;
+    this.gameOver = false;
+    this.winner = null;
+    this.rendering = String.join(SEPARATOR, EMPTY_ROW, EMPTY_ROW, EMPTY_ROW).toCharArray();
+    this.rendered = null;
+    this.boardView = new ReadOnlyBoard() {
+      @Override
+      public int getRows() {
+        return board.length;
+      }
+
+      @Override
+      public int getCols() {
+        return board[0].length;
+      }
+
+      @Override
+      public Player getMarkAt(int r, int c) {
+        return TicTacToeModel.this.getMarkAt(r, c);
+      }
+    };
   }
 
   @Override
   public String toString() {
-    // Using Java stream API to save code:
-    return Arrays.stream(getBoard()).map(
-            row -> " " + Arrays.stream(row).map(
-                p -> p == null ? " " : p.toString()).collect(Collectors.joining(" | ")))
-        .collect(Collectors.joining("\n-----------\n"));
-    // This is the equivalent code as above, but using iteration, and still using 
-    // the helpful built-in String.join method.
-    /**********
-     List<String> rows = new ArrayList<>();
-     for(Player[] row : getBoard()) {
-     List<String> rowStrings = new ArrayList<>();
-     for(Player p : row) {
-     if(p == null) {
-     rowStrings.add(" ");
-     } else {
-     rowStrings.add(p.toString());
-     }
-     }
-     rows.add(" " + String.join(" | ", rowStrings));
-     }
-     return String.join("\n-----------\n", rows);
-     ************/
+    if (this.rendered == null) {
+      this.rendered = new String(this.rendering);
+    }
+    return this.rendered;
   }
 
   @Override
   public void move(int r, int c) throws IllegalArgumentException, IllegalStateException {
-    this.checkIllegalIndex(r, c);
-    if (this.board[r][c] != null) {
+    MoveResult result = this.tryMove(r, c);
+    if (result == MoveResult.GAME_OVER) {
+      throw new IllegalStateException("The game is over. No more movement is available.");
+    } else if (result != MoveResult.OK) {
       throw new IllegalArgumentException("The movement is out of board's range "
           + "or is occupied.");
     }
+  }
+
+  @Override
+  public MoveResult tryMove(int r, int c) {
+    if (r < LOWER_ROW || c < LOWER_COL || r > UPPER_ROW || c > UPPER_COL) {
+      return MoveResult.OUT_OF_BOUNDS;
+    }
+    if (this.board[r][c] != null) {
+      return MoveResult.OCCUPIED;
+    }
     if (this.isGameOver()) {
-      throw new IllegalStateException("The game is over. No more movement is available.");
+      return MoveResult.GAME_OVER;
     }
-    this.board[r][c] = this.getTurn();
+    this.play(r, c);
+    this.historySize = this.moveCount;
+    return MoveResult.OK;
+  }
+
+  @Override
+  public void undo() throws IllegalStateException {
+    if (this.moveCount == 0) {
+      throw new IllegalStateException("There is no move to undo.");
+    }
+    int cell = this.history[this.moveCount - 1];
+    int r = cell / this.board.length;
+    int c = cell % this.board.length;
     this.updateTurn();
+    this.updateSums(r, c, this.turn == Player.X ? -1 : 1);
+    this.zobristKey ^= Zobrist.of(cell, this.turn);
+    this.board[r][c] = null;
+    this.render(r, c);
+    this.moveCount--;
+    // A game can only end on its last move, so every earlier state was still in play.
+    this.gameOver = false;
+    this.winner = null;
+  }
+
+  @Override
+  public void redo() throws IllegalStateException {
+    if (this.moveCount == this.historySize) {
+      throw new IllegalStateException("There is no move to redo.");
+    }
+    int cell = this.history[this.moveCount];
+    this.play(cell / this.board.length, cell % this.board.length);
   }
 
   @Override
@@ -71,20 +145,12 @@ public class TicTacToeModel implements TicTacToe {
 
   @Override
   public boolean isGameOver() {
-    return this.isRowWin(this.getBoard()) ||
-        this.isColWin(this.getBoard()) ||
-        this.isDiagWin(this.getBoard()) ||
-        this.isBoardFull(this.getBoard());
+    return this.gameOver;
   }
 
   @Override
   public Player getWinner() {
-    if (this.isRowWin(this.getBoard()) ||
-        this.isColWin(this.getBoard()) ||
-        this.isDiagWin(this.getBoard())) {
-      return this.getNextPlayer();
-    }
-    return null;
+    return this.winner;
   }
 
   @Override
@@ -94,10 +160,20 @@ public class TicTacToeModel implements TicTacToe {
         .toArray(Player[][]::new);
   }
 
+  @Override
+  public ReadOnlyBoard getBoardView() {
+    return this.boardView;
+  }
+
   @Override
   public Player getMarkAt(int r, int c) {
     this.checkIllegalIndex(r, c);
-    return this.getBoard()[r][c];
+    return this.board[r][c];
+  }
+
+  @Override
+  public long getZobristKey() {
+    return this.zobristKey;
   }
 
   /**
@@ -112,76 +188,70 @@ public class TicTacToeModel implements TicTacToe {
   }
 
   /**
-   * Returns the next player based on the current turn.
+   * Mark a position that is known to be legal for the current player, record it on the move
+   * stack and update the outcome and turn.
    *
-   * @return the next player based on the current turn
+   * @param r row of a grid in the board
+   * @param c column of a grid in the board
    */
-  private Player getNextPlayer() {
-    return this.turn == Player.O ? Player.X : Player.O;
+  private void play(int r, int c) {
+    this.board[r][c] = this.getTurn();
+    this.render(r, c);
+    this.history[this.moveCount] = (byte) (r * this.board.length + c);
+    this.zobristKey ^= Zobrist.of(r * this.board.length + c, this.turn);
+    this.updateOutcome(r, c);
+    this.updateTurn();
   }
 
   /**
-   * Returns whether a winner appears in a row of tictactoe.
+   * Patch the text of one cell into the rendering of the board and drop the cached string.
    *
-   * @param board the board of tictactoe game
-   * @return whether a winner appears in a row of tictactoe
+   * @param r row of the grid that changed
+   * @param c column of the grid that changed
    */
-  private boolean isRowWin(Player[][] board) {
-
-    return Arrays.stream(board)
-        .anyMatch(row -> Arrays.stream(row).allMatch(p -> p == Player.O) ||
-            Arrays.stream(row).allMatch(p -> p == Player.X));
+  private void render(int r, int c) {
+    Player p = this.board[r][c];
+    this.rendering[r * ROW_STRIDE + 1 + c * COL_STRIDE] = p == null ? ' ' : p.toString().charAt(0);
+    this.rendered = null;
   }
 
   /**
-   * Returns whether a winner appears in a column of tictactoe.
+   * Update the line sums, move count and cached outcome after the current player marks the given
+   * position. Only the row, column and diagonals through that position can have been completed.
    *
-   * @param board the board of tictactoe game
-   * @return whether a winner appears in a row of tictactoe
+   * @param r row of the grid that was just marked
+   * @param c column of the grid that was just marked
    */
-  private boolean isColWin(Player[][] board) {
-    Player[][] transposedBoard = new Player[board[0].length][board.length];
-    for (int i = 0; i < board.length; i++) {
-      for (int j = 0; j < board[i].length; j++) {
-        transposedBoard[j][i] = board[i][j];
-      }
+  private void updateOutcome(int r, int c) {
+    boolean won = this.updateSums(r, c, this.turn == Player.X ? 1 : -1);
+    this.moveCount++;
+    if (won) {
+      this.winner = this.turn;
     }
-    return this.isRowWin(transposedBoard);
+    this.gameOver = won || this.moveCount == this.board.length * this.board.length;
   }
 
   /**
-   * Returns whether a winner appears in a diagonal of tictactoe.
+   * Add a mark's contribution to the sums of every line through its position.
    *
-   * @param board the board of tictactoe game
-   * @return whether a winner appears in a diagonal of tictactoe
+   * @param r     row of the grid
+   * @param c     column of the grid
+   * @param delta +1 to add an X, -1 to add an O, or the opposite to remove one
+   * @return whether one of those lines is now completely marked by one player
    */
-  private boolean isDiagWin(Player[][] board) {
-    Player[][] diagBoard = new Player[2][board.length];
-
-    int j = 0;
-    int q = board.length - 1;
-    for (int i = 0; i < board.length; i++) {
-      diagBoard[0][i] = board[i][j];
-      diagBoard[1][i] = board[i][q];
-      j++;
-      q--;
+  private boolean updateSums(int r, int c, int delta) {
+    int size = this.board.length;
+    boolean won = Math.abs(this.rowSum[r] += delta) == size;
+    won |= Math.abs(this.colSum[c] += delta) == size;
+    if (r == c) {
+      won |= Math.abs(this.diagSum += delta) == size;
     }
-
-    return this.isRowWin(diagBoard);
-  }
-
-  /**
-   * Returns whether the board of tictactoe is full.
-   *
-   * @param board the board of tictactoe game
-   * @return whether the board of tictactoe is full
-   */
-  private boolean isBoardFull(Player[][] board) {
-    return Arrays.stream(board)
-        .allMatch(row -> Arrays.stream(row).allMatch(Objects::nonNull));
+    if (r + c == size - 1) {
+      won |= Math.abs(this.antiDiagSum += delta) == size;
+    }
+    return won;
   }
 
-
   /**
    * Check illegal input of row and column.
    *
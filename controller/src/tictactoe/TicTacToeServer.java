@@ -0,0 +1,293 @@
+package tictactoe;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class serves console games over TCP. Every connection gets its own
+ * {@link TicTacToeModel} and a {@link TicTacToeConsoleController} reading moves from the socket
+ * and writing the same prompts the console shows back to it. Sessions run on a pool with one
+ * thread per allowed connection; a connection beyond the limit is told the server is full and
+ * closed. A client that sends nothing for the idle timeout has its game quit, just as if its
+ * input had ended.
+ */
+public class TicTacToeServer implements Closeable {
+
+  private static final String FULL_MESSAGE = "Server is full.\n";
+
+  private final int port;
+  private final int maxConnections;
+  private final int idleTimeoutMillis;
+  private final Semaphore slots;
+  private final Set<Socket> sockets;
+  private final AtomicLong completed;
+  private ServerSocket serverSocket;
+  private ExecutorService sessions;
+  private Thread acceptor;
+
+  /**
+   * Constructs a server that is not listening yet.
+   *
+   * @param port              the port to listen on, or 0 for any free port
+   * @param maxConnections    the number of games that may be played at once
+   * @param idleTimeoutMillis how long a client may wait before entering input, in milliseconds
+   * @throws IllegalArgumentException if the port is out of range or either limit is not positive
+   */
+  public TicTacToeServer(int port, int maxConnections, int idleTimeoutMillis)
+      throws IllegalArgumentException {
+    if (port < 0 || port > 65535 || maxConnections <= 0 || idleTimeoutMillis <= 0) {
+      throw new IllegalArgumentException("Invalid server configuration.");
+    }
+    this.port = port;
+    this.maxConnections = maxConnections;
+    this.idleTimeoutMillis = idleTimeoutMillis;
+    this.slots = new Semaphore(maxConnections);
+    this.sockets = ConcurrentHashMap.newKeySet();
+    this.completed = new AtomicLong();
+  }
+
+  /**
+   * Serve games until the process is stopped.
+   *
+   * @param args optionally the port, the connection limit and the idle timeout in seconds
+   * @throws IOException          if the port cannot be listened on
+   * @throws InterruptedException if the main thread is interrupted while serving
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : 4000;
+    int max = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+    int idle = args.length > 2 ? Integer.parseInt(args[2]) * 1000 : 300_000;
+    TicTacToeServer server = new TicTacToeServer(port, max, idle);
+    server.start();
+    System.out.printf("Serving tic tac toe on port %d for up to %d players%n",
+        server.getPort(), max);
+    server.acceptor.join();
+  }
+
+  /**
+   * Start listening and accepting connections on a background thread.
+   *
+   * @throws IOException           if the port cannot be listened on
+   * @throws IllegalStateException if the server has already been started
+   */
+  public synchronized void start() throws IOException, IllegalStateException {
+    if (this.serverSocket != null) {
+      throw new IllegalStateException("The server has already been started.");
+    }
+    this.serverSocket = new ServerSocket();
+    this.serverSocket.bind(new InetSocketAddress(this.port), Math.min(this.maxConnections, 4096));
+    this.sessions = Executors.newFixedThreadPool(this.maxConnections,
+        daemonThreads("tictactoe-session-"));
+    this.acceptor = daemonThreads("tictactoe-acceptor-").newThread(this::acceptLoop);
+    this.acceptor.start();
+  }
+
+  /**
+   * Returns the port the server listens on, which is only known after a start on port 0.
+   *
+   * @return the local port
+   * @throws IllegalStateException if the server has not been started
+   */
+  public int getPort() throws IllegalStateException {
+    if (this.serverSocket == null) {
+      throw new IllegalStateException("The server has not been started.");
+    }
+    return this.serverSocket.getLocalPort();
+  }
+
+  /**
+   * Returns the address clients on this machine can reach the server at.
+   *
+   * @return the loopback address and the local port
+   */
+  public InetSocketAddress getLocalAddress() {
+    return new InetSocketAddress(InetAddress.getLoopbackAddress(), this.getPort());
+  }
+
+  /**
+   * Returns the number of games being played.
+   *
+   * @return the number of open sessions
+   */
+  public int getActiveSessions() {
+    return this.maxConnections - this.slots.availablePermits();
+  }
+
+  /**
+   * Returns the number of sessions that have ended, however they ended.
+   *
+   * @return the number of finished sessions
+   */
+  public long getCompletedSessions() {
+    return this.completed.get();
+  }
+
+  /**
+   * Stop accepting connections and close every open session.
+   *
+   * @throws IOException if the listening socket cannot be closed
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    if (this.serverSocket == null) {
+      return;
+    }
+    this.serverSocket.close();
+    try {
+      this.acceptor.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    for (Socket socket : this.sockets) {
+      closeQuietly(socket);
+    }
+    this.sessions.shutdownNow();
+  }
+
+  /**
+   * Accept connections until the listening socket is closed, handing each to a session thread or
+   * turning it away when every slot is taken.
+   */
+  private void acceptLoop() {
+    while (!this.serverSocket.isClosed()) {
+      Socket socket;
+      try {
+        socket = this.serverSocket.accept();
+      } catch (IOException e) {
+        // The listening socket was closed.
+        return;
+      }
+      if (!this.slots.tryAcquire()) {
+        this.reject(socket);
+        continue;
+      }
+      this.sockets.add(socket);
+      try {
+        this.sessions.execute(() -> this.serve(socket));
+      } catch (RuntimeException e) {
+        // The pool was shut down by close.
+        this.sockets.remove(socket);
+        closeQuietly(socket);
+        this.slots.release();
+      }
+    }
+  }
+
+  /**
+   * Play one game over a connection and close it.
+   *
+   * @param socket the connection to the client
+   */
+  private void serve(Socket socket) {
+    try {
+      socket.setSoTimeout(this.idleTimeoutMillis);
+      socket.setTcpNoDelay(true);
+      Readable in = new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8);
+      Appendable out = new SocketAppendable(
+          new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+      new TicTacToeConsoleController(in, out).playGame(new TicTacToeModel());
+    } catch (IOException | IllegalStateException e) {
+      // The client went away; there is nobody left to tell.
+    } finally {
+      // Free the slot before closing, so a client that reconnects as soon as it sees the
+      // connection close is not turned away.
+      this.sockets.remove(socket);
+      this.completed.incrementAndGet();
+      this.slots.release();
+      closeQuietly(socket);
+    }
+  }
+
+  /**
+   * Tell a client the server is full and close its connection.
+   *
+   * @param socket the connection to turn away
+   */
+  private void reject(Socket socket) {
+    try (socket) {
+      socket.getOutputStream().write(FULL_MESSAGE.getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      // The client has already gone.
+    }
+  }
+
+  /**
+   * Close a socket, ignoring any failure.
+   *
+   * @param socket the socket to close
+   */
+  private static void closeQuietly(Socket socket) {
+    try {
+      socket.close();
+    } catch (IOException e) {
+      // Closing is best effort.
+    }
+  }
+
+  /**
+   * Returns a factory for named daemon threads, so that a running server does not keep the JVM
+   * alive on its own.
+   *
+   * @param prefix the start of every thread name
+   * @return the thread factory
+   */
+  private static ThreadFactory daemonThreads(String prefix) {
+    AtomicInteger count = new AtomicInteger();
+    return r -> {
+      Thread t = new Thread(r, prefix + count.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    };
+  }
+
+  /**
+   * An appendable that sends everything appended to the client right away. The console
+   * controller gathers each turn into a single append, so every turn is a single write.
+   */
+  private static final class SocketAppendable implements Appendable {
+    private final Writer writer;
+
+    /**
+     * Constructs an appendable over the writer of a connection.
+     *
+     * @param writer the writer to the client
+     */
+    SocketAppendable(Writer writer) {
+      this.writer = writer;
+    }
+
+    @Override
+    public Appendable append(CharSequence csq) throws IOException {
+      this.writer.append(csq).flush();
+      return this;
+    }
+
+    @Override
+    public Appendable append(CharSequence csq, int start, int end) throws IOException {
+      this.writer.append(csq, start, end).flush();
+      return this;
+    }
+
+    @Override
+    public Appendable append(char c) throws IOException {
+      this.writer.append(c).flush();
+      return this;
+    }
+  }
+}
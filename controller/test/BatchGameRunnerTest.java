@@ -0,0 +1,124 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import org.junit.Test;
+import tictactoe.BatchGameRunner;
+import tictactoe.TicTacToeConsoleController;
+import tictactoe.TicTacToeModel;
+
+/**
+ * Test cases for the batch game runner, using string readers and writers in place of files.
+ */
+public class BatchGameRunnerTest {
+
+  /**
+   * Tests the record of every kind of outcome.
+   */
+  @Test
+  public void testOutcomes() throws IOException {
+    String input = "2 2 1 1 3 3 1 3 3 1 2 1 2 3 3 2 1 2\n"
+        + "1 1 2 1 1 2 2 2 1 3\n"
+        + "1 1 2 2 q 3 3\n"
+        + "1 1 2\n";
+    assertEquals("1 TIE 9 0\n"
+        + "2 X 5 0\n"
+        + "3 QUIT 2 0\n"
+        + "4 UNFINISHED 1 0\n", this.run(new BatchGameRunner(2, 3), input));
+  }
+
+  /**
+   * Tests that invalid tokens and moves are counted the way the console reports them.
+   */
+  @Test
+  public void testRejectedMoves() throws IOException {
+    String input = "!#$ 2 2 2 2 0 4 abc 99999999999 1 1 -1 3 u u u r r r 3 3\n";
+    assertEquals("1 UNFINISHED 3 8\n", this.run(new BatchGameRunner(1, 1), input));
+  }
+
+  /**
+   * Tests that a winning move ends the game and the tokens after it are ignored.
+   */
+  @Test
+  public void testTokensAfterWinIgnored() throws IOException {
+    String input = "1 1 2 1 1 2 2 2 1 3 garbage 3 3 q";
+    assertEquals("1 X 5 0\n", this.run(new BatchGameRunner(1, 1), input));
+  }
+
+  /**
+   * Tests that a game ends and counts rejections the same way it does on the console.
+   */
+  @Test
+  public void testSameAsConsole() throws IOException {
+    String moves = "U 2 2 +1 -1 R 1 1 u 1 3 Q 3 3";
+    StringBuilder log = new StringBuilder();
+    new TicTacToeConsoleController(new StringReader(moves), log).playGame(new TicTacToeModel());
+    String transcript = log.toString();
+    int rejected = transcript.split("Not a valid|Nothing to", -1).length - 1;
+    assertEquals(3, rejected);
+    assertEquals(true, transcript.contains("Game quit!"));
+    assertEquals("1 QUIT 2 " + rejected + "\n", this.run(new BatchGameRunner(1, 1), moves));
+  }
+
+  /**
+   * Tests that many batches on many workers are written in input order, with blank lines
+   * skipped but counted.
+   */
+  @Test
+  public void testRecordsInInputOrder() throws IOException {
+    StringBuilder input = new StringBuilder();
+    StringBuilder expected = new StringBuilder();
+    for (int i = 1; i <= 10000; i++) {
+      if (i % 7 == 0) {
+        input.append("\n");
+      } else if (i % 2 == 0) {
+        input.append("1 1 2 1 1 2 2 2 1 3\n");
+        expected.append(i).append(" X 5 0\n");
+      } else {
+        input.append("1 1 1 2 2 1 2 2 3 3 3 2\n");
+        expected.append(i).append(" O 6 0\n");
+      }
+    }
+    assertEquals(expected.toString(), this.run(new BatchGameRunner(4, 64), input.toString()));
+  }
+
+  /**
+   * Tests that the number of games played is returned.
+   */
+  @Test
+  public void testGameCount() throws IOException {
+    StringWriter out = new StringWriter();
+    assertEquals(2, new BatchGameRunner().run(new StringReader("1 1\n\n2 2 q\n"), out));
+  }
+
+  /**
+   * Tests a runner without any workers.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoWorkers() {
+    new BatchGameRunner(0, 10);
+  }
+
+  /**
+   * Tests running without an output.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullOutput() throws IOException {
+    new BatchGameRunner().run(new StringReader("1 1"), null);
+  }
+
+  /**
+   * Runs the given games and returns their records.
+   *
+   * @param runner the runner to use
+   * @param input  the games to play
+   * @return the records written
+   * @throws IOException if the runner fails to read or write
+   */
+  private String run(BatchGameRunner runner, String input) throws IOException {
+    StringWriter out = new StringWriter();
+    runner.run(new StringReader(input), out);
+    return out.toString();
+  }
+}
@@ -0,0 +1,55 @@
+import java.io.StringReader;
+
+import tictactoe.TicTacToeConsoleController;
+import tictactoe.TicTacToeModel;
+
+/**
+ * Microbenchmark timing the console controller on long scripted inputs: one made of moves that
+ * are rejected because their cell is occupied, and one made mostly of garbage tokens.
+ */
+public class ConsoleInputBenchmark {
+
+  private static final int TOKENS = 2_000_000;
+  private static final int ROUNDS = 5;
+
+  /**
+   * Run the benchmark and print one line per input.
+   *
+   * @param args not used
+   */
+  public static void main(String[] args) {
+    StringBuilder occupied = new StringBuilder("2 2 ");
+    StringBuilder garbage = new StringBuilder();
+    for (int i = 0; i < TOKENS / 2; i++) {
+      occupied.append("2 2 ");
+      garbage.append(i % 10 == 0 ? "1 " : "x1 ");
+      garbage.append(i % 10 == 0 ? "1\n" : "abc\n");
+    }
+    occupied.append("q");
+    garbage.append("q");
+
+    measure("occupied moves", occupied.toString());
+    measure("garbage tokens", garbage.toString());
+  }
+
+  /**
+   * Play one game over the given input a few times, reporting the fastest round.
+   *
+   * @param name  label printed with the result
+   * @param input the tokens to play
+   */
+  private static void measure(String name, String input) {
+    long best = Long.MAX_VALUE;
+    long output = 0;
+    for (int round = 0; round < ROUNDS; round++) {
+      StringBuilder log = new StringBuilder();
+      long start = System.nanoTime();
+      new TicTacToeConsoleController(new StringReader(input), log)
+          .playGame(new TicTacToeModel());
+      best = Math.min(best, System.nanoTime() - start);
+      output = log.length();
+    }
+    System.out.printf("%-16s %8.1f ns/token %10.0f tokens/s (output chars: %d)%n", name,
+        (double) best / TOKENS, TOKENS / (best / 1e9), output);
+  }
+}
@@ -0,0 +1,148 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import tictactoe.GameReplay;
+import tictactoe.MnkTicTacToeModel;
+import tictactoe.ReplayConsole;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeModel;
+
+/**
+ * Test cases for the replay of recorded games and the console that steps through them.
+ */
+public class GameReplayTest {
+
+  /**
+   * Tests that seeking to every ply of a long generalized game in random order gives the same
+   * position as playing the moves on a new game.
+   */
+  @Test
+  public void testSeekMatchesPlaying() {
+    List<int[]> moves = new ArrayList<>();
+    for (int r = 0; r < 15; r++) {
+      for (int c = 0; c < 15; c++) {
+        if ((r + c / 2) % 4 < 2 && moves.size() < 120) {
+          moves.add(new int[] {r, c});
+        }
+      }
+    }
+    GameReplay replay = new GameReplay(() -> new MnkTicTacToeModel(15, 15, 8), moves, 7);
+    assertEquals(moves.size(), replay.getLength());
+    Random random = new Random(7);
+    for (int i = 0; i < 500; i++) {
+      int ply = random.nextInt(moves.size() + 1);
+      TicTacToe expected = new MnkTicTacToeModel(15, 15, 8);
+      for (int j = 0; j < ply; j++) {
+        expected.move(moves.get(j)[0], moves.get(j)[1]);
+      }
+      assertEquals(expected.toString(), replay.seek(ply).toString());
+      assertEquals(expected.getTurn(), replay.seek(ply).getTurn());
+      assertEquals(ply, replay.getPly());
+    }
+  }
+
+  /**
+   * Tests that plies in the same interval share a snapshot.
+   */
+  @Test
+  public void testSnapshotReused() {
+    GameReplay replay = new GameReplay(TicTacToeModel::new,
+        GameReplay.parseMoves("2 2 1 1 3 3 1 3 3 1 2 1"), 4);
+    assertSame(replay.seek(4), replay.seek(6));
+    assertEquals(" O |   | O\n"
+        + "-----------\n"
+        + "   | X |  \n"
+        + "-----------\n"
+        + " X |   | X", replay.seek(5).toString());
+  }
+
+  /**
+   * Tests that an illegal move is reported when the replay is made.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalMove() {
+    new GameReplay(TicTacToeModel::new, GameReplay.parseMoves("2 2 2 2"));
+  }
+
+  /**
+   * Tests seeking past the end of the game.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testSeekPastEnd() {
+    new GameReplay(TicTacToeModel::new, GameReplay.parseMoves("2 2")).seek(2);
+  }
+
+  /**
+   * Tests a move list with a row but no column.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testParseOddMoves() {
+    GameReplay.parseMoves("2 2 1");
+  }
+
+  /**
+   * Tests stepping forward and back, jumping and the messages at either end.
+   */
+  @Test
+  public void testConsoleSteps() {
+    GameReplay replay = new GameReplay(TicTacToeModel::new,
+        GameReplay.parseMoves("1 1 2 1 1 2 2 2 1 3"));
+    StringBuilder log = new StringBuilder();
+    new ReplayConsole(new StringReader("p n 5 n 9 x p q n"), log).replay(replay);
+    assertEquals("   |   |  \n"
+        + "-----------\n"
+        + "   |   |  \n"
+        + "-----------\n"
+        + "   |   |  \n"
+        + "Ply 0 of 5.\n"
+        + "Already at the start.\n"
+        + " X |   |  \n"
+        + "-----------\n"
+        + "   |   |  \n"
+        + "-----------\n"
+        + "   |   |  \n"
+        + "Ply 1 of 5, X played 1, 1.\n"
+        + " X | X | X\n"
+        + "-----------\n"
+        + " O | O |  \n"
+        + "-----------\n"
+        + "   |   |  \n"
+        + "Ply 5 of 5, X played 1, 3.\n"
+        + "Game is over! X wins.\n"
+        + "Already at the end.\n"
+        + "Not a valid ply: 9\n"
+        + "Not a valid command: x\n"
+        + " X | X |  \n"
+        + "-----------\n"
+        + " O | O |  \n"
+        + "-----------\n"
+        + "   |   |  \n"
+        + "Ply 4 of 5, O played 2, 2.\n"
+        + "Replay stopped at ply 4.\n", log.toString());
+  }
+
+  /**
+   * Tests that the end of the input stops the replay.
+   */
+  @Test
+  public void testConsoleEndOfInput() {
+    StringBuilder log = new StringBuilder();
+    new ReplayConsole(new StringReader("1"), log)
+        .replay(new GameReplay(TicTacToeModel::new, GameReplay.parseMoves("3 3")));
+    assertEquals("Replay stopped at ply 1.\n",
+        log.substring(log.length() - "Replay stopped at ply 1.\n".length()));
+  }
+
+  /**
+   * Tests a console without an output.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testConsoleNullOutput() {
+    new ReplayConsole(new StringReader(""), null);
+  }
+}
@@ -0,0 +1,76 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import tictactoe.MoveLog;
+import tictactoe.TicTacToe;
+
+/**
+ * Benchmark for the write-ahead move log. Many threads play complete games through one log, and
+ * the moves logged per second are reported with group commit on and off. Every move is forced to
+ * disk before it returns in both modes; group commit lets one force cover the moves of many
+ * threads.
+ */
+public class MoveLogBenchmark {
+
+  // A full game ending in a tie, as row and column pairs.
+  private static final int[] TIE = {1, 1, 0, 0, 2, 2, 0, 2, 2, 0, 1, 0, 1, 2, 2, 1, 0, 1};
+
+  /**
+   * Run the benchmark.
+   *
+   * @param args optionally the number of threads, the games each plays and a directory for the log
+   * @throws Exception if the log cannot be written
+   */
+  public static void main(String[] args) throws Exception {
+    int threads = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+    int games = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+    File dir = args.length > 2 ? new File(args[2]) : null;
+    for (int round = 0; round < 2; round++) {
+      for (boolean groupCommit : new boolean[] {false, true}) {
+        File file = File.createTempFile("tictactoe", ".wal", dir);
+        file.delete();
+        file.deleteOnExit();
+        run(file.toPath(), groupCommit, threads, games);
+      }
+    }
+  }
+
+  /**
+   * Play the games on a fresh log and print the throughput.
+   *
+   * @param path        the log file
+   * @param groupCommit whether to batch forces
+   * @param threads     the number of threads
+   * @param games       the games each thread plays
+   * @throws Exception if the log cannot be written
+   */
+  private static void run(Path path, boolean groupCommit, int threads, int games)
+      throws Exception {
+    try (MoveLog log = MoveLog.open(path, groupCommit)) {
+      List<Thread> workers = new ArrayList<>();
+      long start = System.nanoTime();
+      for (int t = 0; t < threads; t++) {
+        Thread worker = new Thread(() -> {
+          for (int g = 0; g < games; g++) {
+            TicTacToe game = log.newGame();
+            for (int i = 0; i < TIE.length; i += 2) {
+              game.move(TIE[i], TIE[i + 1]);
+            }
+          }
+        });
+        workers.add(worker);
+        worker.start();
+      }
+      for (Thread worker : workers) {
+        worker.join();
+      }
+      double seconds = (System.nanoTime() - start) / 1e9;
+      long moves = (long) threads * games * TIE.length / 2;
+      System.out.printf("group commit %-5s: %d moves on %d threads in %.3f s (%.0f moves/s)%n",
+          groupCommit, moves, threads, seconds, moves / seconds);
+    }
+  }
+}
@@ -0,0 +1,263 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import tictactoe.MoveLog;
+import tictactoe.Player;
+import tictactoe.TicTacToe;
+
+/**
+ * Test cases for the write-ahead move log, using temporary files.
+ */
+public class MoveLogTest {
+
+  /**
+   * Tests that games left open are rebuilt with the same ids, boards and undo history, and that
+   * finished and abandoned games are not.
+   */
+  @Test
+  public void testRecoverOpenGames() throws IOException {
+    Path path = this.temp();
+    String board;
+    String mnkBoard;
+    long openId;
+    long mnkId;
+    try (MoveLog log = MoveLog.open(path, false)) {
+      MoveLog.LoggedGame open = log.newGame();
+      openId = open.getId();
+      open.move(1, 1);
+      open.move(0, 0);
+      open.move(2, 2);
+      open.undo();
+      board = open.toString();
+
+      this.play(log.newGame(), 0, 0, 1, 0, 0, 1, 1, 1, 0, 2);
+      MoveLog.LoggedGame abandoned = log.newGame();
+      abandoned.move(2, 2);
+      abandoned.finish();
+
+      MoveLog.LoggedGame mnk = log.newGame(5, 6, 4);
+      mnkId = mnk.getId();
+      this.play(mnk, 4, 5, 0, 0, 2, 3);
+      mnkBoard = mnk.toString();
+      assertEquals(2, log.getOpenGames().size());
+    }
+
+    try (MoveLog log = MoveLog.open(path, true)) {
+      List<MoveLog.LoggedGame> games = log.getOpenGames();
+      assertEquals(2, games.size());
+      assertEquals(openId, games.get(0).getId());
+      assertEquals(board, games.get(0).toString());
+      games.get(0).redo();
+      assertEquals(mnkId, games.get(1).getId());
+      assertEquals(mnkBoard, games.get(1).toString());
+      assertEquals(Player.O, games.get(1).getTurn());
+      assertTrue(log.newGame().getId() > mnkId);
+    }
+  }
+
+  /**
+   * Tests that a move is on disk when the call returns, by recovering a copy of the file taken
+   * while the log is still open, as if the host had died at that point.
+   */
+  @Test
+  public void testDurableBeforeReturn() throws IOException {
+    Path path = this.temp();
+    Path crashed = this.temp();
+    try (MoveLog log = MoveLog.open(path, true)) {
+      MoveLog.LoggedGame game = log.newGame();
+      game.move(1, 1);
+      game.move(0, 2);
+      Files.copy(path, crashed, StandardCopyOption.REPLACE_EXISTING);
+    }
+    try (MoveLog log = MoveLog.open(crashed, true)) {
+      assertEquals(1, log.getOpenGames().size());
+      assertEquals(Player.O, log.getOpenGames().get(0).getMarkAt(0, 2));
+    }
+  }
+
+  /**
+   * Tests that an entry torn by a crash is dropped and the rest of the log recovered.
+   */
+  @Test
+  public void testTornEntryDropped() throws IOException {
+    Path path = this.temp();
+    try (MoveLog log = MoveLog.open(path, false)) {
+      log.newGame().move(2, 0);
+    }
+    Files.write(path, new byte[] {0, 0, 0, 0, 0, 0, 0, 1, 0, 0}, StandardOpenOption.APPEND);
+    try (MoveLog log = MoveLog.open(path, false)) {
+      assertEquals(1, log.getOpenGames().size());
+      assertEquals(Player.X, log.getOpenGames().get(0).getMarkAt(2, 0));
+      log.getOpenGames().get(0).move(0, 0);
+    }
+    try (MoveLog log = MoveLog.open(path, false)) {
+      assertEquals(Player.O, log.getOpenGames().get(0).getMarkAt(0, 0));
+    }
+  }
+
+  /**
+   * Tests that the entries of finished games are compacted away while open games are kept.
+   */
+  @Test
+  public void testCompaction() throws IOException {
+    Path path = this.temp();
+    try (MoveLog log = MoveLog.open(path, true)) {
+      MoveLog.LoggedGame open = log.newGame();
+      open.move(1, 1);
+      long opened = log.getCompactions();
+      for (int i = 0; i < 2000; i++) {
+        this.play(log.newGame(), 0, 0, 1, 0, 0, 1, 1, 1, 0, 2);
+      }
+      assertTrue(log.getCompactions() > opened);
+      assertTrue(log.getEntryCount() < 4096 * 2);
+      assertTrue(Files.size(path) < 4096 * 2 * 28 + 8);
+    }
+    try (MoveLog log = MoveLog.open(path, true)) {
+      assertEquals(1, log.getOpenGames().size());
+      assertEquals(2, log.getEntryCount());
+    }
+  }
+
+  /**
+   * Tests many threads logging games at once with group commit.
+   */
+  @Test(timeout = 30000)
+  public void testConcurrentGroupCommit() throws IOException, InterruptedException {
+    Path path = this.temp();
+    try (MoveLog log = MoveLog.open(path, true)) {
+      List<Thread> threads = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        Thread thread = new Thread(() -> {
+          for (int i = 0; i < 50; i++) {
+            this.play(log.newGame(), 0, 0, 1, 1, 2, 2, 0, 2, 2, 0, 1, 0, 1, 2, 2, 1, 0, 1);
+          }
+          log.newGame().move(1, 1);
+        });
+        threads.add(thread);
+        thread.start();
+      }
+      for (Thread thread : threads) {
+        thread.join();
+      }
+    }
+    try (MoveLog log = MoveLog.open(path, false)) {
+      assertEquals(8, log.getOpenGames().size());
+    }
+  }
+
+  /**
+   * Tests that a move, undo or redo the log refuses is taken back, leaving the open game as it
+   * was.
+   */
+  @Test
+  public void testRefusedStepsTakenBack() throws IOException {
+    MoveLog log = MoveLog.open(this.temp(), false);
+    MoveLog.LoggedGame game = log.newGame();
+    game.move(1, 1);
+    game.move(0, 0);
+    game.undo();
+    String board = game.toString();
+    log.close();
+    for (Runnable step : new Runnable[] {() -> game.move(2, 2), game::undo, game::redo}) {
+      try {
+        step.run();
+        fail("The closed log accepted a step.");
+      } catch (IllegalStateException e) {
+        assertEquals(board, game.toString());
+        assertEquals(Player.O, game.getTurn());
+      }
+    }
+    assertEquals(board, log.getOpenGames().get(0).toString());
+  }
+
+  /**
+   * Tests that a finished game cannot be changed.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testMoveAfterFinish() throws IOException {
+    try (MoveLog log = MoveLog.open(this.temp(), false)) {
+      MoveLog.LoggedGame game = log.newGame();
+      game.finish();
+      game.move(0, 0);
+    }
+  }
+
+  /**
+   * Tests that a mover interrupted while waiting for group commit still has its moves logged,
+   * including the move that ends the game, keeps its interrupt, and that the log opens again.
+   */
+  @Test(timeout = 30000)
+  public void testInterruptedMoverGroupCommit() throws IOException, InterruptedException {
+    Path path = this.temp();
+    String[] board = new String[1];
+    boolean[] interrupted = new boolean[2];
+    try (MoveLog log = MoveLog.open(path, true)) {
+      MoveLog.LoggedGame open = log.newGame();
+      MoveLog.LoggedGame won = log.newGame();
+      Thread mover = new Thread(() -> {
+        Thread.currentThread().interrupt();
+        open.move(1, 1);
+        interrupted[0] = Thread.interrupted();
+        open.move(0, 0);
+        board[0] = open.toString();
+        Thread.currentThread().interrupt();
+        this.play(won, 0, 0, 1, 0, 0, 1, 1, 1, 0, 2);
+        interrupted[1] = Thread.interrupted();
+      });
+      mover.start();
+      mover.join();
+      assertEquals(1, log.getOpenGames().size());
+    }
+    assertTrue(interrupted[0]);
+    assertTrue(interrupted[1]);
+    try (MoveLog log = MoveLog.open(path, true)) {
+      List<MoveLog.LoggedGame> games = log.getOpenGames();
+      assertEquals(1, games.size());
+      assertEquals(board[0], games.get(0).toString());
+    }
+  }
+
+  /**
+   * Tests opening a file that is not a move log.
+   */
+  @Test(expected = IOException.class)
+  public void testNotAMoveLog() throws IOException {
+    Path path = this.temp();
+    Files.write(path, new byte[] {1, 2, 3});
+    MoveLog.open(path, false);
+  }
+
+  /**
+   * Plays moves given as row and column pairs.
+   *
+   * @param game  the game
+   * @param cells the rows and columns
+   */
+  private void play(TicTacToe game, int... cells) {
+    for (int i = 0; i < cells.length; i += 2) {
+      game.move(cells[i], cells[i + 1]);
+    }
+  }
+
+  /**
+   * Names a temporary file that does not exist yet and is deleted on exit.
+   *
+   * @return the path of the file
+   */
+  private Path temp() throws IOException {
+    File file = File.createTempFile("tictactoe", ".wal");
+    file.delete();
+    file.deleteOnExit();
+    return file.toPath();
+  }
+}
@@ -0,0 +1,144 @@
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import tictactoe.NioTicTacToeServer;
+import tictactoe.TicTacToeServer;
+
+/**
+ * Load test for the game servers. Many clients each play a series of complete games, and the
+ * time from sending a move to receiving the next prompt is recorded for every turn. Prints the
+ * sessions played per second and the median and 99th percentile turn latency.
+ */
+public class ServerLoadClient {
+
+  // A full game ending in a tie, as one-based row and column pairs.
+  private static final String[] MOVES = {
+      "2 2\n", "1 1\n", "3 3\n", "1 3\n", "3 1\n", "2 1\n", "2 3\n", "3 2\n", "1 2\n"};
+
+  /**
+   * Run the load test, against a server started in this process unless a host is given.
+   *
+   * @param args optionally the number of clients, the games each plays, then either a host and
+   *             port or {@code nio} to start the event-loop server instead of the threaded one
+   * @throws Exception if the server cannot be started or a client fails
+   */
+  public static void main(String[] args) throws Exception {
+    int clients = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+    int games = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+    Closeable server = null;
+    InetSocketAddress address;
+    if (args.length > 3) {
+      address = new InetSocketAddress(args[2], Integer.parseInt(args[3]));
+    } else if (args.length > 2 && args[2].equals("nio")) {
+      NioTicTacToeServer nio = new NioTicTacToeServer(0, clients, 30_000);
+      nio.start();
+      address = nio.getLocalAddress();
+      server = nio;
+    } else {
+      TicTacToeServer threaded = new TicTacToeServer(0, clients, 30_000);
+      threaded.start();
+      address = threaded.getLocalAddress();
+      server = threaded;
+    }
+
+    ExecutorService pool = Executors.newFixedThreadPool(clients);
+    List<Future<long[]>> results = new ArrayList<>();
+    long begin = System.nanoTime();
+    for (int i = 0; i < clients; i++) {
+      results.add(pool.submit(() -> play(address, games)));
+    }
+    long[] latencies = new long[clients * games * MOVES.length];
+    int n = 0;
+    for (Future<long[]> result : results) {
+      long[] turns = result.get();
+      System.arraycopy(turns, 0, latencies, n, turns.length);
+      n += turns.length;
+    }
+    double seconds = (System.nanoTime() - begin) / 1e9;
+    pool.shutdown();
+    if (server != null) {
+      server.close();
+    }
+
+    Arrays.sort(latencies);
+    System.out.printf("%d sessions on %d clients in %.3f s (%.0f sessions/s)%n",
+        clients * games, clients, seconds, clients * games / seconds);
+    System.out.printf("turn latency: p50 %.1f us, p99 %.1f us, max %.1f us%n",
+        percentile(latencies, 0.50) / 1e3, percentile(latencies, 0.99) / 1e3,
+        latencies[latencies.length - 1] / 1e3);
+  }
+
+  /**
+   * Play a series of games on fresh connections.
+   *
+   * @param address the server to connect to
+   * @param games   the number of games to play
+   * @return the latency of every turn, in nanoseconds
+   * @throws IOException if a connection fails
+   */
+  private static long[] play(InetSocketAddress address, int games) throws IOException {
+    long[] latencies = new long[games * MOVES.length];
+    int n = 0;
+    for (int game = 0; game < games; game++) {
+      try (Socket socket = new Socket(address.getAddress(), address.getPort())) {
+        socket.setTcpNoDelay(true);
+        InputStream in = new BufferedInputStream(socket.getInputStream());
+        OutputStream out = socket.getOutputStream();
+        skipPrompt(in);
+        for (int i = 0; i < MOVES.length; i++) {
+          long start = System.nanoTime();
+          out.write(MOVES[i].getBytes(StandardCharsets.US_ASCII));
+          if (i < MOVES.length - 1) {
+            skipPrompt(in);
+          } else {
+            in.readAllBytes();
+          }
+          latencies[n++] = System.nanoTime() - start;
+        }
+      }
+    }
+    return latencies;
+  }
+
+  /**
+   * Read up to and including the next "Enter a move" prompt, which is the only output line
+   * ending in a colon.
+   *
+   * @param in the input from the server
+   * @throws IOException if reading fails or the connection closes first
+   */
+  private static void skipPrompt(InputStream in) throws IOException {
+    int previous = 0;
+    int b;
+    while ((b = in.read()) >= 0) {
+      if (previous == ':' && b == '\n') {
+        return;
+      }
+      previous = b;
+    }
+    throw new IOException("The server closed the connection mid-game.");
+  }
+
+  /**
+   * Returns a percentile of sorted values.
+   *
+   * @param sorted   the values, in ascending order
+   * @param fraction the percentile as a fraction
+   * @return the value at that percentile
+   */
+  private static long percentile(long[] sorted, double fraction) {
+    return sorted[Math.min(sorted.length - 1, (int) Math.ceil(fraction * sorted.length) - 1)];
+  }
+}
@@ -1,9 +1,18 @@
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
+import java.nio.CharBuffer;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 import tictactoe.FailingAppendable;
+import tictactoe.MnkTicTacToeModel;
+import tictactoe.MoveProvider;
+import tictactoe.Player;
+import tictactoe.SearchMoveProvider;
 import tictactoe.TicTacToe;
 import tictactoe.TicTacToeConsoleController;
 import tictactoe.TicTacToeController;
@@ -296,4 +305,224 @@ public class TicTacToeControllerTest {
     assertEquals(gameLog.toString(), 30, lines.length);
   }
 
+  /**
+   * Tests a human X against a scripted computer O, which announces its moves.
+   */
+  @Test
+  public void testHumanVsComputer() {
+    TicTacToe m = new TicTacToeModel();
+    Map<Player, MoveProvider> computers = new EnumMap<>(Player.class);
+    computers.put(Player.O, game -> game.getMarkAt(0, 0) == null ? new int[] {0, 0}
+        : new int[] {0, 1});
+    StringReader input = new StringReader("2 2 q");
+    StringBuilder gameLog = new StringBuilder();
+    TicTacToeController c = new TicTacToeConsoleController(input, gameLog, computers);
+    c.playGame(m);
+    assertEquals("   |   |  \n"
+        + "-----------\n"
+        + "   |   |  \n"
+        + "-----------\n"
+        + "   |   |  \n"
+        + "Enter a move for X:\n"
+        + "O moves: 1, 1\n"
+        + " O |   |  \n"
+        + "-----------\n"
+        + "   | X |  \n"
+        + "-----------\n"
+        + "   |   |  \n"
+        + "Enter a move for X:\n"
+        + "Game quit! Ending game state:\n"
+        + " O |   |  \n"
+        + "-----------\n"
+        + "   | X |  \n"
+        + "-----------\n"
+        + "   |   |  \n", gameLog.toString());
+  }
+
+  /**
+   * Tests two search players against each other, which must draw with perfect play.
+   */
+  @Test
+  public void testComputerVsComputerTie() {
+    TicTacToe m = new TicTacToeModel();
+    Map<Player, MoveProvider> computers = new EnumMap<>(Player.class);
+    computers.put(Player.X, new SearchMoveProvider(1000));
+    computers.put(Player.O, new SearchMoveProvider(1000));
+    StringBuilder gameLog = new StringBuilder();
+    TicTacToeController c = new TicTacToeConsoleController(new StringReader(""), gameLog,
+        computers);
+    c.playGame(m);
+    String[] lines = gameLog.toString().split("\n");
+    assertEquals("Game is over! Tie game.", lines[lines.length - 1]);
+  }
+
+  /**
+   * Tests that the search player takes an immediate win on a gomoku board.
+   */
+  @Test
+  public void testSearchTakesWin() {
+    TicTacToe m = new MnkTicTacToeModel(15, 15, 5);
+    for (int col = 3; col < 7; col++) {
+      m.move(7, col);
+      m.move(0, col * 2);
+    }
+    int[] choice = new SearchMoveProvider(200).nextMove(m);
+    m.move(choice[0], choice[1]);
+    assertEquals(Player.X, m.getWinner());
+  }
+
+  /**
+   * Tests that the search player blocks the opponent's immediate win.
+   */
+  @Test
+  public void testSearchBlocksWin() {
+    TicTacToe m = new TicTacToeModel();
+    m.move(0, 0);
+    m.move(1, 1);
+    m.move(2, 2);
+    m.move(0, 1);
+    int[] choice = new SearchMoveProvider(200).nextMove(m);
+    assertEquals(2, choice[0]);
+    assertEquals(1, choice[1]);
+  }
+
+  /**
+   * Tests that the search player takes the win length from the game, so that three in a row on a
+   * four-in-a-row board is not taken for a win over blocking the opponent.
+   */
+  @Test
+  public void testSearchReadsWinLength() {
+    TicTacToe m = new MnkTicTacToeModel(4, 4, 4);
+    m.move(0, 0);
+    m.move(3, 0);
+    m.move(0, 1);
+    m.move(3, 1);
+    m.move(1, 3);
+    m.move(3, 2);
+    int[] choice = new SearchMoveProvider(200).nextMove(m);
+    assertEquals(3, choice[0]);
+    assertEquals(3, choice[1]);
+  }
+
+  /**
+   * Tests undoing a move and redoing it.
+   */
+  @Test
+  public void testUndoRedo() {
+    TicTacToe m = new TicTacToeModel();
+    StringReader input = new StringReader("2 2 u r q");
+    StringBuilder gameLog = new StringBuilder();
+    TicTacToeController c = new TicTacToeConsoleController(input, gameLog);
+    c.playGame(m);
+    String[] lines = gameLog.toString().split("\n");
+    assertEquals(gameLog.toString(), 30, lines.length);
+    assertEquals("Enter a move for X:", lines[17]);
+    assertEquals("Enter a move for O:", lines[23]);
+    assertEquals(Player.X, m.getMarkAt(1, 1));
+  }
+
+  /**
+   * Tests undo with no move made and redo with no move undone.
+   */
+  @Test
+  public void testNothingToUndoOrRedo() {
+    TicTacToe m = new TicTacToeModel();
+    StringReader input = new StringReader("u 1 1 r q");
+    StringBuilder gameLog = new StringBuilder();
+    TicTacToeController c = new TicTacToeConsoleController(input, gameLog);
+    c.playGame(m);
+    String[] lines = gameLog.toString().split("\n");
+    assertEquals("Nothing to undo.", lines[6]);
+    assertEquals("Nothing to redo.", lines[13]);
+  }
+
+  /**
+   * Tests that negative numbers are rejected as moves rather than read as quit, undo or redo.
+   */
+  @Test
+  public void testNegativeNumbersAreMoves() {
+    TicTacToe m = new TicTacToeModel();
+    StringReader input = new StringReader("2 2 -3 -3 1 -4 -2 -1 q");
+    StringBuilder gameLog = new StringBuilder();
+    TicTacToeController c = new TicTacToeConsoleController(input, gameLog);
+    c.playGame(m);
+    String log = gameLog.toString();
+    assertTrue(log, log.contains("Not a valid move: -3, -3\n"));
+    assertTrue(log, log.contains("Not a valid move: 1, -4\n"));
+    assertTrue(log, log.contains("Not a valid move: -2, -1\n"));
+    assertTrue(log, log.endsWith("Game quit! Ending game state:\n" + m.toString() + "\n"));
+    assertEquals(Player.X, m.getMarkAt(1, 1));
+    assertEquals(Player.O, m.getTurn());
+  }
+
+  /**
+   * Tests that undo against a computer player also takes back the computer's reply.
+   */
+  @Test
+  public void testUndoAgainstComputer() {
+    TicTacToe m = new TicTacToeModel();
+    Map<Player, MoveProvider> computers = new EnumMap<>(Player.class);
+    computers.put(Player.O, game -> game.getMarkAt(0, 0) == null ? new int[] {0, 0}
+        : new int[] {0, 1});
+    StringReader input = new StringReader("2 2 u q");
+    StringBuilder gameLog = new StringBuilder();
+    TicTacToeController c = new TicTacToeConsoleController(input, gameLog, computers);
+    c.playGame(m);
+    assertEquals(Player.X, m.getTurn());
+    assertEquals(null, m.getMarkAt(1, 1));
+    assertEquals(null, m.getMarkAt(0, 0));
+  }
+
+  /**
+   * Tests that the text of each turn reaches the game log in one append, made before waiting for
+   * the next line of input.
+   */
+  @Test
+  public void testOutputCoalescedPerTurn() {
+    TicTacToe m = new TicTacToeModel();
+    String[] lines = {"2 2\n", "x 1 1\n", "q\n"};
+    int[] reads = new int[1];
+    Readable input = cb -> reads[0] < lines.length ? this.feed(cb, lines[reads[0]++]) : -1;
+    StringBuilder gameLog = new StringBuilder();
+    List<String> appends = new ArrayList<>();
+    Appendable out = new Appendable() {
+      @Override
+      public Appendable append(CharSequence csq) {
+        appends.add(csq.toString());
+        gameLog.append(csq);
+        return this;
+      }
+
+      @Override
+      public Appendable append(CharSequence csq, int start, int end) {
+        return this.append(csq.subSequence(start, end));
+      }
+
+      @Override
+      public Appendable append(char ch) {
+        return this.append(String.valueOf(ch));
+      }
+    };
+    new TicTacToeConsoleController(input, out).playGame(m);
+    assertEquals(4, appends.size());
+    assertTrue(appends.get(0).endsWith("Enter a move for X:\n"));
+    assertTrue(appends.get(1).endsWith("Enter a move for O:\n"));
+    assertTrue(appends.get(2).startsWith("Not a valid number: x\n"));
+    assertTrue(appends.get(2).endsWith("Enter a move for X:\n"));
+    assertTrue(appends.get(3).startsWith("Game quit!"));
+    assertEquals(String.join("", appends), gameLog.toString());
+  }
+
+  /**
+   * Copies a line of input into the buffer of a read.
+   *
+   * @param cb   the buffer to fill
+   * @param line the line to copy
+   * @return the number of characters copied
+   */
+  private int feed(CharBuffer cb, String line) {
+    cb.put(line);
+    return line.length();
+  }
+
 }
@@ -0,0 +1,260 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import org.junit.After;
+import org.junit.Test;
+import tictactoe.TicTacToeLobby;
+
+/**
+ * Test cases for the lobby, using real connections on the loopback interface.
+ */
+public class TicTacToeLobbyTest {
+
+  private TicTacToeLobby lobby;
+
+  /**
+   * Closes the lobby started by a test.
+   */
+  @After
+  public void tearDown() throws IOException {
+    if (this.lobby != null) {
+      this.lobby.close();
+    }
+  }
+
+  /**
+   * Tests two players taking turns on one board until X wins.
+   */
+  @Test(timeout = 10000)
+  public void testSharedGame() throws IOException, InterruptedException {
+    this.start(4, 5000);
+    try (Socket x = this.connect(); Socket o = this.connect()) {
+      assertEquals("Waiting for an opponent.\nYou are X.\n"
+          + "   |   |  \n"
+          + "-----------\n"
+          + "   |   |  \n"
+          + "-----------\n"
+          + "   |   |  \n"
+          + "Enter a move for X:\n", this.readUntil(x, "Enter a move for X:\n"));
+      assertEquals("Waiting for an opponent.\nYou are O.\n", this.readUntil(o, "You are O.\n"));
+
+      this.send(x, "1 1\n");
+      assertEquals(" X |   |  \n"
+          + "-----------\n"
+          + "   |   |  \n"
+          + "-----------\n"
+          + "   |   |  \n"
+          + "Waiting for O to move.\n", this.readUntil(x, "Waiting for O to move.\n"));
+      this.readUntil(o, "Enter a move for O:\n");
+      this.send(o, "1 1 u 2 1\n");
+      assertTrue(this.readUntil(o, "Waiting for X to move.\n")
+          .startsWith("Not a valid move: 1, 1\nNot a valid number: u\n"));
+      this.readUntil(x, "Enter a move for X:\n");
+      this.send(x, "1 2\n");
+      this.readUntil(o, "Enter a move for O:\n");
+      this.send(o, "2 2\n");
+      this.readUntil(x, "Enter a move for X:\n");
+      this.send(x, "1 3\n");
+
+      String end = "\nGame is over! X wins.";
+      assertTrue(this.readAll(x).endsWith(end));
+      assertTrue(this.readAll(o).endsWith(" X | X | X\n"
+          + "-----------\n"
+          + " O | O |  \n"
+          + "-----------\n"
+          + "   |   |  " + end));
+    }
+    this.awaitNoGames();
+    assertEquals(1, this.lobby.getGamesStarted());
+    assertEquals(0, this.lobby.getWaitingPlayers());
+    assertTrue(this.lobby.getMaxQueueWaitMillis() >= this.lobby.getMeanQueueWaitMillis());
+  }
+
+  /**
+   * Tests that the opponent of a player who quits is told and disconnected.
+   */
+  @Test(timeout = 10000)
+  public void testOpponentQuits() throws IOException, InterruptedException {
+    this.start(4, 5000);
+    try (Socket x = this.connect(); Socket o = this.connect()) {
+      this.readUntil(x, "Enter a move for X:\n");
+      this.send(x, "2 2\n");
+      this.readUntil(o, "Enter a move for O:\n");
+      this.send(o, "q\n");
+      assertTrue(this.readAll(o).startsWith("Game quit! Ending game state:\n"));
+      assertTrue(this.readAll(x).endsWith("Your opponent quit. Ending game state:\n"
+          + "   |   |  \n"
+          + "-----------\n"
+          + "   | X |  \n"
+          + "-----------\n"
+          + "   |   |  \n"));
+    }
+    this.awaitNoGames();
+  }
+
+  /**
+   * Tests that a player waits until a second player arrives, and that queued players are paired
+   * in the order they connected.
+   */
+  @Test(timeout = 10000)
+  public void testPairedInArrivalOrder() throws IOException, InterruptedException {
+    this.start(8, 5000);
+    Socket[] sockets = new Socket[4];
+    sockets[0] = this.connect();
+    this.readUntil(sockets[0], "Waiting for an opponent.\n");
+    Thread.sleep(100);
+    assertEquals(1, this.lobby.getWaitingPlayers());
+    assertEquals(0, this.lobby.getActiveGames());
+    for (int i = 1; i < sockets.length; i++) {
+      sockets[i] = this.connect();
+      this.readUntil(sockets[i], "Waiting for an opponent.\n");
+    }
+    for (int i = 0; i < sockets.length; i++) {
+      this.readUntil(sockets[i], i % 2 == 0 ? "You are X.\n" : "You are O.\n");
+    }
+    assertEquals(2, this.lobby.getActiveGames());
+    assertEquals(0, this.lobby.getWaitingPlayers());
+    assertTrue(this.lobby.getMaxQueueWaitMillis() >= 100);
+    for (Socket socket : sockets) {
+      socket.close();
+    }
+    this.awaitNoGames();
+  }
+
+  /**
+   * Tests that a player who disconnects while queued is dropped instead of being paired, and that
+   * input typed while queued is kept.
+   */
+  @Test(timeout = 10000)
+  public void testDisconnectedPlayerNotPaired() throws IOException, InterruptedException {
+    this.start(4, 5000);
+    Socket gone = this.connect();
+    this.readUntil(gone, "Waiting for an opponent.\n");
+    Thread.sleep(100);
+    gone.close();
+    try (Socket x = this.connect()) {
+      this.readUntil(x, "Waiting for an opponent.\n");
+      this.send(x, "2 2\n");
+      Thread.sleep(100);
+      try (Socket o = this.connect()) {
+        this.readUntil(x, "You are X.\n");
+        this.readUntil(o, "Enter a move for O:\n");
+        assertEquals(1, this.lobby.getGamesStarted());
+        assertEquals(0, this.lobby.getWaitingPlayers());
+      }
+    }
+    this.awaitNoGames();
+  }
+
+  /**
+   * Tests that a connection beyond the limit is turned away.
+   */
+  @Test(timeout = 10000)
+  public void testConnectionLimit() throws IOException {
+    this.start(1, 5000);
+    try (Socket first = this.connect()) {
+      this.readUntil(first, "Waiting for an opponent.\n");
+      try (Socket second = this.connect()) {
+        assertEquals("Server is full.\n", this.readAll(second));
+      }
+    }
+  }
+
+  /**
+   * Tests a lobby that never pairs anyone.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoBatchInterval() {
+    new TicTacToeLobby(0, 2, 1000, 0);
+  }
+
+  /**
+   * Tests starting a lobby twice.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testStartTwice() throws IOException {
+    this.start(2, 1000);
+    this.lobby.start();
+  }
+
+  /**
+   * Starts a lobby on a free port that pairs players every 20 milliseconds.
+   *
+   * @param maxConnections    the connection limit
+   * @param idleTimeoutMillis the idle timeout
+   * @throws IOException if the lobby cannot listen
+   */
+  private void start(int maxConnections, int idleTimeoutMillis) throws IOException {
+    this.lobby = new TicTacToeLobby(0, maxConnections, idleTimeoutMillis, 20);
+    this.lobby.start();
+  }
+
+  /**
+   * Connects to the lobby.
+   *
+   * @return the connection
+   * @throws IOException if the connection fails
+   */
+  private Socket connect() throws IOException {
+    return new Socket(this.lobby.getLocalAddress().getAddress(), this.lobby.getPort());
+  }
+
+  /**
+   * Sends text to the lobby.
+   *
+   * @param socket the connection
+   * @param text   the text to send
+   * @throws IOException if writing fails
+   */
+  private void send(Socket socket, String text) throws IOException {
+    socket.getOutputStream().write(text.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Reads everything the lobby sends until it closes the connection.
+   *
+   * @param socket the connection
+   * @return the text received
+   * @throws IOException if reading fails
+   */
+  private String readAll(Socket socket) throws IOException {
+    return new String(socket.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Reads from the lobby until the text received ends with the given suffix.
+   *
+   * @param socket the connection
+   * @param suffix the text to wait for
+   * @return the text received
+   * @throws IOException if reading fails or the connection closes first
+   */
+  private String readUntil(Socket socket, String suffix) throws IOException {
+    InputStream in = socket.getInputStream();
+    StringBuilder text = new StringBuilder();
+    while (text.length() < suffix.length()
+        || !text.substring(text.length() - suffix.length()).equals(suffix)) {
+      int b = in.read();
+      if (b < 0) {
+        throw new IOException("Connection closed after: " + text);
+      }
+      text.append((char) b);
+    }
+    return text.toString();
+  }
+
+  /**
+   * Waits until every game has ended.
+   *
+   * @throws InterruptedException if interrupted while waiting
+   */
+  private void awaitNoGames() throws InterruptedException {
+    while (this.lobby.getActiveGames() > 0) {
+      Thread.sleep(10);
+    }
+  }
+}
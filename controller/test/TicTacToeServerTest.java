@@ -0,0 +1,189 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import org.junit.After;
+import org.junit.Test;
+import tictactoe.TicTacToeConsoleController;
+import tictactoe.TicTacToeModel;
+import tictactoe.TicTacToeServer;
+
+/**
+ * Test cases for the game server, using real connections on the loopback interface.
+ */
+public class TicTacToeServerTest {
+
+  private TicTacToeServer server;
+
+  /**
+   * Stops the server started by a test.
+   */
+  @After
+  public void tearDown() throws IOException {
+    if (this.server != null) {
+      this.server.close();
+    }
+  }
+
+  /**
+   * Tests that a client sees exactly what the console controller prints for the same input.
+   */
+  @Test(timeout = 10000)
+  public void testGameMatchesConsole() throws IOException {
+    this.start(4, 5000);
+    String input = "2 2 1 1 x 3 3 1 3 3 1 2 1 2 3 3 2 1 2\n";
+    StringBuilder expected = new StringBuilder();
+    new TicTacToeConsoleController(new StringReader(input), expected)
+        .playGame(new TicTacToeModel());
+    try (Socket socket = this.connect()) {
+      socket.getOutputStream().write(input.getBytes(StandardCharsets.UTF_8));
+      assertEquals(expected.toString(), this.readAll(socket));
+    }
+  }
+
+  /**
+   * Tests that many clients can play at the same time.
+   */
+  @Test(timeout = 10000)
+  public void testConcurrentSessions() throws IOException, InterruptedException {
+    this.start(8, 5000);
+    Socket[] sockets = new Socket[8];
+    for (int i = 0; i < sockets.length; i++) {
+      sockets[i] = this.connect();
+      this.readUntil(sockets[i].getInputStream(), "Enter a move for X:\n");
+    }
+    assertEquals(8, this.server.getActiveSessions());
+    for (Socket socket : sockets) {
+      socket.getOutputStream().write("1 1 2 1 1 2 2 2 1 3\n".getBytes(StandardCharsets.UTF_8));
+    }
+    for (Socket socket : sockets) {
+      assertTrue(this.readAll(socket).endsWith("Game is over! X wins."));
+      socket.close();
+    }
+    this.awaitCompleted(8);
+    assertEquals(0, this.server.getActiveSessions());
+  }
+
+  /**
+   * Tests that a connection beyond the limit is turned away without affecting the others.
+   */
+  @Test(timeout = 10000)
+  public void testConnectionLimit() throws IOException, InterruptedException {
+    this.start(1, 5000);
+    try (Socket first = this.connect()) {
+      this.readUntil(first.getInputStream(), "Enter a move for X:\n");
+      try (Socket second = this.connect()) {
+        assertEquals("Server is full.\n", this.readAll(second));
+      }
+      first.getOutputStream().write("q\n".getBytes(StandardCharsets.UTF_8));
+      assertTrue(this.readAll(first).startsWith("Game quit! Ending game state:\n"));
+    }
+    this.awaitCompleted(1);
+    try (Socket third = this.connect()) {
+      this.readUntil(third.getInputStream(), "Enter a move for X:\n");
+    }
+  }
+
+  /**
+   * Tests that a client that sends nothing has its game quit after the idle timeout.
+   */
+  @Test(timeout = 10000)
+  public void testIdleTimeout() throws IOException {
+    this.start(2, 200);
+    try (Socket socket = this.connect()) {
+      socket.getOutputStream().write("2 2 ".getBytes(StandardCharsets.UTF_8));
+      String log = this.readAll(socket);
+      assertTrue(log.endsWith("Game quit! Ending game state:\n"
+          + "   |   |  \n"
+          + "-----------\n"
+          + "   | X |  \n"
+          + "-----------\n"
+          + "   |   |  \n"));
+    }
+  }
+
+  /**
+   * Tests a server without any connections allowed.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoConnections() {
+    new TicTacToeServer(0, 0, 1000);
+  }
+
+  /**
+   * Tests starting a server twice.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testStartTwice() throws IOException {
+    this.start(1, 1000);
+    this.server.start();
+  }
+
+  /**
+   * Starts a server on a free port.
+   *
+   * @param maxConnections    the connection limit
+   * @param idleTimeoutMillis the idle timeout
+   * @throws IOException if the server cannot listen
+   */
+  private void start(int maxConnections, int idleTimeoutMillis) throws IOException {
+    this.server = new TicTacToeServer(0, maxConnections, idleTimeoutMillis);
+    this.server.start();
+  }
+
+  /**
+   * Connects to the server.
+   *
+   * @return the connection
+   * @throws IOException if the connection fails
+   */
+  private Socket connect() throws IOException {
+    return new Socket(this.server.getLocalAddress().getAddress(), this.server.getPort());
+  }
+
+  /**
+   * Reads everything the server sends until it closes the connection.
+   *
+   * @param socket the connection
+   * @return the text received
+   * @throws IOException if reading fails
+   */
+  private String readAll(Socket socket) throws IOException {
+    return new String(socket.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Reads from the server until the text received ends with the given suffix.
+   *
+   * @param in     the input from the server
+   * @param suffix the text to wait for
+   * @throws IOException if reading fails or the connection closes first
+   */
+  private void readUntil(InputStream in, String suffix) throws IOException {
+    StringBuilder text = new StringBuilder();
+    while (text.length() < suffix.length()
+        || !text.substring(text.length() - suffix.length()).equals(suffix)) {
+      int b = in.read();
+      if (b < 0) {
+        throw new IOException("Connection closed after: " + text);
+      }
+      text.append((char) b);
+    }
+  }
+
+  /**
+   * Waits until the given number of sessions have ended.
+   *
+   * @param sessions the number of sessions to wait for
+   * @throws InterruptedException if interrupted while waiting
+   */
+  private void awaitCompleted(long sessions) throws InterruptedException {
+    while (this.server.getCompletedSessions() < sessions) {
+      Thread.sleep(10);
+    }
+  }
+}
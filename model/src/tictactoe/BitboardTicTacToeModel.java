@@ -0,0 +1,231 @@
+package tictactoe;
+
+/**
+ * This class represents a BitboardTicTacToeModel. It implements all methods in TicTacToe interface
+ * without allocating on the hot path. Each player's marks are stored as a 9-bit mask, where the
+ * cell at row r and column c is bit {@code r * 3 + c}, and a win is detected by testing the mask
+ * against the eight precomputed line masks.
+ */
+public class BitboardTicTacToeModel implements TicTacToe {
+
+  /**
+   * Number of columns in a row, used to convert a position to its bit index.
+   */
+  private static final int WIDTH = Bitboards.SIZE;
+
+  private Player turn;
+  private int xMask;
+  private int oMask;
+  // Cells played; entries from moveCount up to historySize can be redone.
+  private final byte[] history;
+  private int moveCount;
+  private int historySize;
+  private long zobristKey;
+  private final ReadOnlyBoard boardView;
+
+  /**
+   * Constructs a bitboard tictactoe model with an empty board and X to move.
+   */
+  public BitboardTicTacToeModel() {
+    this.turn = Player.X;
+    this.xMask = 0;
+    this.oMask = 0;
+    this.history = new byte[Bitboards.CELLS];
+    this.moveCount = 0;
+    this.historySize = 0;
+    this.zobristKey = 0;
+    this.boardView = new ReadOnlyBoard() {
+      @Override
+      public int getRows() {
+        return WIDTH;
+      }
+
+      @Override
+      public int getCols() {
+        return WIDTH;
+      }
+
+      @Override
+      public Player getMarkAt(int r, int c) {
+        return BitboardTicTacToeModel.this.getMarkAt(r, c);
+      }
+    };
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder str = new StringBuilder();
+    for (int r = LOWER_ROW; r <= UPPER_ROW; r++) {
+      if (r > LOWER_ROW) {
+        str.append("\n-----------\n");
+      }
+      for (int c = LOWER_COL; c <= UPPER_COL; c++) {
+        Player p = this.markAt(r, c);
+        str.append(c > LOWER_COL ? " | " : " ").append(p == null ? " " : p.toString());
+      }
+    }
+    return str.toString();
+  }
+
+  @Override
+  public void move(int r, int c) throws IllegalArgumentException, IllegalStateException {
+    MoveResult result = this.tryMove(r, c);
+    if (result == MoveResult.GAME_OVER) {
+      throw new IllegalStateException("The game is over. No more movement is available.");
+    } else if (result != MoveResult.OK) {
+      throw new IllegalArgumentException("The movement is out of board's range "
+          + "or is occupied.");
+    }
+  }
+
+  @Override
+  public MoveResult tryMove(int r, int c) {
+    if (r < LOWER_ROW || c < LOWER_COL || r > UPPER_ROW || c > UPPER_COL) {
+      return MoveResult.OUT_OF_BOUNDS;
+    }
+    if (((this.xMask | this.oMask) & bitOf(r, c)) != 0) {
+      return MoveResult.OCCUPIED;
+    }
+    if (this.isGameOver()) {
+      return MoveResult.GAME_OVER;
+    }
+    this.play(r * WIDTH + c);
+    this.historySize = this.moveCount;
+    return MoveResult.OK;
+  }
+
+  @Override
+  public void undo() throws IllegalStateException {
+    if (this.moveCount == 0) {
+      throw new IllegalStateException("There is no move to undo.");
+    }
+    int bit = 1 << this.history[--this.moveCount];
+    if (this.turn == Player.X) {
+      this.oMask &= ~bit;
+      this.turn = Player.O;
+    } else {
+      this.xMask &= ~bit;
+      this.turn = Player.X;
+    }
+    this.zobristKey ^= Zobrist.of(this.history[this.moveCount], this.turn);
+  }
+
+  @Override
+  public void redo() throws IllegalStateException {
+    if (this.moveCount == this.historySize) {
+      throw new IllegalStateException("There is no move to redo.");
+    }
+    this.play(this.history[this.moveCount]);
+  }
+
+  @Override
+  public Player getTurn() {
+    return this.turn;
+  }
+
+  @Override
+  public boolean isGameOver() {
+    return Bitboards.hasLine(this.xMask) || Bitboards.hasLine(this.oMask)
+        || (this.xMask | this.oMask) == Bitboards.FULL;
+  }
+
+  @Override
+  public Player getWinner() {
+    if (Bitboards.hasLine(this.xMask)) {
+      return Player.X;
+    }
+    if (Bitboards.hasLine(this.oMask)) {
+      return Player.O;
+    }
+    return null;
+  }
+
+  @Override
+  public Player[][] getBoard() {
+    Player[][] board = new Player[WIDTH][WIDTH];
+    for (int r = LOWER_ROW; r <= UPPER_ROW; r++) {
+      for (int c = LOWER_COL; c <= UPPER_COL; c++) {
+        board[r][c] = this.markAt(r, c);
+      }
+    }
+    return board;
+  }
+
+  @Override
+  public ReadOnlyBoard getBoardView() {
+    return this.boardView;
+  }
+
+  @Override
+  public Player getMarkAt(int r, int c) {
+    this.checkIllegalIndex(r, c);
+    return this.markAt(r, c);
+  }
+
+  @Override
+  public long getZobristKey() {
+    return this.zobristKey;
+  }
+
+  /**
+   * Marks a cell that is known to be legal for the current player, records it on the move stack
+   * and passes the turn.
+   *
+   * @param cell the bit index of the cell
+   */
+  private void play(int cell) {
+    this.history[this.moveCount++] = (byte) cell;
+    this.zobristKey ^= Zobrist.of(cell, this.turn);
+    if (this.turn == Player.X) {
+      this.xMask |= 1 << cell;
+      this.turn = Player.O;
+    } else {
+      this.oMask |= 1 << cell;
+      this.turn = Player.X;
+    }
+  }
+
+  /**
+   * Returns the mark at a position that is already known to be on the board.
+   *
+   * @param r row of a grid in the board
+   * @param c column of a grid in the board
+   * @return the player at the given position, or null if it's empty
+   */
+  private Player markAt(int r, int c) {
+    int bit = bitOf(r, c);
+    if ((this.xMask & bit) != 0) {
+      return Player.X;
+    }
+    if ((this.oMask & bit) != 0) {
+      return Player.O;
+    }
+    return null;
+  }
+
+  /**
+   * Returns the single-bit mask of a position on the board.
+   *
+   * @param r row of a grid in the board
+   * @param c column of a grid in the board
+   * @return the mask with only the bit of the given position set
+   */
+  private static int bitOf(int r, int c) {
+    return 1 << (r * WIDTH + c);
+  }
+
+  /**
+   * Check illegal input of row and column.
+   *
+   * @param r row of a grid in the board
+   * @param c column of a grid in the board
+   * @throws IllegalArgumentException if row or column is out of boundary
+   */
+  private void checkIllegalIndex(int r, int c) throws IllegalArgumentException {
+    if (r < LOWER_ROW || c < LOWER_COL ||
+        r > UPPER_ROW || c > UPPER_COL) {
+      throw new IllegalArgumentException("The movement is out of board's range "
+          + "or is occupied.");
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package tictactoe;
+
+/**
+ * Helpers shared by the classes that represent a three-by-three board as two 9-bit masks, one per
+ * player, where the cell at row r and column c is bit {@code r * 3 + c}. A whole position packs
+ * into one int as {@code xMask | oMask << 9}.
+ */
+final class Bitboards {
+
+  /**
+   * Number of rows and of columns on the board.
+   */
+  static final int SIZE = TicTacToe.UPPER_ROW - TicTacToe.LOWER_ROW + 1;
+  /**
+   * Number of cells on the board.
+   */
+  static final int CELLS = SIZE * SIZE;
+  /**
+   * Mask with every cell of the board set.
+   */
+  static final int FULL = (1 << CELLS) - 1;
+  /**
+   * Number of distinct base-3 ranks, three to the power of the number of cells.
+   */
+  static final int RANKS = 19683;
+  /**
+   * Masks of the eight winning lines: three rows, three columns and two diagonals.
+   */
+  private static final int[] LINES = {
+      0b000_000_111, 0b000_111_000, 0b111_000_000,
+      0b001_001_001, 0b010_010_010, 0b100_100_100,
+      0b100_010_001, 0b001_010_100
+  };
+  /**
+   * Base-3 value of each 9-bit mask when every set bit is a digit one, used to rank positions.
+   */
+  private static final int[] BASE3 = new int[1 << CELLS];
+
+  static {
+    for (int mask = 1; mask < BASE3.length; mask++) {
+      int low = Integer.numberOfTrailingZeros(mask);
+      BASE3[mask] = BASE3[mask & (mask - 1)] + (int) Math.pow(3, low);
+    }
+  }
+
+  private Bitboards() {
+  }
+
+  /**
+   * Returns whether a player's mask covers any of the winning lines.
+   *
+   * @param mask the cells marked by one player
+   * @return whether the mask contains a complete line
+   */
+  static boolean hasLine(int mask) {
+    for (int line : LINES) {
+      if ((mask & line) == line) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the base-3 rank of a position, where each cell is a digit that is 0 when empty, 1 for
+   * X and 2 for O, and the cell at bit i is the digit of weight 3 to the power i.
+   *
+   * @param x the cells marked by X
+   * @param o the cells marked by O
+   * @return the rank, between 0 and 3 to the power 9, exclusive
+   */
+  static int rank(int x, int o) {
+    return BASE3[x] + 2 * BASE3[o];
+  }
+
+  /**
+   * Packs the marks of a three-by-three game into {@code xMask | oMask << 9}.
+   *
+   * @param game the game to encode
+   * @return the packed position
+   * @throws IllegalArgumentException if the game is not played on a three-by-three board
+   */
+  static int encode(TicTacToe game) throws IllegalArgumentException {
+    ReadOnlyBoard board = game.getBoardView();
+    if (board.getRows() != SIZE || board.getCols() != SIZE) {
+      throw new IllegalArgumentException("Only three-by-three games are supported.");
+    }
+    int x = 0;
+    int o = 0;
+    for (int cell = 0; cell < CELLS; cell++) {
+      Player p = board.getMarkAt(cell / SIZE, cell % SIZE);
+      if (p == Player.X) {
+        x |= 1 << cell;
+      } else if (p == Player.O) {
+        o |= 1 << cell;
+      }
+    }
+    return x | o << CELLS;
+  }
+}
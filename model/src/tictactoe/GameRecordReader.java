@@ -0,0 +1,248 @@
+package tictactoe;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Reads the game records written by {@link GameRecordWriter} from a memory-mapped file. The reader
+ * is a cursor: {@link #next()} moves to the following record and checks its checksum, and the
+ * getters read the current record straight from the mapped file, so scanning an archive allocates
+ * nothing per record unless a player's name is asked for or the game is replayed.
+ */
+public final class GameRecordReader {
+
+  private final ByteBuffer buffer;
+  private final CRC32C crc;
+  private int next;
+  private int start;
+  private int count;
+  private int outcome;
+  private int xName;
+  private int oName;
+  private int moves;
+
+  private GameRecordReader(ByteBuffer buffer) {
+    this.buffer = buffer;
+    this.crc = new CRC32C();
+    this.next = GameRecordWriter.HEADER_BYTES;
+    this.start = -1;
+  }
+
+  /**
+   * Memory-map a file of game records.
+   *
+   * @param path the file written by {@link GameRecordWriter}
+   * @return a reader positioned before the first record
+   * @throws IOException if the file cannot be read, is larger than 2 GB or is not a record file of
+   *                     this version
+   */
+  public static GameRecordReader open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException("The record file is too large to map.");
+      }
+      ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      if (size < GameRecordWriter.HEADER_BYTES || buffer.getInt(0) != GameRecordWriter.MAGIC
+          || buffer.getInt(4) != GameRecordWriter.VERSION) {
+        throw new IOException("The file is not a record file of version "
+            + GameRecordWriter.VERSION + ".");
+      }
+      return new GameRecordReader(buffer);
+    }
+  }
+
+  /**
+   * Move to the next record.
+   *
+   * @return false if there are no more records
+   * @throws IOException if the next record is truncated or fails its checksum
+   */
+  public boolean next() throws IOException {
+    ByteBuffer b = this.buffer;
+    int limit = b.limit();
+    int n = this.next;
+    if (n == limit) {
+      return false;
+    }
+    int head = b.get(n) & 0xFF;
+    int count = head & 0xF;
+    int outcome = head >>> 4;
+    int xName = n + 1;
+    int oName = xName + 1 + (xName < limit ? b.get(xName) & 0xFF : 0);
+    int moves = oName + 1 + (oName < limit ? b.get(oName) & 0xFF : 0);
+    int end = moves + (count + 1) / 2;
+    if (count > Bitboards.CELLS || outcome > GameRecordWriter.UNFINISHED || end + 4 > limit) {
+      throw new IOException("Corrupt record at byte " + n + ".");
+    }
+    this.crc.reset();
+    b.position(n).limit(end);
+    this.crc.update(b);
+    b.limit(limit);
+    if ((int) this.crc.getValue() != b.getInt(end)) {
+      throw new IOException("Corrupt record at byte " + n + ".");
+    }
+    this.start = n;
+    this.count = count;
+    this.outcome = outcome;
+    this.xName = xName;
+    this.oName = oName;
+    this.moves = moves;
+    this.next = end + 4;
+    return true;
+  }
+
+  /**
+   * Returns the byte offset of the current record in the file.
+   *
+   * @return the offset of the record
+   * @throws IllegalStateException if there is no current record
+   */
+  public long getOffset() throws IllegalStateException {
+    this.checkRecord();
+    return this.start;
+  }
+
+  /**
+   * Returns the number of moves in the current record.
+   *
+   * @return the number of moves
+   * @throws IllegalStateException if there is no current record
+   */
+  public int getMoveCount() throws IllegalStateException {
+    this.checkRecord();
+    return this.count;
+  }
+
+  /**
+   * Returns a move of the current record as the cell {@code r * 3 + c}.
+   *
+   * @param i the index of the move, starting from 0
+   * @return the cell played
+   * @throws IllegalArgumentException if the index is out of range
+   * @throws IllegalStateException    if there is no current record
+   */
+  public int getCell(int i) throws IllegalArgumentException, IllegalStateException {
+    this.checkRecord();
+    if (i < 0 || i >= this.count) {
+      throw new IllegalArgumentException("Move index out of range: " + i);
+    }
+    return (this.buffer.get(this.moves + i / 2) >>> ((i & 1) * 4)) & 0xF;
+  }
+
+  /**
+   * Returns the row of a move of the current record.
+   *
+   * @param i the index of the move, starting from 0
+   * @return the row played
+   * @throws IllegalArgumentException if the index is out of range
+   * @throws IllegalStateException    if there is no current record
+   */
+  public int getRow(int i) throws IllegalArgumentException, IllegalStateException {
+    return this.getCell(i) / Bitboards.SIZE;
+  }
+
+  /**
+   * Returns the column of a move of the current record.
+   *
+   * @param i the index of the move, starting from 0
+   * @return the column played
+   * @throws IllegalArgumentException if the index is out of range
+   * @throws IllegalStateException    if there is no current record
+   */
+  public int getCol(int i) throws IllegalArgumentException, IllegalStateException {
+    return this.getCell(i) % Bitboards.SIZE;
+  }
+
+  /**
+   * Returns whether the game in the current record was played to a win or a tie.
+   *
+   * @return false if the game was abandoned
+   * @throws IllegalStateException if there is no current record
+   */
+  public boolean isGameOver() throws IllegalStateException {
+    this.checkRecord();
+    return this.outcome != GameRecordWriter.UNFINISHED;
+  }
+
+  /**
+   * Returns the winner of the game in the current record.
+   *
+   * @return the winner, or null for a tie or an abandoned game
+   * @throws IllegalStateException if there is no current record
+   */
+  public Player getWinner() throws IllegalStateException {
+    this.checkRecord();
+    switch (this.outcome) {
+      case GameRecordWriter.X_WINS:
+        return Player.X;
+      case GameRecordWriter.O_WINS:
+        return Player.O;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Returns the name of the player who moved first in the current record.
+   *
+   * @return the name
+   * @throws IllegalStateException if there is no current record
+   */
+  public String getPlayerX() throws IllegalStateException {
+    this.checkRecord();
+    return this.name(this.xName);
+  }
+
+  /**
+   * Returns the name of the player who moved second in the current record.
+   *
+   * @return the name
+   * @throws IllegalStateException if there is no current record
+   */
+  public String getPlayerO() throws IllegalStateException {
+    this.checkRecord();
+    return this.name(this.oName);
+  }
+
+  /**
+   * Play the moves of the current record on a game.
+   *
+   * @param game a new three-by-three game
+   * @throws IllegalStateException    if there is no current record
+   * @throws IllegalArgumentException if the game rejects one of the moves
+   */
+  public void replay(TicTacToe game) throws IllegalStateException, IllegalArgumentException {
+    for (int i = 0; i < this.getMoveCount(); i++) {
+      game.move(this.getRow(i), this.getCol(i));
+    }
+  }
+
+  /**
+   * Decode a length-prefixed name.
+   *
+   * @param at the offset of the length byte
+   * @return the name
+   */
+  private String name(int at) {
+    byte[] bytes = new byte[this.buffer.get(at) & 0xFF];
+    this.buffer.get(at + 1, bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Check that the reader is on a record.
+   *
+   * @throws IllegalStateException if {@link #next()} has not returned true yet
+   */
+  private void checkRecord() throws IllegalStateException {
+    if (this.start < 0) {
+      throw new IllegalStateException("There is no current record.");
+    }
+  }
+}
@@ -0,0 +1,202 @@
+package tictactoe;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32C;
+
+/**
+ * Writes three-by-three games to a stream in the compact binary record format read by
+ * {@link GameRecordReader}. Records are written one at a time, so an archive of any size can be
+ * produced without holding it in memory.
+ *
+ * <p>The stream starts with an 8-byte header of the magic number and the format version. Each
+ * record then holds one byte with the number of moves in the low four bits and the outcome in the
+ * high four bits, the name of each player as a length byte followed by that many UTF-8 bytes, the
+ * moves packed two to a byte with the earlier move in the low nibble, and a CRC-32C of the
+ * preceding bytes of the record. A move is the cell {@code r * 3 + c}, and a full game of nine
+ * moves with two short names takes under 20 bytes.
+ */
+public final class GameRecordWriter implements Closeable, Flushable {
+
+  static final int MAGIC = 0x54545452;
+  static final int VERSION = 1;
+  static final int HEADER_BYTES = 8;
+  static final int X_WINS = 0;
+  static final int O_WINS = 1;
+  static final int TIE = 2;
+  static final int UNFINISHED = 3;
+  static final int MAX_NAME_BYTES = 255;
+
+  private final OutputStream out;
+  private final byte[] record;
+  private final CRC32C crc;
+  private String lastX;
+  private byte[] lastXBytes;
+  private String lastO;
+  private byte[] lastOBytes;
+  private long count;
+
+  /**
+   * Constructs a writer and writes the header to the stream.
+   *
+   * @param out the stream to write to
+   * @throws IOException if the header cannot be written
+   */
+  public GameRecordWriter(OutputStream out) throws IOException {
+    this.out = new BufferedOutputStream(out, 1 << 16);
+    this.record = new byte[1 + 2 * (1 + MAX_NAME_BYTES) + (Bitboards.CELLS + 1) / 2 + 4];
+    this.crc = new CRC32C();
+    this.writeInt(this.record, 0, MAGIC);
+    this.writeInt(this.record, 4, VERSION);
+    this.out.write(this.record, 0, HEADER_BYTES);
+  }
+
+  /**
+   * Constructs a writer to a new file, replacing any existing file.
+   *
+   * @param path the file to write
+   * @return the writer
+   * @throws IOException if the file cannot be created
+   */
+  public static GameRecordWriter create(Path path) throws IOException {
+    return new GameRecordWriter(Files.newOutputStream(path));
+  }
+
+  /**
+   * Write one game. The moves are replayed to check that they are legal and to find the outcome.
+   *
+   * @param playerX the name of the player who moved first
+   * @param playerO the name of the player who moved second
+   * @param cells   the cells played, {@code r * 3 + c}, in order
+   * @param count   the number of moves to take from the start of {@code cells}
+   * @throws IllegalArgumentException if a name is null or longer than 255 UTF-8 bytes, or the
+   *                                  moves are not a legal game
+   * @throws IOException              if the record cannot be written
+   */
+  public void write(String playerX, String playerO, int[] cells, int count)
+      throws IllegalArgumentException, IOException {
+    if (count < 0 || count > Bitboards.CELLS || count > cells.length) {
+      throw new IllegalArgumentException("Invalid number of moves.");
+    }
+    int x = 0;
+    int o = 0;
+    int outcome = count == Bitboards.CELLS ? TIE : UNFINISHED;
+    for (int i = 0; i < count; i++) {
+      int cell = cells[i];
+      if (cell < 0 || cell >= Bitboards.CELLS || ((x | o) & 1 << cell) != 0 || outcome < TIE) {
+        throw new IllegalArgumentException("Move " + (i + 1) + " is not legal.");
+      }
+      if ((i & 1) == 0) {
+        x |= 1 << cell;
+        outcome = Bitboards.hasLine(x) ? X_WINS : outcome;
+      } else {
+        o |= 1 << cell;
+        outcome = Bitboards.hasLine(o) ? O_WINS : outcome;
+      }
+    }
+    if (playerX == null || !playerX.equals(this.lastX)) {
+      this.lastXBytes = encodeName(playerX);
+      this.lastX = playerX;
+    }
+    if (playerO == null || !playerO.equals(this.lastO)) {
+      this.lastOBytes = encodeName(playerO);
+      this.lastO = playerO;
+    }
+
+    byte[] r = this.record;
+    int n = 0;
+    r[n++] = (byte) (count | outcome << 4);
+    n = this.putName(r, n, this.lastXBytes);
+    n = this.putName(r, n, this.lastOBytes);
+    for (int i = 0; i < count; i += 2) {
+      int high = i + 1 < count ? cells[i + 1] : 0;
+      r[n++] = (byte) (cells[i] | high << 4);
+    }
+    this.crc.reset();
+    this.crc.update(r, 0, n);
+    this.writeInt(r, n, (int) this.crc.getValue());
+    this.out.write(r, 0, n + 4);
+    this.count++;
+  }
+
+  /**
+   * Returns the number of records written.
+   *
+   * @return the record count
+   */
+  public long getCount() {
+    return this.count;
+  }
+
+  /**
+   * Flush buffered records to the underlying stream.
+   *
+   * @throws IOException if the stream cannot be written
+   */
+  @Override
+  public void flush() throws IOException {
+    this.out.flush();
+  }
+
+  /**
+   * Flush buffered records and close the underlying stream.
+   *
+   * @throws IOException if the stream cannot be written or closed
+   */
+  @Override
+  public void close() throws IOException {
+    this.out.close();
+  }
+
+  /**
+   * Encode a player's name.
+   *
+   * @param name the name
+   * @return the UTF-8 bytes of the name
+   * @throws IllegalArgumentException if the name is null or too long
+   */
+  private static byte[] encodeName(String name) throws IllegalArgumentException {
+    if (name == null) {
+      throw new IllegalArgumentException("Player names cannot be null.");
+    }
+    byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+    if (bytes.length > MAX_NAME_BYTES) {
+      throw new IllegalArgumentException("Player name is too long: " + name);
+    }
+    return bytes;
+  }
+
+  /**
+   * Copy a length-prefixed name into a record.
+   *
+   * @param r     the record
+   * @param n     the offset to copy to
+   * @param bytes the encoded name
+   * @return the offset after the name
+   */
+  private int putName(byte[] r, int n, byte[] bytes) {
+    r[n++] = (byte) bytes.length;
+    System.arraycopy(bytes, 0, r, n, bytes.length);
+    return n + bytes.length;
+  }
+
+  /**
+   * Store a big-endian int.
+   *
+   * @param r     the buffer
+   * @param n     the offset to store at
+   * @param value the value
+   */
+  private void writeInt(byte[] r, int n, int value) {
+    r[n] = (byte) (value >>> 24);
+    r[n + 1] = (byte) (value >>> 16);
+    r[n + 2] = (byte) (value >>> 8);
+    r[n + 3] = (byte) value;
+  }
+}
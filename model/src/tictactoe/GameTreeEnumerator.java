@@ -0,0 +1,270 @@
+package tictactoe;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This class walks every game that can be played from a start state on a fork-join pool and
+ * gathers {@link GameTreeStatistics} over them. The top plies of the tree are split into one task
+ * per move; below the split depth each task walks its subtree on its own copy of the board,
+ * placing and removing marks instead of copying at every node. Every task counts into statistics
+ * of its own, which are merged as tasks are joined, so workers never share a counter.
+ */
+public class GameTreeEnumerator {
+
+  private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+  private static final byte EMPTY = 0;
+  private static final byte MARK_X = 1;
+  private static final byte MARK_O = 2;
+
+  private final int splitDepth;
+  private final ForkJoinPool pool;
+
+  /**
+   * Constructs an enumerator that splits the first two plies on the common pool.
+   */
+  public GameTreeEnumerator() {
+    this(2, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Constructs an enumerator.
+   *
+   * @param splitDepth the number of plies below the start state that are split into tasks
+   * @param pool       the pool to run the tasks on
+   * @throws IllegalArgumentException if the split depth is negative or the pool is null
+   */
+  public GameTreeEnumerator(int splitDepth, ForkJoinPool pool) throws IllegalArgumentException {
+    if (splitDepth < 0 || pool == null) {
+      throw new IllegalArgumentException("Invalid enumerator configuration.");
+    }
+    this.splitDepth = splitDepth;
+    this.pool = pool;
+  }
+
+  /**
+   * Print the statistics of the game tree of an empty board and the time taken to walk it.
+   *
+   * @param args optionally the rows, columns and win length of a generalized game
+   */
+  public static void main(String[] args) {
+    TicTacToe start = args.length == 3
+        ? new MnkTicTacToeModel(Integer.parseInt(args[0]), Integer.parseInt(args[1]),
+            Integer.parseInt(args[2]))
+        : new TicTacToeModel();
+    long begin = System.nanoTime();
+    GameTreeStatistics stats = new GameTreeEnumerator().enumerate(start);
+    double seconds = (System.nanoTime() - begin) / 1e9;
+
+    long total = 0;
+    System.out.println("ply     nodes     ended  branching");
+    for (int ply = 0; ply <= stats.getMaxPly(); ply++) {
+      total += stats.getNodes(ply);
+      System.out.printf("%3d %9d %9d %10.3f%n", ply, stats.getNodes(ply),
+          stats.getGameLengthCount(ply), stats.getBranchingFactor(ply));
+    }
+    System.out.printf("games %d: X wins %d, O wins %d, draws %d%n", stats.getGames(),
+        stats.getWins(Player.X), stats.getWins(Player.O), stats.getDraws());
+    System.out.printf("%d nodes in %.3f s (%.0f nodes/s) on %d workers%n", total, seconds,
+        total / seconds, ForkJoinPool.commonPool().getParallelism());
+  }
+
+  /**
+   * Walk every game that can be played from the given state. The number of marks in a row that
+   * wins is the start state's own: the win length of an {@link MnkTicTacToeModel}, and three for
+   * the three-by-three games.
+   *
+   * @param start the state to start from, which is not changed
+   * @return the statistics of the game tree below the start state
+   * @throws IllegalArgumentException if the start state is null, or is not a generalized game
+   *                                  and not played on a three-by-three board
+   */
+  public GameTreeStatistics enumerate(TicTacToe start) throws IllegalArgumentException {
+    if (start == null) {
+      throw new IllegalArgumentException("Input model is null.");
+    }
+    int winLength = winLengthOf(start);
+    ReadOnlyBoard board = start.getBoardView();
+    int cols = board.getCols();
+    byte[] cells = new byte[board.getRows() * cols];
+    int filled = 0;
+    for (int cell = 0; cell < cells.length; cell++) {
+      Player p = board.getMarkAt(cell / cols, cell % cols);
+      if (p != null) {
+        cells[cell] = p == Player.X ? MARK_X : MARK_O;
+        filled++;
+      }
+    }
+    if (start.isGameOver()) {
+      GameTreeStatistics stats = new GameTreeStatistics(cells.length);
+      stats.recordNode(filled, 0);
+      stats.recordGame(filled, start.getWinner());
+      return stats;
+    }
+    byte mark = start.getTurn() == Player.X ? MARK_X : MARK_O;
+    return this.pool.invoke(new Walk(cells, cols, winLength, filled, mark, -1, 0));
+  }
+
+  /**
+   * Returns the number of marks in a row that wins a game.
+   *
+   * @param game the game
+   * @return the win length
+   * @throws IllegalArgumentException if the game is not a generalized game and not played on a
+   *                                  three-by-three board
+   */
+  private static int winLengthOf(TicTacToe game) throws IllegalArgumentException {
+    if (game instanceof MnkTicTacToeModel) {
+      return ((MnkTicTacToeModel) game).getWinLength();
+    }
+    ReadOnlyBoard board = game.getBoardView();
+    if (board.getRows() != 3 || board.getCols() != 3) {
+      throw new IllegalArgumentException("The win length of the game is unknown.");
+    }
+    return 3;
+  }
+
+  /**
+   * A task that walks the subtree below one position.
+   */
+  // Tasks only ever run on the pool and are never serialized.
+  @SuppressWarnings("serial")
+  private final class Walk extends RecursiveTask<GameTreeStatistics> {
+    private final byte[] cells;
+    private final int cols;
+    private final int winLength;
+    private final int filled;
+    private final byte mark;
+    private final int lastCell;
+    private final int depth;
+
+    /**
+     * Constructs a task for a position.
+     *
+     * @param cells     the board, owned by this task
+     * @param cols      the number of columns on the board
+     * @param winLength the number of marks in a row that wins
+     * @param filled    the number of marks on the board
+     * @param mark      the mark of the player to move
+     * @param lastCell  the cell of the last move, or -1 at the start state
+     * @param depth     the number of plies below the start state
+     */
+    Walk(byte[] cells, int cols, int winLength, int filled, byte mark, int lastCell, int depth) {
+      this.cells = cells;
+      this.cols = cols;
+      this.winLength = winLength;
+      this.filled = filled;
+      this.mark = mark;
+      this.lastCell = lastCell;
+      this.depth = depth;
+    }
+
+    @Override
+    protected GameTreeStatistics compute() {
+      GameTreeStatistics stats = new GameTreeStatistics(this.cells.length);
+      if (this.depth >= splitDepth || this.isOver()) {
+        walk(this.cells, this.cols, this.winLength, this.filled, this.mark, this.lastCell,
+            stats);
+        return stats;
+      }
+      List<Walk> subtasks = new ArrayList<>();
+      byte next = this.mark == MARK_X ? MARK_O : MARK_X;
+      for (int cell = 0; cell < this.cells.length; cell++) {
+        if (this.cells[cell] == EMPTY) {
+          byte[] child = this.cells.clone();
+          child[cell] = this.mark;
+          subtasks.add(new Walk(child, this.cols, this.winLength, this.filled + 1, next, cell,
+              this.depth + 1));
+        }
+      }
+      stats.recordNode(this.filled, subtasks.size());
+      invokeAll(subtasks);
+      for (Walk subtask : subtasks) {
+        stats.merge(subtask.join());
+      }
+      return stats;
+    }
+
+    /**
+     * Returns whether the game is over at this task's position, without recording anything.
+     *
+     * @return whether the game is over
+     */
+    private boolean isOver() {
+      return this.filled == this.cells.length
+          || (this.lastCell >= 0
+              && isWin(this.cells, this.cols, this.winLength, this.lastCell));
+    }
+  }
+
+  /**
+   * Walks the subtree below a position sequentially, placing and removing marks on the given
+   * board, and records every node and game into the given statistics.
+   *
+   * @param cells     the board, restored before returning
+   * @param cols      the number of columns on the board
+   * @param winLength the number of marks in a row that wins
+   * @param filled    the number of marks on the board
+   * @param mark      the mark of the player to move
+   * @param lastCell  the cell of the last move, or -1 at the start state
+   * @param stats     the statistics to record into
+   */
+  private static void walk(byte[] cells, int cols, int winLength, int filled, byte mark,
+      int lastCell, GameTreeStatistics stats) {
+    if (lastCell >= 0 && isWin(cells, cols, winLength, lastCell)) {
+      stats.recordNode(filled, 0);
+      stats.recordGame(filled, cells[lastCell] == MARK_X ? Player.X : Player.O);
+      return;
+    }
+    if (filled == cells.length) {
+      stats.recordNode(filled, 0);
+      stats.recordGame(filled, null);
+      return;
+    }
+    byte next = mark == MARK_X ? MARK_O : MARK_X;
+    int moves = 0;
+    for (int cell = 0; cell < cells.length; cell++) {
+      if (cells[cell] == EMPTY) {
+        moves++;
+        cells[cell] = mark;
+        walk(cells, cols, winLength, filled + 1, next, cell, stats);
+        cells[cell] = EMPTY;
+      }
+    }
+    stats.recordNode(filled, moves);
+  }
+
+  /**
+   * Returns whether the mark on a cell completes a winning line through it.
+   *
+   * @param cells     the board
+   * @param cols      the number of columns on the board
+   * @param winLength the number of marks in a row that wins
+   * @param cell      the cell index
+   * @return whether the mark on the cell wins
+   */
+  private static boolean isWin(byte[] cells, int cols, int winLength, int cell) {
+    int rows = cells.length / cols;
+    int r = cell / cols;
+    int c = cell % cols;
+    for (int[] d : DIRECTIONS) {
+      int count = 1;
+      for (int sign = -1; sign <= 1; sign += 2) {
+        int i = r + sign * d[0];
+        int j = c + sign * d[1];
+        while (count < winLength && i >= 0 && i < rows && j >= 0 && j < cols
+            && cells[i * cols + j] == cells[cell]) {
+          count++;
+          i += sign * d[0];
+          j += sign * d[1];
+        }
+      }
+      if (count >= winLength) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,141 @@
+package tictactoe;
+
+/**
+ * This class represents statistics gathered over every game that can be played from a start
+ * state: how the games end, how long they are, and how many positions and moves each ply has.
+ * Plies are counted as the number of marks on the board, so ply 0 is the empty board.
+ */
+public class GameTreeStatistics {
+
+  private long xWins;
+  private long oWins;
+  private long draws;
+  private final long[] gameLengths;
+  private final long[] nodes;
+  private final long[] children;
+
+  /**
+   * Constructs empty statistics for a board with the given number of cells.
+   *
+   * @param cells the number of cells on the board
+   */
+  GameTreeStatistics(int cells) {
+    this.gameLengths = new long[cells + 1];
+    this.nodes = new long[cells + 1];
+    this.children = new long[cells + 1];
+  }
+
+  /**
+   * Return the number of distinct games, i.e. the number of leaves of the game tree.
+   *
+   * @return the number of games
+   */
+  public long getGames() {
+    return this.xWins + this.oWins + this.draws;
+  }
+
+  /**
+   * Return the number of games won by a player.
+   *
+   * @param p the player
+   * @return the number of games the player wins
+   */
+  public long getWins(Player p) {
+    return p == Player.X ? this.xWins : this.oWins;
+  }
+
+  /**
+   * Return the number of games that end with a full board and no winner.
+   *
+   * @return the number of drawn games
+   */
+  public long getDraws() {
+    return this.draws;
+  }
+
+  /**
+   * Return the number of games that end after the given number of marks.
+   *
+   * @param plies the number of marks on the board when the game ends
+   * @return the number of games of that length
+   */
+  public long getGameLengthCount(int plies) {
+    return plies < 0 || plies >= this.gameLengths.length ? 0 : this.gameLengths[plies];
+  }
+
+  /**
+   * Return the number of positions in the tree, counted once per path, with the given number of
+   * marks.
+   *
+   * @param ply the number of marks on the board
+   * @return the number of nodes at that ply
+   */
+  public long getNodes(int ply) {
+    return ply < 0 || ply >= this.nodes.length ? 0 : this.nodes[ply];
+  }
+
+  /**
+   * Return the average number of legal moves from the positions at a ply where the game is not
+   * over, or 0 if there are none.
+   *
+   * @param ply the number of marks on the board
+   * @return the average branching factor at that ply
+   */
+  public double getBranchingFactor(int ply) {
+    long interior = this.getNodes(ply) - this.getGameLengthCount(ply);
+    return interior == 0 ? 0 : (double) this.children[ply] / interior;
+  }
+
+  /**
+   * Return the largest ply these statistics can describe, the number of cells on the board.
+   *
+   * @return the largest ply
+   */
+  public int getMaxPly() {
+    return this.nodes.length - 1;
+  }
+
+  /**
+   * Record a position and the number of moves available from it.
+   *
+   * @param ply   the number of marks on the board
+   * @param moves the number of legal moves, 0 if the game is over
+   */
+  void recordNode(int ply, int moves) {
+    this.nodes[ply]++;
+    this.children[ply] += moves;
+  }
+
+  /**
+   * Record a finished game.
+   *
+   * @param plies  the number of marks on the board
+   * @param winner the winner, or null for a draw
+   */
+  void recordGame(int plies, Player winner) {
+    this.gameLengths[plies]++;
+    if (winner == Player.X) {
+      this.xWins++;
+    } else if (winner == Player.O) {
+      this.oWins++;
+    } else {
+      this.draws++;
+    }
+  }
+
+  /**
+   * Add the counts of other statistics, gathered over a disjoint part of the tree, to these.
+   *
+   * @param other the statistics to add
+   */
+  void merge(GameTreeStatistics other) {
+    this.xWins += other.xWins;
+    this.oWins += other.oWins;
+    this.draws += other.draws;
+    for (int i = 0; i < this.nodes.length; i++) {
+      this.gameLengths[i] += other.gameLengths[i];
+      this.nodes[i] += other.nodes[i];
+      this.children[i] += other.children[i];
+    }
+  }
+}
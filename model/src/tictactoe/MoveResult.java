@@ -0,0 +1,24 @@
+package tictactoe;
+
+/**
+ * The outcome of {@link TicTacToe#tryMove(int, int)}: either the move was made, or the reason it
+ * was not.
+ */
+public enum MoveResult {
+  /**
+   * The move was made.
+   */
+  OK,
+  /**
+   * The cell already holds a mark.
+   */
+  OCCUPIED,
+  /**
+   * The position is not on the board.
+   */
+  OUT_OF_BOUNDS,
+  /**
+   * The game is already over.
+   */
+  GAME_OVER
+}
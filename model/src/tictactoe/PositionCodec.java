@@ -0,0 +1,211 @@
+package tictactoe;
+
+/**
+ * Packs three-by-three positions into ints, so that caches and tables keyed on positions can be
+ * primitive arrays instead of maps from strings. A position has three encodings:
+ *
+ * <ul>
+ *   <li>packed as two 9-bit masks, {@code xMask | oMask << 9}, where the cell at row r and column
+ *   c is bit {@code r * 3 + c}, the encoding {@link Symmetry} uses;</li>
+ *   <li>its base-3 rank, between 0 and {@link #RANKS}, where each cell is a digit that is 0 when
+ *   empty, 1 for X and 2 for O, and the cell {@code r * 3 + c} has weight 3 to that power;</li>
+ *   <li>its index, a minimal perfect hash of the {@link #STATES} positions reachable through legal
+ *   moves onto 0 to {@code STATES - 1}, with 0 for the empty board. The index is the state of
+ *   {@link TransitionTableTicTacToeModel}.</li>
+ * </ul>
+ *
+ * <p>Every conversion is arithmetic or a table lookup and allocates nothing, except unranking an
+ * index back into a game.
+ */
+public final class PositionCodec {
+
+  /**
+   * Number of base-3 ranks, three to the power of the number of cells.
+   */
+  public static final int RANKS = Bitboards.RANKS;
+  /**
+   * Number of positions reachable through legal moves, and so of indexes.
+   */
+  public static final int STATES = TransitionTableTicTacToeModel.getStateCount();
+
+  // POWERS[cell] is 3 to the power cell, the weight of the cell's digit in a rank.
+  private static final int[] POWERS = new int[Bitboards.CELLS];
+
+  static {
+    POWERS[0] = 1;
+    for (int cell = 1; cell < Bitboards.CELLS; cell++) {
+      POWERS[cell] = 3 * POWERS[cell - 1];
+    }
+  }
+
+  private PositionCodec() {
+  }
+
+  /**
+   * Return a game's position packed as two masks.
+   *
+   * @param game a three-by-three game
+   * @return the position packed as {@code xMask | oMask << 9}
+   * @throws IllegalArgumentException if the game is not played on a three-by-three board
+   */
+  public static int pack(TicTacToe game) throws IllegalArgumentException {
+    return Bitboards.encode(game);
+  }
+
+  /**
+   * Return the base-3 rank of a game's position.
+   *
+   * @param game a three-by-three game
+   * @return the rank
+   * @throws IllegalArgumentException if the game is not played on a three-by-three board
+   */
+  public static int rank(TicTacToe game) throws IllegalArgumentException {
+    return rank(Bitboards.encode(game));
+  }
+
+  /**
+   * Return the base-3 rank of a packed position.
+   *
+   * @param position a position packed as {@code xMask | oMask << 9}
+   * @return the rank
+   * @throws IllegalArgumentException if the position has a cell marked by both players or bits
+   *                                  outside the two masks
+   */
+  public static int rank(int position) throws IllegalArgumentException {
+    int x = position & Bitboards.FULL;
+    int o = position >>> Bitboards.CELLS;
+    if (o > Bitboards.FULL || (x & o) != 0) {
+      throw new IllegalArgumentException("The position is not a packed board.");
+    }
+    return Bitboards.rank(x, o);
+  }
+
+  /**
+   * Return the packed position of a base-3 rank.
+   *
+   * @param rank a rank
+   * @return the position packed as {@code xMask | oMask << 9}
+   * @throws IllegalArgumentException if the rank is not between 0 and {@link #RANKS}, exclusive
+   */
+  public static int unrank(int rank) throws IllegalArgumentException {
+    if (rank < 0 || rank >= RANKS) {
+      throw new IllegalArgumentException("The rank is outside the board's ranks.");
+    }
+    int position = 0;
+    for (int cell = Bitboards.CELLS - 1; cell >= 0; cell--) {
+      int digit = rank / POWERS[cell];
+      rank -= digit * POWERS[cell];
+      if (digit == 1) {
+        position |= 1 << cell;
+      } else if (digit == 2) {
+        position |= 1 << (cell + Bitboards.CELLS);
+      }
+    }
+    return position;
+  }
+
+  /**
+   * Return the index of a game's position.
+   *
+   * @param game a three-by-three game
+   * @return the index, between 0 and {@link #STATES}, exclusive
+   * @throws IllegalArgumentException if the game is not played on a three-by-three board
+   */
+  public static int indexOf(TicTacToe game) throws IllegalArgumentException {
+    return indexOfRank(rank(game));
+  }
+
+  /**
+   * Return the index of a position given by its base-3 rank.
+   *
+   * @param rank the rank of a position
+   * @return the index, between 0 and {@link #STATES}, exclusive
+   * @throws IllegalArgumentException if the rank is out of range or its position cannot be
+   *                                  reached through legal moves
+   */
+  public static int indexOfRank(int rank) throws IllegalArgumentException {
+    if (rank < 0 || rank >= RANKS) {
+      throw new IllegalArgumentException("The rank is outside the board's ranks.");
+    }
+    int index = TransitionTableTicTacToeModel.stateOfRank(rank);
+    if (index < 0) {
+      throw new IllegalArgumentException("The position is not reachable.");
+    }
+    return index;
+  }
+
+  /**
+   * Return whether a position given by its base-3 rank can be reached through legal moves.
+   *
+   * @param rank the rank of a position
+   * @return whether the position has an index
+   */
+  public static boolean isReachable(int rank) {
+    return rank >= 0 && rank < RANKS && TransitionTableTicTacToeModel.stateOfRank(rank) >= 0;
+  }
+
+  /**
+   * Return the packed position of an index.
+   *
+   * @param index an index
+   * @return the position packed as {@code xMask | oMask << 9}
+   * @throws IllegalArgumentException if the index is not between 0 and {@link #STATES},
+   *                                  exclusive
+   */
+  public static int positionOf(int index) throws IllegalArgumentException {
+    checkIndex(index);
+    return TransitionTableTicTacToeModel.positionOf(index);
+  }
+
+  /**
+   * Return a new game in the position of an index, reached by a sequence of legal moves that can
+   * be undone.
+   *
+   * @param index an index
+   * @return a transition table game in the position
+   * @throws IllegalArgumentException if the index is not between 0 and {@link #STATES},
+   *                                  exclusive
+   */
+  public static TransitionTableTicTacToeModel unrankIndex(int index)
+      throws IllegalArgumentException {
+    TransitionTableTicTacToeModel game = new TransitionTableTicTacToeModel();
+    replay(index, game);
+    return game;
+  }
+
+  /**
+   * Play moves on a game that has not been moved yet until it is in the position of an index.
+   *
+   * @param index an index
+   * @param game  a new three-by-three game
+   * @throws IllegalArgumentException if the index is not between 0 and {@link #STATES},
+   *                                  exclusive, or the game rejects a move
+   * @throws IllegalStateException    if the game is over before all moves are played
+   */
+  public static void replay(int index, TicTacToe game)
+      throws IllegalArgumentException, IllegalStateException {
+    checkIndex(index);
+    int[] cells = new int[Bitboards.CELLS];
+    int count = 0;
+    for (int state = index; state != 0; state = TransitionTableTicTacToeModel.parentOf(state)) {
+      cells[count++] = TransitionTableTicTacToeModel.lastCellOf(state);
+    }
+    while (count > 0) {
+      int cell = cells[--count];
+      game.move(cell / Bitboards.SIZE, cell % Bitboards.SIZE);
+    }
+  }
+
+  /**
+   * Check that an index is in range.
+   *
+   * @param index an index
+   * @throws IllegalArgumentException if the index is not between 0 and {@link #STATES},
+   *                                  exclusive
+   */
+  private static void checkIndex(int index) throws IllegalArgumentException {
+    if (index < 0 || index >= STATES) {
+      throw new IllegalArgumentException("The index is outside the reachable positions.");
+    }
+  }
+}
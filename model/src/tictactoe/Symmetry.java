@@ -0,0 +1,175 @@
+package tictactoe;
+
+/**
+ * Maps three-by-three positions to a canonical representative under the eight symmetries of the
+ * grid, so that caches keyed on positions store each class of equivalent boards once. All mappings
+ * are table lookups and allocate nothing.
+ *
+ * <p>Positions are packed as {@code xMask | oMask << 9}, where the cell at row r and column c is
+ * bit {@code r * 3 + c}. A canonical result packs the canonical position in its low 18 bits and
+ * the transform that produced it in the three bits above; use {@link #positionOf(int)} and
+ * {@link #transformOf(int)} to take it apart. Transform t maps the caller's board onto the
+ * canonical board, so a move found on the canonical board is played by the caller at
+ * {@link #inverseRow(int, int, int)} and {@link #inverseCol(int, int, int)}.
+ */
+public final class Symmetry {
+
+  /**
+   * Number of symmetries of the grid: four rotations, each with or without a reflection.
+   */
+  public static final int TRANSFORMS = 8;
+  /**
+   * The transform that leaves every cell in place.
+   */
+  public static final int IDENTITY = 0;
+
+  private static final int SIZE = Bitboards.SIZE;
+  private static final int CELLS = Bitboards.CELLS;
+  private static final int POSITION_MASK = (1 << (2 * CELLS)) - 1;
+
+  // CELL[t][cell] is where transform t moves a cell, INVERSE_CELL[t] undoes it, and MASK[t][mask]
+  // is the image of a whole 9-bit mask.
+  private static final int[][] CELL = new int[TRANSFORMS][CELLS];
+  private static final int[][] INVERSE_CELL = new int[TRANSFORMS][CELLS];
+  private static final int[][] MASK = new int[TRANSFORMS][1 << CELLS];
+
+  static {
+    for (int t = 0; t < TRANSFORMS; t++) {
+      for (int cell = 0; cell < CELLS; cell++) {
+        int r = cell / SIZE;
+        int c = cell % SIZE;
+        if (t >= 4) {
+          c = SIZE - 1 - c;
+        }
+        for (int turns = 0; turns < t % 4; turns++) {
+          int rotated = c;
+          c = SIZE - 1 - r;
+          r = rotated;
+        }
+        CELL[t][cell] = r * SIZE + c;
+        INVERSE_CELL[t][r * SIZE + c] = cell;
+      }
+      for (int mask = 1; mask < MASK[t].length; mask++) {
+        int low = Integer.numberOfTrailingZeros(mask);
+        MASK[t][mask] = MASK[t][mask & (mask - 1)] | 1 << CELL[t][low];
+      }
+    }
+  }
+
+  private Symmetry() {
+  }
+
+  /**
+   * Return the canonical form of a game's position.
+   *
+   * @param game a three-by-three game
+   * @return the canonical position and the transform that maps the game onto it
+   * @throws IllegalArgumentException if the game is not played on a three-by-three board
+   */
+  public static int canonicalize(TicTacToe game) throws IllegalArgumentException {
+    return canonicalize(Bitboards.encode(game));
+  }
+
+  /**
+   * Return the canonical form of a packed position: the smallest of its eight images.
+   *
+   * @param position a position packed as {@code xMask | oMask << 9}
+   * @return the canonical position and the transform that maps the given position onto it
+   */
+  public static int canonicalize(int position) {
+    int x = position & Bitboards.FULL;
+    int o = position >>> CELLS & Bitboards.FULL;
+    int best = position & POSITION_MASK;
+    int bestTransform = IDENTITY;
+    for (int t = 1; t < TRANSFORMS; t++) {
+      int image = MASK[t][x] | MASK[t][o] << CELLS;
+      if (image < best) {
+        best = image;
+        bestTransform = t;
+      }
+    }
+    return best | bestTransform << (2 * CELLS);
+  }
+
+  /**
+   * Return the image of a packed position under a transform.
+   *
+   * @param t        the transform
+   * @param position a position packed as {@code xMask | oMask << 9}
+   * @return the transformed position
+   */
+  public static int transform(int t, int position) {
+    return MASK[t][position & Bitboards.FULL]
+        | MASK[t][position >>> CELLS & Bitboards.FULL] << CELLS;
+  }
+
+  /**
+   * Return the canonical position from the result of {@link #canonicalize(int)}.
+   *
+   * @param canonical a canonical result
+   * @return the canonical position packed as {@code xMask | oMask << 9}
+   */
+  public static int positionOf(int canonical) {
+    return canonical & POSITION_MASK;
+  }
+
+  /**
+   * Return the transform from the result of {@link #canonicalize(int)}.
+   *
+   * @param canonical a canonical result
+   * @return the transform that maps the original position onto the canonical one
+   */
+  public static int transformOf(int canonical) {
+    return canonical >>> (2 * CELLS);
+  }
+
+  /**
+   * Return the row a cell moves to under a transform, e.g. to find the canonical move for one
+   * the caller made.
+   *
+   * @param t the transform
+   * @param r the row on the original board
+   * @param c the column on the original board
+   * @return the row on the transformed board
+   */
+  public static int mapRow(int t, int r, int c) {
+    return CELL[t][r * SIZE + c] / SIZE;
+  }
+
+  /**
+   * Return the column a cell moves to under a transform.
+   *
+   * @param t the transform
+   * @param r the row on the original board
+   * @param c the column on the original board
+   * @return the column on the transformed board
+   */
+  public static int mapCol(int t, int r, int c) {
+    return CELL[t][r * SIZE + c] % SIZE;
+  }
+
+  /**
+   * Return the row a cell on the transformed board came from, e.g. to play a move found on the
+   * canonical board on the caller's board.
+   *
+   * @param t the transform
+   * @param r the row on the transformed board
+   * @param c the column on the transformed board
+   * @return the row on the original board
+   */
+  public static int inverseRow(int t, int r, int c) {
+    return INVERSE_CELL[t][r * SIZE + c] / SIZE;
+  }
+
+  /**
+   * Return the column a cell on the transformed board came from.
+   *
+   * @param t the transform
+   * @param r the row on the transformed board
+   * @param c the column on the transformed board
+   * @return the column on the original board
+   */
+  public static int inverseCol(int t, int r, int c) {
+    return INVERSE_CELL[t][r * SIZE + c] % SIZE;
+  }
+}
@@ -0,0 +1,165 @@
+package tictactoe;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A memory-mapped endgame tablebase for the three-by-three game, as written by
+ * {@link TablebaseGenerator}. Looking up a position takes one base-3 rank computation to find its
+ * index and one read from the mapped file, with no heap allocation.
+ *
+ * <p>Each entry is 16 bits: the low four bits hold the best cell {@code r * 3 + c}, or 15 when the
+ * game is over, the next four bits the number of plies to the end of the game under best play,
+ * and the next two bits the result for the player to move plus one. Positions that cannot be
+ * reached through legal moves hold all ones.
+ */
+public final class Tablebase {
+
+  static final int MAGIC = 0x54545442;
+  static final int VERSION = 1;
+  static final short UNREACHABLE = (short) 0xFFFF;
+  static final int NO_MOVE = 0xF;
+  private static final int HEADER_BYTES = 12;
+
+  private final ByteBuffer entries;
+
+  private Tablebase(ByteBuffer entries) {
+    this.entries = entries;
+  }
+
+  /**
+   * Memory-map a tablebase file.
+   *
+   * @param path the file written by {@link TablebaseGenerator}
+   * @return the tablebase backed by the file
+   * @throws IOException if the file cannot be read or is not a tablebase of this version
+   */
+  public static Tablebase open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long expected = HEADER_BYTES + 2L * Bitboards.RANKS;
+      if (channel.size() != expected) {
+        throw new IOException("The tablebase file has the wrong size.");
+      }
+      ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, expected);
+      if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+          || buffer.getInt(8) != Bitboards.RANKS) {
+        throw new IOException("The file is not a tablebase of version " + VERSION + ".");
+      }
+      buffer.position(HEADER_BYTES);
+      return new Tablebase(buffer.slice());
+    }
+  }
+
+  /**
+   * Return the index of a game's position in the tablebase.
+   *
+   * @param game a three-by-three game
+   * @return the index of the position, for use with the other lookups
+   * @throws IllegalArgumentException if the game is not played on a three-by-three board
+   */
+  public int indexOf(TicTacToe game) throws IllegalArgumentException {
+    int key = Bitboards.encode(game);
+    return Bitboards.rank(key & Bitboards.FULL, key >>> Bitboards.CELLS);
+  }
+
+  /**
+   * Return the result for the player to move: {@link TicTacToeSolver#WIN},
+   * {@link TicTacToeSolver#DRAW} or {@link TicTacToeSolver#LOSS}.
+   *
+   * @param index the index of a position
+   * @return the game-theoretic value of the position
+   * @throws IllegalArgumentException if the index is not a reachable position
+   */
+  public int getValue(int index) throws IllegalArgumentException {
+    return valueOf(this.entryAt(index));
+  }
+
+  /**
+   * Return the number of plies left before the game ends when the winner plays for the fastest
+   * win and the loser for the slowest loss.
+   *
+   * @param index the index of a position
+   * @return the distance to the end of the game
+   * @throws IllegalArgumentException if the index is not a reachable position
+   */
+  public int getDistance(int index) throws IllegalArgumentException {
+    return distanceOf(this.entryAt(index));
+  }
+
+  /**
+   * Return the row of the best move, or -1 if the game is over.
+   *
+   * @param index the index of a position
+   * @return the row of the best move
+   * @throws IllegalArgumentException if the index is not a reachable position
+   */
+  public int getBestRow(int index) throws IllegalArgumentException {
+    int cell = this.entryAt(index) & NO_MOVE;
+    return cell == NO_MOVE ? -1 : cell / Bitboards.SIZE;
+  }
+
+  /**
+   * Return the column of the best move, or -1 if the game is over.
+   *
+   * @param index the index of a position
+   * @return the column of the best move
+   * @throws IllegalArgumentException if the index is not a reachable position
+   */
+  public int getBestCol(int index) throws IllegalArgumentException {
+    int cell = this.entryAt(index) & NO_MOVE;
+    return cell == NO_MOVE ? -1 : cell % Bitboards.SIZE;
+  }
+
+  /**
+   * Reads the entry stored at an index.
+   *
+   * @param index the index of a position
+   * @return the entry
+   * @throws IllegalArgumentException if the index is not a reachable position
+   */
+  private short entryAt(int index) throws IllegalArgumentException {
+    if (index < 0 || index >= Bitboards.RANKS) {
+      throw new IllegalArgumentException("The index is outside the tablebase.");
+    }
+    short entry = this.entries.getShort(2 * index);
+    if (entry == UNREACHABLE) {
+      throw new IllegalArgumentException("The position is not reachable.");
+    }
+    return entry;
+  }
+
+  /**
+   * Packs a result, distance and best cell into an entry.
+   *
+   * @param value    the result for the player to move
+   * @param distance the plies to the end of the game
+   * @param cell     the best cell, or NO_MOVE
+   * @return the entry
+   */
+  static short entryOf(int value, int distance, int cell) {
+    return (short) ((value + 1) << 8 | distance << 4 | cell);
+  }
+
+  /**
+   * Unpacks the result for the player to move from an entry.
+   *
+   * @param entry the entry
+   * @return the result
+   */
+  static int valueOf(short entry) {
+    return (entry >> 8 & 0x3) - 1;
+  }
+
+  /**
+   * Unpacks the distance to the end of the game from an entry.
+   *
+   * @param entry the entry
+   * @return the distance
+   */
+  static int distanceOf(short entry) {
+    return entry >> 4 & 0xF;
+  }
+}
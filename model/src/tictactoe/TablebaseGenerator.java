@@ -0,0 +1,121 @@
+package tictactoe;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Generates the endgame tablebase read by {@link Tablebase}. Every position reachable from the
+ * empty board through legal moves is solved once, and its result, distance to the end of the game
+ * and best move are written as one 16-bit entry at the position's base-3 rank.
+ *
+ * <p>The file is a 12-byte header of the magic number, the format version and the entry count,
+ * followed by one big-endian entry per rank. See {@link Tablebase} for the layout of an entry.
+ */
+public final class TablebaseGenerator {
+
+  private final short[] entries;
+
+  private TablebaseGenerator() {
+    this.entries = new short[Bitboards.RANKS];
+    Arrays.fill(this.entries, Tablebase.UNREACHABLE);
+  }
+
+  /**
+   * Generate the tablebase and write it to the file named by the first argument, or to
+   * {@code tictactoe.tb} in the working directory.
+   *
+   * @param args optionally the path of the file to write
+   * @throws IOException if the file cannot be written
+   */
+  public static void main(String[] args) throws IOException {
+    Path path = Paths.get(args.length > 0 ? args[0] : "tictactoe.tb");
+    write(path);
+    System.out.println("Wrote " + Files.size(path) + " bytes to " + path);
+  }
+
+  /**
+   * Generate the tablebase and write it to the given file, replacing any existing file.
+   *
+   * @param path the file to write
+   * @throws IOException if the file cannot be written
+   */
+  public static void write(Path path) throws IOException {
+    try (OutputStream file = Files.newOutputStream(path)) {
+      write(file);
+    }
+  }
+
+  /**
+   * Generate the tablebase and write it to the given stream.
+   *
+   * @param out the stream to write to, which is flushed but not closed
+   * @throws IOException if the stream cannot be written
+   */
+  public static void write(OutputStream out) throws IOException {
+    TablebaseGenerator generator = new TablebaseGenerator();
+    generator.solve(0, 0);
+
+    DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+    data.writeInt(Tablebase.MAGIC);
+    data.writeInt(Tablebase.VERSION);
+    data.writeInt(generator.entries.length);
+    for (short entry : generator.entries) {
+      data.writeShort(entry);
+    }
+    data.flush();
+  }
+
+  /**
+   * Solves a reachable position and every position reachable from it, recording each entry.
+   * The player who wins picks the shortest win, the player who loses the longest loss, and ties
+   * go to the lowest cell.
+   *
+   * @param x the cells marked by X
+   * @param o the cells marked by O
+   * @return the entry of the position
+   */
+  private short solve(int x, int o) {
+    int rank = Bitboards.rank(x, o);
+    if (this.entries[rank] != Tablebase.UNREACHABLE) {
+      return this.entries[rank];
+    }
+    boolean xToMove = Integer.bitCount(x) == Integer.bitCount(o);
+    int me = xToMove ? x : o;
+    int them = xToMove ? o : x;
+
+    int bestValue = TicTacToeSolver.LOSS;
+    int bestDistance = 0;
+    int bestCell = Tablebase.NO_MOVE;
+    if (Bitboards.hasLine(them)) {
+      bestValue = TicTacToeSolver.LOSS;
+    } else if ((x | o) == Bitboards.FULL) {
+      bestValue = TicTacToeSolver.DRAW;
+    } else {
+      for (int cell = 0; cell < Bitboards.CELLS; cell++) {
+        int bit = 1 << cell;
+        if (((x | o) & bit) != 0) {
+          continue;
+        }
+        short child = xToMove ? this.solve(x | bit, o) : this.solve(x, o | bit);
+        int value = -Tablebase.valueOf(child);
+        int distance = Tablebase.distanceOf(child) + 1;
+        if (bestCell == Tablebase.NO_MOVE || value > bestValue
+            || (value == bestValue && value > TicTacToeSolver.DRAW && distance < bestDistance)
+            || (value == bestValue && value < TicTacToeSolver.DRAW && distance > bestDistance)) {
+          bestValue = value;
+          bestDistance = distance;
+          bestCell = cell;
+        }
+      }
+    }
+    short entry = Tablebase.entryOf(bestValue, bestDistance, bestCell);
+    this.entries[rank] = entry;
+    return entry;
+  }
+}
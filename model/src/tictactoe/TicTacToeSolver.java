@@ -0,0 +1,169 @@
+package tictactoe;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class represents a perfect-play oracle for the three-by-three game. It searches with
+ * negamax and alpha-beta pruning, and memoizes every searched position in a transposition table
+ * indexed directly by the position's {@link PositionCodec} index, so repeated queries on positions
+ * already searched are answered without searching again.
+ */
+public class TicTacToeSolver {
+
+  /**
+   * Value of a position the player to move wins with perfect play.
+   */
+  public static final int WIN = 1;
+  /**
+   * Value of a position that is drawn with perfect play.
+   */
+  public static final int DRAW = 0;
+  /**
+   * Value of a position the player to move loses against perfect play.
+   */
+  public static final int LOSS = -1;
+
+  // A table entry is zero when unknown, otherwise 1 + (value + 1) + 3 * bound.
+  private static final int EXACT = 0;
+  private static final int LOWER_BOUND = 1;
+  private static final int UPPER_BOUND = 2;
+
+  private final byte[] table;
+
+  /**
+   * Constructs a solver with an empty transposition table.
+   */
+  public TicTacToeSolver() {
+    this.table = new byte[PositionCodec.STATES];
+  }
+
+  /**
+   * Solve the given game for the player whose turn it is.
+   *
+   * @param game a three-by-three game
+   * @return the game-theoretic value of the position and every move that achieves it
+   * @throws IllegalArgumentException if the game is null or not played on a three-by-three board
+   */
+  public Result solve(TicTacToe game) throws IllegalArgumentException {
+    if (game == null) {
+      throw new IllegalArgumentException("Input model is null.");
+    }
+    int key = Bitboards.encode(game);
+    if (game.isGameOver()) {
+      int value = game.getWinner() == null ? DRAW
+          : game.getWinner() == game.getTurn() ? WIN : LOSS;
+      return new Result(value, Collections.emptyList());
+    }
+    int x = key & Bitboards.FULL;
+    int o = key >>> Bitboards.CELLS;
+    int me = game.getTurn() == Player.X ? x : o;
+    int them = game.getTurn() == Player.X ? o : x;
+
+    int best = LOSS - 1;
+    List<int[]> moves = new ArrayList<>();
+    for (int cell = 0; cell < Bitboards.CELLS; cell++) {
+      int bit = 1 << cell;
+      if (((me | them) & bit) != 0) {
+        continue;
+      }
+      // A full window keeps the value exact, since every value lies within it.
+      int value = -this.negamax(them, me | bit, LOSS, WIN);
+      if (value > best) {
+        best = value;
+        moves.clear();
+      }
+      if (value == best) {
+        moves.add(new int[] {cell / Bitboards.SIZE, cell % Bitboards.SIZE});
+      }
+    }
+    return new Result(best, Collections.unmodifiableList(moves));
+  }
+
+  /**
+   * Returns the value of a position for the player to move, searching within the given window.
+   * Values outside the window are only bounds, and are stored in the table as such.
+   *
+   * @param me    the cells marked by the player to move
+   * @param them  the cells marked by the player who just moved
+   * @param alpha the lowest value still of interest
+   * @param beta  the highest value still of interest
+   * @return the value of the position, or a bound on it if it lies outside the window
+   */
+  private int negamax(int me, int them, int alpha, int beta) {
+    if (Bitboards.hasLine(them)) {
+      return LOSS;
+    }
+    if ((me | them) == Bitboards.FULL) {
+      return DRAW;
+    }
+    boolean xToMove = Integer.bitCount(me) == Integer.bitCount(them);
+    int key = TransitionTableTicTacToeModel.stateOfRank(
+        xToMove ? Bitboards.rank(me, them) : Bitboards.rank(them, me));
+
+    int entry = this.table[key];
+    if (entry != 0) {
+      int value = (entry - 1) % 3 - 1;
+      int bound = (entry - 1) / 3;
+      if (bound == EXACT) {
+        return value;
+      } else if (bound == LOWER_BOUND) {
+        alpha = Math.max(alpha, value);
+      } else {
+        beta = Math.min(beta, value);
+      }
+      if (alpha >= beta) {
+        return value;
+      }
+    }
+
+    int originalAlpha = alpha;
+    int best = LOSS - 1;
+    for (int cell = 0; cell < Bitboards.CELLS && alpha < beta; cell++) {
+      int bit = 1 << cell;
+      if (((me | them) & bit) == 0) {
+        int value = -this.negamax(them, me | bit, -beta, -alpha);
+        best = Math.max(best, value);
+        alpha = Math.max(alpha, value);
+      }
+    }
+
+    int bound = best <= originalAlpha ? UPPER_BOUND : best >= beta ? LOWER_BOUND : EXACT;
+    this.table[key] = (byte) (1 + (best + 1) + 3 * bound);
+    return best;
+  }
+
+  /**
+   * The answer to a query: the game-theoretic value of a position and its optimal moves.
+   */
+  public static final class Result {
+    private final int value;
+    private final List<int[]> moves;
+
+    private Result(int value, List<int[]> moves) {
+      this.value = value;
+      this.moves = moves;
+    }
+
+    /**
+     * Return the value of the position for the player to move: {@link #WIN}, {@link #DRAW} or
+     * {@link #LOSS}.
+     *
+     * @return the game-theoretic value
+     */
+    public int getValue() {
+      return this.value;
+    }
+
+    /**
+     * Return every move that achieves the value, each as a {@code {row, column}} pair suitable for
+     * {@link TicTacToe#move(int, int)}. The list is empty once the game is over.
+     *
+     * @return the optimal moves, in row-major order
+     */
+    public List<int[]> getMoves() {
+      return this.moves;
+    }
+  }
+}
@@ -0,0 +1,135 @@
+package tictactoe;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Generates the tables read by {@link TransitionTableTicTacToeModel} when it is initialized.
+ * Every position reachable from the empty board is numbered by a breadth-first walk, so the state
+ * of the empty board is 0 and states are numbered by the ply they are reached at.
+ *
+ * <p>The file is a 12-byte header of the magic number, the format version and the state count,
+ * followed by the tables with their entries little-endian: the next state of every state and
+ * cell, the state of every base-3 rank plus one, then the position, parent, Zobrist key, flags and
+ * last cell of every state. The model reads the file as it is and decodes entries as it looks them
+ * up.
+ */
+public final class TransitionTableGenerator {
+
+  private final short[] index = new short[Bitboards.RANKS];
+  private final int[] positions = new int[TransitionTableTicTacToeModel.STATES];
+  private final short[] parents = new short[TransitionTableTicTacToeModel.STATES];
+  private final byte[] lastCells = new byte[TransitionTableTicTacToeModel.STATES];
+  private final long[] keys = new long[TransitionTableTicTacToeModel.STATES];
+  private final byte[] flags = new byte[TransitionTableTicTacToeModel.STATES];
+  private final short[] next = new short[TransitionTableTicTacToeModel.STATES * Bitboards.CELLS];
+
+  private TransitionTableGenerator() {
+  }
+
+  /**
+   * Generate the tables and write them to the file named by the first argument, or to
+   * {@code transitions.bin} in the working directory. The model reads them from
+   * {@code model/res/tictactoe/transitions.bin}.
+   *
+   * @param args optionally the path of the file to write
+   * @throws IOException if the file cannot be written
+   */
+  public static void main(String[] args) throws IOException {
+    Path path = Paths.get(args.length > 0 ? args[0] : TransitionTableTicTacToeModel.RESOURCE);
+    try (OutputStream file = Files.newOutputStream(path)) {
+      write(file);
+    }
+    System.out.println("Wrote " + Files.size(path) + " bytes to " + path);
+  }
+
+  /**
+   * Generate the tables and write them to the given stream.
+   *
+   * @param out the stream to write to, which is flushed but not closed
+   * @throws IOException           if the stream cannot be written
+   * @throws IllegalStateException if the walk does not reach exactly the expected states
+   */
+  public static void write(OutputStream out) throws IOException, IllegalStateException {
+    TransitionTableGenerator generator = new TransitionTableGenerator();
+    int count = generator.walk();
+    if (count != TransitionTableTicTacToeModel.STATES) {
+      throw new IllegalStateException("The walk reached " + count + " states.");
+    }
+
+    ByteBuffer data = ByteBuffer.allocate(TransitionTableTicTacToeModel.RESOURCE_BYTES)
+        .order(ByteOrder.LITTLE_ENDIAN);
+    data.putInt(TransitionTableTicTacToeModel.MAGIC);
+    data.putInt(TransitionTableTicTacToeModel.VERSION);
+    data.putInt(count);
+    data.asShortBuffer().put(generator.next);
+    data.position(data.position() + 2 * generator.next.length);
+    data.asShortBuffer().put(generator.index);
+    data.position(data.position() + 2 * generator.index.length);
+    data.asIntBuffer().put(generator.positions);
+    data.position(data.position() + 4 * generator.positions.length);
+    data.asShortBuffer().put(generator.parents);
+    data.position(data.position() + 2 * generator.parents.length);
+    data.asLongBuffer().put(generator.keys);
+    data.position(data.position() + 8 * generator.keys.length);
+    data.put(generator.flags);
+    data.put(generator.lastCells);
+    out.write(data.array());
+    out.flush();
+  }
+
+  /**
+   * Number every reachable position breadth first and fill in its tables.
+   *
+   * @return the number of states reached
+   */
+  private int walk() {
+    boolean[] lines = new boolean[Bitboards.FULL + 1];
+    for (int mask = 0; mask <= Bitboards.FULL; mask++) {
+      lines[mask] = Bitboards.hasLine(mask);
+    }
+    int count = 1;
+    this.index[0] = 1;
+    for (int state = 0; state < count; state++) {
+      int position = this.positions[state];
+      int x = position & Bitboards.FULL;
+      int o = position >>> Bitboards.CELLS;
+      int taken = x | o;
+      boolean xTurn = Integer.bitCount(x) == Integer.bitCount(o);
+      boolean xWins = lines[x];
+      boolean oWins = lines[o];
+      boolean over = xWins || oWins || taken == Bitboards.FULL;
+      this.flags[state] = (byte) ((xTurn ? 0 : TransitionTableTicTacToeModel.O_TO_MOVE)
+          | (over ? TransitionTableTicTacToeModel.GAME_OVER : 0)
+          | (xWins ? TransitionTableTicTacToeModel.X_WINS : 0)
+          | (oWins ? TransitionTableTicTacToeModel.O_WINS : 0));
+      int rank = Bitboards.rank(x, o);
+      int base = state * Bitboards.CELLS;
+      for (int cell = 0, bit = 1, digit = xTurn ? 1 : 2; cell < Bitboards.CELLS;
+           cell++, bit <<= 1, digit *= 3) {
+        if ((taken & bit) != 0) {
+          this.next[base + cell] = TransitionTableTicTacToeModel.OCCUPIED;
+        } else if (over) {
+          this.next[base + cell] = TransitionTableTicTacToeModel.OVER;
+        } else {
+          int child = this.index[rank + digit];
+          if (child == 0) {
+            child = ++count;
+            this.index[rank + digit] = (short) child;
+            this.positions[child - 1] = xTurn ? position | bit : position | bit << Bitboards.CELLS;
+            this.parents[child - 1] = (short) state;
+            this.lastCells[child - 1] = (byte) cell;
+            this.keys[child - 1] = this.keys[state] ^ Zobrist.of(cell, xTurn ? Player.X : Player.O);
+          }
+          this.next[base + cell] = (short) (child - 1);
+        }
+      }
+    }
+    return count;
+  }
+}
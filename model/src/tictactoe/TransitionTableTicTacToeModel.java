@@ -0,0 +1,399 @@
+package tictactoe;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.CodeSource;
+
+/**
+ * This class represents a TransitionTableTicTacToeModel. It implements all methods in TicTacToe
+ * interface on precomputed tables. Every one of the 5478 positions reachable in the three-by-three
+ * game is numbered, so the whole game state is one small int, and making a move is a lookup in a
+ * {@code [state][cell]} transition table, where cell is {@code r * 3 + c}. The turn, whether the
+ * game is over and the winner are each a lookup by state as well.
+ *
+ * <p>The tables are generated offline by {@link TransitionTableGenerator}, by a breadth-first walk
+ * from the empty board, so the state of the empty board is 0 and states are numbered by the ply
+ * they are reached at. They are read from the {@code transitions.bin} resource in one bulk read
+ * when the class is initialized.
+ */
+public class TransitionTableTicTacToeModel implements TicTacToe {
+
+  /**
+   * Number of columns in a row, used to convert a position to its cell index.
+   */
+  private static final int WIDTH = Bitboards.SIZE;
+  /**
+   * Transition table entries that are not states: the cell is taken, or the game is over.
+   */
+  static final short OCCUPIED = -1;
+  static final short OVER = -2;
+  /**
+   * Flags of each state: whose turn it is, whether the game is over and who has won.
+   */
+  static final byte O_TO_MOVE = 1;
+  static final byte GAME_OVER = 2;
+  static final byte X_WINS = 4;
+  static final byte O_WINS = 8;
+
+  /**
+   * Number of reachable states.
+   */
+  static final int STATES = 5478;
+  /**
+   * The resource holding the tables, its header and its size in bytes.
+   */
+  static final String RESOURCE = "transitions.bin";
+  static final int MAGIC = 0x54545454;
+  static final int VERSION = 1;
+  /**
+   * Offsets of the tables in the resource, each stored little-endian. NEXT holds the state after
+   * playing each cell in each state, at {@code state * 9 + cell}, or OCCUPIED or OVER if the move
+   * is not legal. INDEX holds one more than the state of each base-3 rank, or 0 if the position
+   * cannot be reached. POSITIONS holds the position of each state, packed as
+   * {@code xMask | oMask << 9}. PARENTS and LAST_CELLS hold the state each state was first reached
+   * from and the cell played to reach it. KEYS holds the Zobrist key and FLAGS the flags of each
+   * state.
+   */
+  private static final int NEXT = 12;
+  private static final int INDEX = NEXT + 2 * STATES * Bitboards.CELLS;
+  private static final int POSITIONS = INDEX + 2 * Bitboards.RANKS;
+  private static final int PARENTS = POSITIONS + 4 * STATES;
+  private static final int KEYS = PARENTS + 2 * STATES;
+  private static final int FLAGS = KEYS + 8 * STATES;
+  private static final int LAST_CELLS = FLAGS + STATES;
+  static final int RESOURCE_BYTES = LAST_CELLS + STATES;
+
+  /**
+   * The resource as read, so that loading the tables is a single read with nothing decoded up
+   * front; each lookup assembles its entry from the bytes.
+   */
+  private static final byte[] TABLES = readTables();
+
+  // The state after each move; entries from moveCount + 1 up to historySize can be redone.
+  private final short[] states;
+  private int moveCount;
+  private int historySize;
+  private final ReadOnlyBoard boardView;
+
+  /**
+   * Constructs a transition table tictactoe model with an empty board and X to move.
+   */
+  public TransitionTableTicTacToeModel() {
+    this.states = new short[Bitboards.CELLS + 1];
+    this.moveCount = 0;
+    this.historySize = 0;
+    this.boardView = new ReadOnlyBoard() {
+      @Override
+      public int getRows() {
+        return WIDTH;
+      }
+
+      @Override
+      public int getCols() {
+        return WIDTH;
+      }
+
+      @Override
+      public Player getMarkAt(int r, int c) {
+        return TransitionTableTicTacToeModel.this.getMarkAt(r, c);
+      }
+    };
+  }
+
+  /**
+   * Returns the number of states, which is the number of positions reachable in the game.
+   *
+   * @return the number of states
+   */
+  public static int getStateCount() {
+    return STATES;
+  }
+
+  /**
+   * Returns the number of the current position, between 0 for the empty board and
+   * {@link #getStateCount()}, exclusive. Two games are in the same position exactly when they are
+   * in the same state.
+   *
+   * @return the current state
+   */
+  public int getState() {
+    return this.states[this.moveCount];
+  }
+
+  /**
+   * Returns the state of a position.
+   *
+   * @param rank the base-3 rank of the position
+   * @return the state, or -1 if the position cannot be reached
+   */
+  static int stateOfRank(int rank) {
+    return shortAt(INDEX, rank) - 1;
+  }
+
+  /**
+   * Returns the position of a state.
+   *
+   * @param state a state
+   * @return the position packed as {@code xMask | oMask << 9}
+   */
+  static int positionOf(int state) {
+    return intAt(POSITIONS, state);
+  }
+
+  /**
+   * Returns the state a state was first reached from. Following parents from any state leads back
+   * to the empty board without passing through a position where the game is over.
+   *
+   * @param state a state other than the empty board
+   * @return the parent state
+   */
+  static int parentOf(int state) {
+    return shortAt(PARENTS, state);
+  }
+
+  /**
+   * Returns the cell played in the parent state to reach a state.
+   *
+   * @param state a state other than the empty board
+   * @return the cell, as {@code r * 3 + c}
+   */
+  static int lastCellOf(int state) {
+    return TABLES[LAST_CELLS + state];
+  }
+
+  /**
+   * Read the tables from their resource and check its header.
+   *
+   * @return the resource's bytes
+   * @throws IllegalStateException if the resource is missing, cannot be read or is not of this
+   *                               version
+   */
+  private static byte[] readTables() throws IllegalStateException {
+    byte[] tables = new byte[RESOURCE_BYTES];
+    try (InputStream in = openTables()) {
+      if (in == null) {
+        throw new IllegalStateException("The transition table resource is missing.");
+      }
+      if (in.readNBytes(tables, 0, tables.length) != tables.length || in.read() != -1) {
+        throw new IllegalStateException("The transition table resource has the wrong size.");
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("The transition table resource cannot be read.", e);
+    }
+    if (intAt(tables, 0) != MAGIC || intAt(tables, 4) != VERSION || intAt(tables, 8) != STATES) {
+      throw new IllegalStateException("The transition table resource is not of version "
+          + VERSION + ".");
+    }
+    return tables;
+  }
+
+  /**
+   * Open the table resource. The first lookup of a resource through a class loader searches every
+   * module of the runtime image, which takes several milliseconds on a cold JVM, so when this
+   * class was loaded from a directory the file next to it is opened directly. A directory whose
+   * path is escaped in its URL is left to the class loader.
+   *
+   * @return the resource, or null if it cannot be found
+   * @throws IOException if the file exists but cannot be opened
+   */
+  private static InputStream openTables() throws IOException {
+    CodeSource source = TransitionTableTicTacToeModel.class.getProtectionDomain().getCodeSource();
+    if (source != null && source.getLocation() != null
+        && "file".equals(source.getLocation().getProtocol())) {
+      File file = new File(new File(source.getLocation().getPath(), "tictactoe"), RESOURCE);
+      if (file.isFile()) {
+        return new FileInputStream(file);
+      }
+    }
+    return TransitionTableTicTacToeModel.class.getResourceAsStream(RESOURCE);
+  }
+
+  /**
+   * Returns an entry of a table of 16-bit entries.
+   *
+   * @param table the offset of the table
+   * @param i     the index of the entry
+   * @return the entry, sign extended
+   */
+  private static int shortAt(int table, int i) {
+    int at = table + 2 * i;
+    return TABLES[at] & 0xFF | TABLES[at + 1] << 8;
+  }
+
+  /**
+   * Returns an entry of a table of 32-bit entries.
+   *
+   * @param table the offset of the table
+   * @param i     the index of the entry
+   * @return the entry
+   */
+  private static int intAt(int table, int i) {
+    return intAt(TABLES, table + 4 * i);
+  }
+
+  /**
+   * Returns the little-endian 32-bit value at an offset of an array.
+   *
+   * @param bytes the array
+   * @param at    the offset of the value's lowest byte
+   * @return the value
+   */
+  private static int intAt(byte[] bytes, int at) {
+    return bytes[at] & 0xFF | (bytes[at + 1] & 0xFF) << 8 | (bytes[at + 2] & 0xFF) << 16
+        | bytes[at + 3] << 24;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder str = new StringBuilder();
+    for (int r = LOWER_ROW; r <= UPPER_ROW; r++) {
+      if (r > LOWER_ROW) {
+        str.append("\n-----------\n");
+      }
+      for (int c = LOWER_COL; c <= UPPER_COL; c++) {
+        Player p = this.markAt(r, c);
+        str.append(c > LOWER_COL ? " | " : " ").append(p == null ? " " : p.toString());
+      }
+    }
+    return str.toString();
+  }
+
+  @Override
+  public void move(int r, int c) throws IllegalArgumentException, IllegalStateException {
+    MoveResult result = this.tryMove(r, c);
+    if (result == MoveResult.GAME_OVER) {
+      throw new IllegalStateException("The game is over. No more movement is available.");
+    } else if (result != MoveResult.OK) {
+      throw new IllegalArgumentException("The movement is out of board's range "
+          + "or is occupied.");
+    }
+  }
+
+  @Override
+  public MoveResult tryMove(int r, int c) {
+    if (r < LOWER_ROW || c < LOWER_COL || r > UPPER_ROW || c > UPPER_COL) {
+      return MoveResult.OUT_OF_BOUNDS;
+    }
+    int next = shortAt(NEXT, this.states[this.moveCount] * Bitboards.CELLS + r * WIDTH + c);
+    if (next == OCCUPIED) {
+      return MoveResult.OCCUPIED;
+    }
+    if (next == OVER) {
+      return MoveResult.GAME_OVER;
+    }
+    this.states[++this.moveCount] = (short) next;
+    this.historySize = this.moveCount;
+    return MoveResult.OK;
+  }
+
+  @Override
+  public void undo() throws IllegalStateException {
+    if (this.moveCount == 0) {
+      throw new IllegalStateException("There is no move to undo.");
+    }
+    this.moveCount--;
+  }
+
+  @Override
+  public void redo() throws IllegalStateException {
+    if (this.moveCount == this.historySize) {
+      throw new IllegalStateException("There is no move to redo.");
+    }
+    this.moveCount++;
+  }
+
+  @Override
+  public Player getTurn() {
+    return (this.flags() & O_TO_MOVE) == 0 ? Player.X : Player.O;
+  }
+
+  @Override
+  public boolean isGameOver() {
+    return (this.flags() & GAME_OVER) != 0;
+  }
+
+  @Override
+  public Player getWinner() {
+    byte flags = this.flags();
+    if ((flags & X_WINS) != 0) {
+      return Player.X;
+    }
+    if ((flags & O_WINS) != 0) {
+      return Player.O;
+    }
+    return null;
+  }
+
+  @Override
+  public Player[][] getBoard() {
+    Player[][] board = new Player[WIDTH][WIDTH];
+    for (int r = LOWER_ROW; r <= UPPER_ROW; r++) {
+      for (int c = LOWER_COL; c <= UPPER_COL; c++) {
+        board[r][c] = this.markAt(r, c);
+      }
+    }
+    return board;
+  }
+
+  @Override
+  public ReadOnlyBoard getBoardView() {
+    return this.boardView;
+  }
+
+  @Override
+  public Player getMarkAt(int r, int c) {
+    this.checkIllegalIndex(r, c);
+    return this.markAt(r, c);
+  }
+
+  @Override
+  public long getZobristKey() {
+    int key = KEYS + 8 * this.states[this.moveCount];
+    return (long) intAt(key, 0) & 0xFFFFFFFFL | (long) intAt(key, 1) << 32;
+  }
+
+  /**
+   * Returns the flags of the current state.
+   *
+   * @return the flags
+   */
+  private byte flags() {
+    return TABLES[FLAGS + this.states[this.moveCount]];
+  }
+
+  /**
+   * Returns the mark at a position that is already known to be on the board.
+   *
+   * @param r row of a grid in the board
+   * @param c column of a grid in the board
+   * @return the player at the given position, or null if it's empty
+   */
+  private Player markAt(int r, int c) {
+    int position = intAt(POSITIONS, this.states[this.moveCount]);
+    int bit = 1 << (r * WIDTH + c);
+    if ((position & bit) != 0) {
+      return Player.X;
+    }
+    if ((position & bit << Bitboards.CELLS) != 0) {
+      return Player.O;
+    }
+    return null;
+  }
+
+  /**
+   * Check illegal input of row and column.
+   *
+   * @param r row of a grid in the board
+   * @param c column of a grid in the board
+   * @throws IllegalArgumentException if row or column is out of boundary
+   */
+  private void checkIllegalIndex(int r, int c) throws IllegalArgumentException {
+    if (r < LOWER_ROW || c < LOWER_COL ||
+        r > UPPER_ROW || c > UPPER_COL) {
+      throw new IllegalArgumentException("The movement is out of board's range "
+          + "or is occupied.");
+    }
+  }
+}
@@ -0,0 +1,28 @@
+package tictactoe;
+
+/**
+ * The random numbers behind {@link TicTacToe#getZobristKey()}. A position's key is the XOR of one
+ * number for each marked cell and the player who marked it, so a move and its undo each change the
+ * key with a single XOR. The numbers are not stored in a table but computed from the cell index
+ * and the player with the SplitMix64 finalizer, so boards of any size, including sparse boards too
+ * large for a table, share them without any setup.
+ */
+final class Zobrist {
+
+  private Zobrist() {
+  }
+
+  /**
+   * Returns the number of a mark.
+   *
+   * @param cell   the cell index, row times columns plus column
+   * @param player the player who marked the cell
+   * @return the 64-bit number to XOR into the key
+   */
+  static long of(int cell, Player player) {
+    long z = (2L * cell + (player == Player.X ? 1 : 2)) * 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
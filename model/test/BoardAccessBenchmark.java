@@ -0,0 +1,79 @@
+import java.lang.management.ManagementFactory;
+
+import tictactoe.Player;
+import tictactoe.ReadOnlyBoard;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeModel;
+
+/**
+ * Microbenchmark comparing the bytes allocated and time taken per call when reading a cell through
+ * the defensive copy of getBoard(), through getMarkAt(), and through the read-only board view.
+ */
+public class BoardAccessBenchmark {
+
+  private static final int WARMUP = 1_000_000;
+  private static final int ITERATIONS = 10_000_000;
+
+  /**
+   * A single way of reading one cell from the board.
+   */
+  private interface CellReader {
+    Player read(int r, int c);
+  }
+
+  /**
+   * Run the benchmark and print one line per access path.
+   *
+   * @param args not used
+   */
+  public static void main(String[] args) {
+    TicTacToe m = new TicTacToeModel();
+    m.move(1, 1);
+    m.move(0, 0);
+    m.move(2, 1);
+    ReadOnlyBoard view = m.getBoardView();
+
+    measure("getBoard()[r][c]", (r, c) -> m.getBoard()[r][c]);
+    measure("getMarkAt(r, c)", m::getMarkAt);
+    measure("getBoardView().getMarkAt(r, c)", view::getMarkAt);
+  }
+
+  /**
+   * Warm up and then time the given reader, reporting nanoseconds and bytes allocated per call.
+   *
+   * @param name   label printed with the result
+   * @param reader the access path to measure
+   */
+  private static void measure(String name, CellReader reader) {
+    com.sun.management.ThreadMXBean bean =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long tid = Thread.currentThread().getId();
+    int marks = run(reader, WARMUP);
+
+    long bytesBefore = bean.getThreadAllocatedBytes(tid);
+    long start = System.nanoTime();
+    marks += run(reader, ITERATIONS);
+    long elapsed = System.nanoTime() - start;
+    long bytes = bean.getThreadAllocatedBytes(tid) - bytesBefore;
+
+    System.out.printf("%-32s %8.2f ns/call %10.2f bytes/call (marks seen: %d)%n", name,
+        (double) elapsed / ITERATIONS, (double) bytes / ITERATIONS, marks);
+  }
+
+  /**
+   * Read every cell in turn for the given number of calls.
+   *
+   * @param reader the access path to exercise
+   * @param calls  the number of cells to read
+   * @return the number of non-empty cells seen, so the reads cannot be optimized away
+   */
+  private static int run(CellReader reader, int calls) {
+    int marks = 0;
+    for (int i = 0; i < calls; i++) {
+      if (reader.read(i % 3, (i / 3) % 3) != null) {
+        marks++;
+      }
+    }
+    return marks;
+  }
+}
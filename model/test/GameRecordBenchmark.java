@@ -0,0 +1,140 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import tictactoe.GameRecordReader;
+import tictactoe.GameRecordWriter;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeModel;
+
+/**
+ * Benchmark for the binary game records. Writes an archive of random games, then times a scan that
+ * tallies the outcomes straight from the mapped file against a scan that replays every record on
+ * a new model.
+ */
+public class GameRecordBenchmark {
+
+  /**
+   * Run the benchmark.
+   *
+   * @param args optionally the number of games to write
+   * @throws IOException if the temporary archive cannot be written or read
+   */
+  public static void main(String[] args) throws IOException {
+    int games = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+    File file = File.createTempFile("tictactoe", ".ttr");
+    file.deleteOnExit();
+    Path path = file.toPath();
+
+    long start = System.nanoTime();
+    write(path, games);
+    report("write", games, System.nanoTime() - start);
+    System.out.printf("%d bytes, %.1f bytes per game%n", Files.size(path),
+        (double) Files.size(path) / games);
+
+    for (int round = 0; round < 3; round++) {
+      start = System.nanoTime();
+      long sum = scan(path);
+      report("scan (checksum " + sum + ")", games, System.nanoTime() - start);
+      start = System.nanoTime();
+      sum = replay(path);
+      report("replay on a model (checksum " + sum + ")", games, System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Write random legal games, stopping each at a win, a tie or a random point.
+   *
+   * @param path  the file to write
+   * @param games the number of games
+   * @throws IOException if the file cannot be written
+   */
+  private static void write(Path path, int games) throws IOException {
+    Random random = new Random(42);
+    int[] cells = {0, 1, 2, 3, 4, 5, 6, 7, 8};
+    String[] names = {"alice", "bob", "carol", "dave"};
+    try (GameRecordWriter writer = GameRecordWriter.create(path)) {
+      for (int g = 0; g < games; g++) {
+        for (int i = cells.length - 1; i > 0; i--) {
+          int j = random.nextInt(i + 1);
+          int t = cells[i];
+          cells[i] = cells[j];
+          cells[j] = t;
+        }
+        int count = length(cells, random.nextInt(12));
+        writer.write(names[g & 3], names[(g >> 2) & 3], cells, count);
+      }
+    }
+  }
+
+  /**
+   * Returns how many of the shuffled cells make a legal game: all of them up to the first win,
+   * or fewer when the game is abandoned early.
+   *
+   * @param cells the shuffled cells
+   * @param limit the move after which the game is abandoned
+   * @return the number of moves to keep
+   */
+  private static int length(int[] cells, int limit) {
+    TicTacToe m = new TicTacToeModel();
+    int n = 0;
+    while (n < cells.length && n < limit && !m.isGameOver()) {
+      m.move(cells[n] / 3, cells[n] % 3);
+      n++;
+    }
+    return n;
+  }
+
+  /**
+   * Tally the outcomes and moves of every record from the mapped file.
+   *
+   * @param path the archive
+   * @return a checksum of the records read
+   * @throws IOException if the archive cannot be read
+   */
+  private static long scan(Path path) throws IOException {
+    GameRecordReader reader = GameRecordReader.open(path);
+    long sum = 0;
+    while (reader.next()) {
+      sum += reader.getWinner() == null ? 0 : reader.getWinner().ordinal() + 1;
+      for (int i = 0; i < reader.getMoveCount(); i++) {
+        sum += reader.getCell(i);
+      }
+    }
+    return sum;
+  }
+
+  /**
+   * Replay every record on a new model and tally the outcomes and moves.
+   *
+   * @param path the archive
+   * @return a checksum of the records read, equal to that of {@link #scan(Path)}
+   * @throws IOException if the archive cannot be read
+   */
+  private static long replay(Path path) throws IOException {
+    GameRecordReader reader = GameRecordReader.open(path);
+    long sum = 0;
+    while (reader.next()) {
+      TicTacToe m = new TicTacToeModel();
+      reader.replay(m);
+      sum += m.getWinner() == null ? 0 : m.getWinner().ordinal() + 1;
+      for (int i = 0; i < reader.getMoveCount(); i++) {
+        sum += reader.getRow(i) * 3 + reader.getCol(i);
+      }
+    }
+    return sum;
+  }
+
+  /**
+   * Print the throughput of one phase.
+   *
+   * @param name  the phase
+   * @param games the number of games processed
+   * @param nanos the time taken
+   */
+  private static void report(String name, int games, long nanos) {
+    System.out.printf("%s: %.3f s, %.0f games/s%n", name, nanos / 1e9, games / (nanos / 1e9));
+  }
+}
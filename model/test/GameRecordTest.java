@@ -0,0 +1,204 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.Test;
+
+import tictactoe.GameRecordReader;
+import tictactoe.GameRecordWriter;
+import tictactoe.Player;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeModel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test cases for the binary game records, writing files with {@link GameRecordWriter} and reading
+ * them back with {@link GameRecordReader}.
+ */
+public class GameRecordTest {
+
+  private static final int[] X_WIN = {0, 3, 1, 4, 2};
+  private static final int[] O_WIN = {8, 0, 7, 1, 3, 2};
+  private static final int[] TIE = {4, 0, 8, 2, 6, 3, 5, 7, 1};
+  private static final int[] QUIT = {4, 0};
+
+  /**
+   * Tests that every kind of game reads back with the same players, moves and outcome, and
+   * replays to the same board as playing it directly.
+   */
+  @Test
+  public void testRoundTrip() throws IOException {
+    Path path = this.temp();
+    try (GameRecordWriter writer = GameRecordWriter.create(path)) {
+      writer.write("alice", "bob", X_WIN, X_WIN.length);
+      writer.write("alice", "bob", O_WIN, O_WIN.length);
+      writer.write("ren\u00e9e", "bob", TIE, TIE.length);
+      writer.write("bob", "", QUIT, QUIT.length);
+      writer.write("carol", "dave", TIE, 0);
+      assertEquals(5, writer.getCount());
+    }
+
+    GameRecordReader reader = GameRecordReader.open(path);
+    this.check(reader, "alice", "bob", X_WIN, Player.X, true);
+    this.check(reader, "alice", "bob", O_WIN, Player.O, true);
+    this.check(reader, "ren\u00e9e", "bob", TIE, null, true);
+    this.check(reader, "bob", "", QUIT, null, false);
+    this.check(reader, "carol", "dave", new int[0], null, false);
+    assertFalse(reader.next());
+  }
+
+  /**
+   * Tests that a full game between two players with short names fits in under 20 bytes.
+   */
+  @Test
+  public void testCompact() throws IOException {
+    Path path = this.temp();
+    try (GameRecordWriter writer = GameRecordWriter.create(path)) {
+      writer.write("ann", "ben", TIE, TIE.length);
+    }
+    assertEquals(8 + 1 + 4 + 4 + 5 + 4, Files.size(path));
+  }
+
+  /**
+   * Tests that a move on an occupied cell is rejected without writing anything.
+   */
+  @Test
+  public void testOccupiedCell() throws IOException {
+    Path path = this.temp();
+    try (GameRecordWriter writer = GameRecordWriter.create(path)) {
+      writer.write("a", "b", new int[] {4, 4}, 2);
+      throw new AssertionError("An occupied cell was accepted.");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Move 2 is not legal.", e.getMessage());
+    }
+    assertFalse(GameRecordReader.open(path).next());
+  }
+
+  /**
+   * Tests that a move after the game has been won is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testMoveAfterWin() throws IOException {
+    try (GameRecordWriter writer = GameRecordWriter.create(this.temp())) {
+      writer.write("a", "b", new int[] {0, 3, 1, 4, 2, 5}, 6);
+    }
+  }
+
+  /**
+   * Tests that a cell off the board is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testCellOutOfRange() throws IOException {
+    try (GameRecordWriter writer = GameRecordWriter.create(this.temp())) {
+      writer.write("a", "b", new int[] {9}, 1);
+    }
+  }
+
+  /**
+   * Tests that a name longer than 255 bytes is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testNameTooLong() throws IOException {
+    try (GameRecordWriter writer = GameRecordWriter.create(this.temp())) {
+      writer.write("a".repeat(256), "b", QUIT, QUIT.length);
+    }
+  }
+
+  /**
+   * Tests that a damaged record fails its checksum.
+   */
+  @Test(expected = IOException.class)
+  public void testCorruptRecord() throws IOException {
+    Path path = this.temp();
+    try (GameRecordWriter writer = GameRecordWriter.create(path)) {
+      writer.write("a", "b", X_WIN, X_WIN.length);
+    }
+    byte[] bytes = Files.readAllBytes(path);
+    bytes[bytes.length - 6] ^= 0x01;
+    Files.write(path, bytes);
+    GameRecordReader.open(path).next();
+  }
+
+  /**
+   * Tests that a record cut short is reported rather than read past the end of the file.
+   */
+  @Test(expected = IOException.class)
+  public void testTruncatedRecord() throws IOException {
+    Path path = this.temp();
+    try (GameRecordWriter writer = GameRecordWriter.create(path)) {
+      writer.write("a", "b", X_WIN, X_WIN.length);
+    }
+    byte[] bytes = Files.readAllBytes(path);
+    Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+    GameRecordReader.open(path).next();
+  }
+
+  /**
+   * Tests opening a file that is not a record file.
+   */
+  @Test(expected = IOException.class)
+  public void testNotARecordFile() throws IOException {
+    Path path = this.temp();
+    Files.write(path, new byte[] {1, 2, 3});
+    GameRecordReader.open(path);
+  }
+
+  /**
+   * Tests reading a record before moving to one.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testNoCurrentRecord() throws IOException {
+    Path path = this.temp();
+    GameRecordWriter.create(path).close();
+    GameRecordReader.open(path).getMoveCount();
+  }
+
+  /**
+   * Moves to the next record and compares it with the expected game.
+   *
+   * @param reader   the reader under test
+   * @param x        the expected name of X
+   * @param o        the expected name of O
+   * @param cells    the expected moves
+   * @param winner   the expected winner
+   * @param gameOver whether the game is expected to have ended
+   */
+  private void check(GameRecordReader reader, String x, String o, int[] cells, Player winner,
+      boolean gameOver) throws IOException {
+    assertTrue(reader.next());
+    assertEquals(x, reader.getPlayerX());
+    assertEquals(o, reader.getPlayerO());
+    assertEquals(cells.length, reader.getMoveCount());
+    TicTacToe expected = new TicTacToeModel();
+    for (int i = 0; i < cells.length; i++) {
+      assertEquals(cells[i], reader.getCell(i));
+      expected.move(cells[i] / 3, cells[i] % 3);
+    }
+    if (winner == null) {
+      assertNull(reader.getWinner());
+    } else {
+      assertEquals(winner, reader.getWinner());
+    }
+    assertEquals(gameOver, reader.isGameOver());
+    TicTacToe replayed = new TicTacToeModel();
+    reader.replay(replayed);
+    assertEquals(expected.toString(), replayed.toString());
+    assertEquals(expected.isGameOver(), reader.isGameOver());
+  }
+
+  /**
+   * Creates a temporary file that is deleted on exit.
+   *
+   * @return the path of the file
+   */
+  private Path temp() throws IOException {
+    File file = File.createTempFile("tictactoe", ".ttr");
+    file.deleteOnExit();
+    return file.toPath();
+  }
+}
@@ -0,0 +1,108 @@
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+
+import tictactoe.GameTreeEnumerator;
+import tictactoe.GameTreeStatistics;
+import tictactoe.MnkTicTacToeModel;
+import tictactoe.Player;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeModel;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test cases for the game tree enumerator. Verifying the well-known counts of the three-by-three
+ * game tree, whatever the split depth and parallelism.
+ */
+public class GameTreeEnumeratorTest {
+
+  /**
+   * Tests the number and outcomes of all games from the empty board.
+   */
+  @Test
+  public void testEmptyBoard() {
+    GameTreeStatistics stats = new GameTreeEnumerator().enumerate(new TicTacToeModel());
+    assertEquals(255168, stats.getGames());
+    assertEquals(131184, stats.getWins(Player.X));
+    assertEquals(77904, stats.getWins(Player.O));
+    assertEquals(46080, stats.getDraws());
+    assertEquals(1440, stats.getGameLengthCount(5));
+    assertEquals(127872, stats.getGameLengthCount(9));
+    assertEquals(1, stats.getNodes(0));
+    assertEquals(72, stats.getNodes(2));
+    assertEquals(9.0, stats.getBranchingFactor(0), 0);
+    assertEquals(8.0, stats.getBranchingFactor(1), 0);
+  }
+
+  /**
+   * Tests that splitting more plies on a single worker gives the same statistics.
+   */
+  @Test
+  public void testSplitDepthDoesNotChangeResult() {
+    ForkJoinPool pool = new ForkJoinPool(1);
+    GameTreeStatistics stats = new GameTreeEnumerator(5, pool).enumerate(new TicTacToeModel());
+    pool.shutdown();
+    assertEquals(255168, stats.getGames());
+    long nodes = 0;
+    for (int ply = 0; ply <= stats.getMaxPly(); ply++) {
+      nodes += stats.getNodes(ply);
+    }
+    assertEquals(549946, nodes);
+  }
+
+  /**
+   * Tests a start state after some moves, leaving the model unchanged.
+   */
+  @Test
+  public void testMidgameStart() {
+    TicTacToe ttt = new TicTacToeModel();
+    ttt.move(1, 1);
+    ttt.move(0, 0);
+    ttt.move(2, 2);
+    ttt.move(0, 2);
+    GameTreeStatistics stats = new GameTreeEnumerator().enumerate(ttt);
+    assertEquals(1, stats.getNodes(4));
+    assertEquals(stats.getGames(),
+        stats.getWins(Player.X) + stats.getWins(Player.O) + stats.getDraws());
+    assertEquals(Player.X, ttt.getTurn());
+    assertEquals(null, ttt.getMarkAt(0, 1));
+  }
+
+  /**
+   * Tests a finished start state, which is a single game.
+   */
+  @Test
+  public void testFinishedStart() {
+    TicTacToe ttt = new MnkTicTacToeModel(3, 3, 1);
+    ttt.move(1, 1);
+    GameTreeStatistics stats = new GameTreeEnumerator().enumerate(ttt);
+    assertEquals(1, stats.getGames());
+    assertEquals(1, stats.getWins(Player.X));
+    assertEquals(1, stats.getGameLengthCount(1));
+  }
+
+  /**
+   * Tests a generalized board where two in a row wins.
+   */
+  @Test
+  public void testSmallGeneralizedBoard() {
+    GameTreeStatistics stats = new GameTreeEnumerator(1, ForkJoinPool.commonPool())
+        .enumerate(new MnkTicTacToeModel(2, 2, 2));
+    // X always completes a line with its second mark, since any two cells of a 2x2 board align.
+    assertEquals(24, stats.getGames());
+    assertEquals(24, stats.getWins(Player.X));
+    assertEquals(24, stats.getGameLengthCount(3));
+  }
+
+  /**
+   * Tests that the win length is taken from the start state rather than assumed to be three.
+   */
+  @Test
+  public void testWinLengthFromModel() {
+    GameTreeStatistics stats = new GameTreeEnumerator().enumerate(new MnkTicTacToeModel(2, 2, 2));
+    assertEquals(24, stats.getWins(Player.X));
+    assertEquals(0, stats.getDraws());
+    assertEquals(255168, new GameTreeEnumerator().enumerate(new MnkTicTacToeModel(3, 3, 3))
+        .getGames());
+  }
+}
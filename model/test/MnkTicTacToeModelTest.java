@@ -0,0 +1,317 @@
+import org.junit.Test;
+
+import tictactoe.MnkTicTacToeModel;
+import tictactoe.MoveResult;
+import tictactoe.Player;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeModel;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test cases for the generalized m,n,k tic tac toe model. Verifying that the standard game matches
+ * TicTacToeModel and that larger boards detect k in a row in every direction.
+ */
+public class MnkTicTacToeModelTest {
+
+  private TicTacToe gomoku = new MnkTicTacToeModel(15, 15, 5);
+
+  /**
+   * Tests that the default game matches the reference model on every reachable game state.
+   */
+  @Test
+  public void testStandardGameMatchesReferenceModel() {
+    assertEquals(549946, this.compare(new int[9], 0));
+  }
+
+  /**
+   * Tests the dimensions reported by the board view.
+   */
+  @Test
+  public void testBoardViewDimensions() {
+    TicTacToe ttt = new MnkTicTacToeModel(4, 7, 3);
+    assertEquals(4, ttt.getBoardView().getRows());
+    assertEquals(7, ttt.getBoardView().getCols());
+    assertEquals(4, ttt.getBoard().length);
+    assertEquals(7, ttt.getBoard()[0].length);
+  }
+
+  /**
+   * Tests that the separator line grows with the number of columns.
+   */
+  @Test
+  public void testToStringWideBoard() {
+    TicTacToe ttt = new MnkTicTacToeModel(2, 4, 3);
+    ttt.move(0, 3);
+    ttt.move(1, 0);
+    assertEquals("   |   |   | X\n"
+        + "---------------\n"
+        + " O |   |   |  ", ttt.toString());
+  }
+
+  /**
+   * Tests a horizontal five in a row on a gomoku board.
+   */
+  @Test
+  public void testHorizontalWin() {
+    for (int c = 3; c < 7; c++) {
+      gomoku.move(7, c);
+      gomoku.move(0, c);
+    }
+    assertFalse(gomoku.isGameOver());
+    gomoku.move(7, 7);
+    assertTrue(gomoku.isGameOver());
+    assertEquals(Player.X, gomoku.getWinner());
+  }
+
+  /**
+   * Tests a vertical five in a row completed in the middle of the line.
+   */
+  @Test
+  public void testVerticalWinFilledInMiddle() {
+    int[] rows = {10, 11, 13, 14};
+    for (int r : rows) {
+      gomoku.move(r, 2);
+      gomoku.move(r, 9);
+    }
+    gomoku.move(12, 2);
+    assertEquals(Player.X, gomoku.getWinner());
+  }
+
+  /**
+   * Tests an anti-diagonal five in a row for O ending on the board edge.
+   */
+  @Test
+  public void testAntiDiagonalWin() {
+    gomoku.move(7, 7);
+    for (int i = 0; i < 4; i++) {
+      gomoku.move(i, 14 - i);
+      gomoku.move(14, i);
+    }
+    gomoku.move(4, 10);
+    assertTrue(gomoku.isGameOver());
+    assertEquals(Player.O, gomoku.getWinner());
+  }
+
+  /**
+   * Tests that four in a row does not win when five are required.
+   */
+  @Test
+  public void testFourInRowIsNotWin() {
+    for (int i = 0; i < 4; i++) {
+      gomoku.move(i, i);
+      gomoku.move(i, 14);
+    }
+    assertFalse(gomoku.isGameOver());
+    assertNull(gomoku.getWinner());
+  }
+
+  /**
+   * Tests a sparse game on a large board, including lookups of cells far from any move.
+   */
+  @Test
+  public void testLargeSparseBoard() {
+    TicTacToe ttt = new MnkTicTacToeModel(100, 100, 5);
+    for (int i = 0; i < 40; i++) {
+      ttt.move(i * 2, 99 - i);
+    }
+    assertEquals(Player.X, ttt.getMarkAt(0, 99));
+    assertEquals(Player.O, ttt.getMarkAt(78, 60));
+    assertNull(ttt.getMarkAt(50, 50));
+    assertFalse(ttt.isGameOver());
+  }
+
+  /**
+   * Tests undoing and redoing a long game, which exercises removal from the cell table.
+   */
+  @Test
+  public void testUndoRedoManyMoves() {
+    TicTacToe ttt = new MnkTicTacToeModel(20, 20, 20);
+    int[] cells = new int[300];
+    for (int i = 0; i < cells.length; i++) {
+      cells[i] = (i * 37) % 400;
+      ttt.move(cells[i] / 20, cells[i] % 20);
+    }
+    String full = ttt.toString();
+    for (int i = cells.length - 1; i >= 0; i--) {
+      ttt.undo();
+      assertNull(ttt.getMarkAt(cells[i] / 20, cells[i] % 20));
+      if (i > 0) {
+        assertEquals(i % 2 == 1 ? Player.X : Player.O,
+            ttt.getMarkAt(cells[i - 1] / 20, cells[i - 1] % 20));
+      }
+    }
+    assertEquals(Player.X, ttt.getTurn());
+    for (int i = 0; i < cells.length; i++) {
+      ttt.redo();
+    }
+    assertEquals(full, ttt.toString());
+  }
+
+  /**
+   * Tests undoing a winning move on a gomoku board.
+   */
+  @Test
+  public void testUndoWin() {
+    for (int c = 3; c < 8; c++) {
+      gomoku.move(7, c);
+      if (c < 7) {
+        gomoku.move(0, c);
+      }
+    }
+    assertEquals(Player.X, gomoku.getWinner());
+    gomoku.undo();
+    assertFalse(gomoku.isGameOver());
+    assertNull(gomoku.getWinner());
+    gomoku.move(8, 8);
+    assertEquals(Player.O, gomoku.getTurn());
+  }
+
+  /**
+   * Tests a draw when the board fills up without k in a row.
+   */
+  @Test
+  public void testFullBoardDraw() {
+    TicTacToe ttt = new MnkTicTacToeModel(1, 4, 3);
+    ttt.move(0, 0);
+    ttt.move(0, 1);
+    ttt.move(0, 2);
+    assertFalse(ttt.isGameOver());
+    ttt.move(0, 3);
+    assertTrue(ttt.isGameOver());
+    assertNull(ttt.getWinner());
+  }
+
+  /**
+   * Tests a move outside a non-square board.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalMoveOutsideBoard() {
+    new MnkTicTacToeModel(4, 7, 3).move(4, 0);
+  }
+
+  /**
+   * Tests a move at an occupied position.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalMoveDuplicateMove() {
+    gomoku.move(3, 3);
+    gomoku.move(3, 3);
+  }
+
+  /**
+   * Tests a move after the game has been won.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testIllegalMoveGameOver() {
+    TicTacToe ttt = new MnkTicTacToeModel(3, 3, 1);
+    ttt.move(0, 0);
+    ttt.move(1, 1);
+  }
+
+  /**
+   * Tests a win length that cannot fit on the board.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalWinLength() {
+    new MnkTicTacToeModel(3, 4, 5);
+  }
+
+  /**
+   * Tests a board without any rows.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalDimensions() {
+    new MnkTicTacToeModel(0, 4, 1);
+  }
+
+  /**
+   * Replays the given moves on both models and compares them, then recurses into every legal
+   * continuation.
+   *
+   * @param moves the cells played so far
+   * @param ply   the number of cells played so far
+   * @return the number of states compared
+   */
+  private int compare(int[] moves, int ply) {
+    TicTacToe expected = new TicTacToeModel();
+    TicTacToe actual = new MnkTicTacToeModel();
+    for (int i = 0; i < ply; i++) {
+      expected.move(moves[i] / 3, moves[i] % 3);
+      actual.move(moves[i] / 3, moves[i] % 3);
+    }
+    assertEquals(expected.getTurn(), actual.getTurn());
+    assertEquals(expected.isGameOver(), actual.isGameOver());
+    assertEquals(expected.getWinner(), actual.getWinner());
+    assertArrayEquals(expected.getBoard(), actual.getBoard());
+    assertEquals(expected.toString(), actual.toString());
+    assertEquals(expected.getZobristKey(), actual.getZobristKey());
+    int count = 1;
+    if (actual.isGameOver()) {
+      return count;
+    }
+    for (int cell = 0; cell < 9; cell++) {
+      if (actual.getMarkAt(cell / 3, cell % 3) == null) {
+        moves[ply] = cell;
+        count += this.compare(moves, ply + 1);
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Tests that tryMove reports every rejected move with its result and leaves the game unchanged.
+   */
+  @Test
+  public void testTryMoveResults() {
+    TicTacToe ttt = new MnkTicTacToeModel();
+    assertEquals(MoveResult.OK, ttt.tryMove(0, 0));
+    assertEquals(Player.O, ttt.getTurn());
+    assertEquals(MoveResult.OCCUPIED, ttt.tryMove(0, 0));
+    assertEquals(MoveResult.OUT_OF_BOUNDS, ttt.tryMove(-1, 0));
+    assertEquals(MoveResult.OUT_OF_BOUNDS, ttt.tryMove(0, 3));
+    assertEquals(Player.O, ttt.getTurn());
+    assertEquals(MoveResult.OK, ttt.tryMove(1, 0));
+    assertEquals(MoveResult.OK, ttt.tryMove(0, 1));
+    assertEquals(MoveResult.OK, ttt.tryMove(1, 1));
+    assertEquals(MoveResult.OK, ttt.tryMove(0, 2));
+    String board = ttt.toString();
+    assertEquals(MoveResult.GAME_OVER, ttt.tryMove(2, 2));
+    assertEquals(MoveResult.OCCUPIED, ttt.tryMove(0, 0));
+    assertEquals(board, ttt.toString());
+    assertEquals(Player.X, ttt.getWinner());
+  }
+
+  /**
+   * Tests that the Zobrist key on a large board depends only on the position and is restored by
+   * undo, and that it differs from the key of the same cells marked by the other players.
+   */
+  @Test
+  public void testZobristKeyLargeBoard() {
+    TicTacToe big = new MnkTicTacToeModel(1000, 1000, 5);
+    big.move(0, 0);
+    big.move(999, 999);
+    big.move(500, 7);
+    long key = big.getZobristKey();
+    TicTacToe other = new MnkTicTacToeModel(1000, 1000, 5);
+    other.move(500, 7);
+    other.move(999, 999);
+    other.move(0, 0);
+    assertEquals(key, other.getZobristKey());
+    TicTacToe swapped = new MnkTicTacToeModel(1000, 1000, 5);
+    swapped.move(999, 999);
+    swapped.move(0, 0);
+    swapped.move(500, 7);
+    swapped.move(1, 1);
+    swapped.undo();
+    assertTrue(key != swapped.getZobristKey());
+    for (int i = 0; i < 3; i++) {
+      big.undo();
+    }
+    assertEquals(0, big.getZobristKey());
+  }
+}
@@ -0,0 +1,114 @@
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+
+import tictactoe.Player;
+import tictactoe.PositionCodec;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeModel;
+import tictactoe.TransitionTableTicTacToeModel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Test cases for the position codec. Verifying that ranks and indexes round trip and that the
+ * indexes number the reachable positions densely.
+ */
+public class PositionCodecTest {
+
+  /**
+   * Tests the packed position and rank of a game after two moves.
+   */
+  @Test
+  public void testPackAndRank() {
+    TicTacToe ttt = new TicTacToeModel();
+    assertEquals(0, PositionCodec.pack(ttt));
+    assertEquals(0, PositionCodec.rank(ttt));
+    ttt.move(0, 0);
+    ttt.move(0, 1);
+    assertEquals(1 | 2 << 9, PositionCodec.pack(ttt));
+    assertEquals(1 + 2 * 3, PositionCodec.rank(ttt));
+  }
+
+  /**
+   * Tests that unranking and ranking again gives back every rank.
+   */
+  @Test
+  public void testRankRoundTrip() {
+    for (int rank = 0; rank < PositionCodec.RANKS; rank++) {
+      assertEquals(rank, PositionCodec.rank(PositionCodec.unrank(rank)));
+    }
+  }
+
+  /**
+   * Tests that every index unranks to a game in its position that indexes back to it, and that
+   * the Zobrist keys of the reachable positions are all different.
+   */
+  @Test
+  public void testIndexRoundTrip() {
+    assertEquals(5478, PositionCodec.STATES);
+    int reachable = 0;
+    for (int rank = 0; rank < PositionCodec.RANKS; rank++) {
+      reachable += PositionCodec.isReachable(rank) ? 1 : 0;
+    }
+    assertEquals(PositionCodec.STATES, reachable);
+    Set<Long> keys = new HashSet<>();
+    for (int index = 0; index < PositionCodec.STATES; index++) {
+      int position = PositionCodec.positionOf(index);
+      assertEquals(index, PositionCodec.indexOfRank(PositionCodec.rank(position)));
+      TransitionTableTicTacToeModel fast = PositionCodec.unrankIndex(index);
+      assertEquals(index, fast.getState());
+      assertEquals(position, PositionCodec.pack(fast));
+      TicTacToe ttt = new TicTacToeModel();
+      PositionCodec.replay(index, ttt);
+      assertEquals(index, PositionCodec.indexOf(ttt));
+      assertEquals(fast.toString(), ttt.toString());
+      assertEquals(fast.getZobristKey(), ttt.getZobristKey());
+      keys.add(ttt.getZobristKey());
+    }
+    assertEquals(PositionCodec.STATES, keys.size());
+  }
+
+  /**
+   * Tests that unranking leaves the moves on the game's history.
+   */
+  @Test
+  public void testUnrankedGameCanUndo() {
+    TicTacToe ttt = new TicTacToeModel();
+    ttt.move(1, 1);
+    ttt.move(0, 0);
+    ttt.move(2, 2);
+    TicTacToe unranked = PositionCodec.unrankIndex(PositionCodec.indexOf(ttt));
+    assertEquals(Player.O, unranked.getTurn());
+    for (int i = 0; i < 3; i++) {
+      unranked.undo();
+    }
+    assertEquals(0, PositionCodec.indexOf(unranked));
+  }
+
+  /**
+   * Tests that a position with O ahead of X has no index.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnreachablePosition() {
+    assertFalse(PositionCodec.isReachable(2));
+    PositionCodec.indexOfRank(2);
+  }
+
+  /**
+   * Tests that a packed position with a cell marked by both players is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testRankOverlappingMasks() {
+    PositionCodec.rank(1 | 1 << 9);
+  }
+
+  /**
+   * Tests that an index outside the reachable positions is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testIndexOutOfRange() {
+    PositionCodec.positionOf(PositionCodec.STATES);
+  }
+}
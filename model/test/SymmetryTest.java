@@ -0,0 +1,153 @@
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+
+import tictactoe.Player;
+import tictactoe.Symmetry;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeModel;
+import tictactoe.TicTacToeSolver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test cases for symmetry canonicalization. Verifying that equivalent boards share one canonical
+ * position and that moves translate between the caller's board and the canonical board.
+ */
+public class SymmetryTest {
+
+  private Set<Integer> positions = new HashSet<>();
+  private Set<Integer> canonical = new HashSet<>();
+
+  /**
+   * Tests that the 5478 reachable positions fall into 765 classes.
+   */
+  @Test
+  public void testReachableClasses() {
+    this.visit(new int[9], 0);
+    assertEquals(5478, positions.size());
+    assertEquals(765, canonical.size());
+  }
+
+  /**
+   * Tests that a corner opening maps onto the top left corner.
+   */
+  @Test
+  public void testCornerOpening() {
+    TicTacToe ttt = new TicTacToeModel();
+    ttt.move(2, 2);
+    int result = Symmetry.canonicalize(ttt);
+    assertEquals(1, Symmetry.positionOf(result));
+    int t = Symmetry.transformOf(result);
+    assertEquals(0, Symmetry.mapRow(t, 2, 2));
+    assertEquals(0, Symmetry.mapCol(t, 2, 2));
+    assertEquals(2, Symmetry.inverseRow(t, 0, 0));
+    assertEquals(2, Symmetry.inverseCol(t, 0, 0));
+  }
+
+  /**
+   * Tests that every transform is undone by its inverse cell mapping.
+   */
+  @Test
+  public void testInverseMapping() {
+    for (int t = 0; t < Symmetry.TRANSFORMS; t++) {
+      for (int cell = 0; cell < 9; cell++) {
+        int r = Symmetry.mapRow(t, cell / 3, cell % 3);
+        int c = Symmetry.mapCol(t, cell / 3, cell % 3);
+        assertEquals(cell, Symmetry.inverseRow(t, r, c) * 3 + Symmetry.inverseCol(t, r, c));
+      }
+    }
+  }
+
+  /**
+   * Tests that optimal moves found on the canonical board are optimal on the caller's board once
+   * mapped back.
+   */
+  @Test
+  public void testMovesTranslateBack() {
+    TicTacToeSolver solver = new TicTacToeSolver();
+    int[] moves = {8, 1, 3};
+    TicTacToe ttt = this.replay(moves, 3, Symmetry.IDENTITY);
+    int t = Symmetry.transformOf(Symmetry.canonicalize(ttt));
+    TicTacToe canonicalGame = this.replay(moves, 3, t);
+    assertEquals(Symmetry.positionOf(Symmetry.canonicalize(ttt)),
+        Symmetry.positionOf(Symmetry.canonicalize(canonicalGame)));
+
+    TicTacToeSolver.Result expected = solver.solve(ttt);
+    TicTacToeSolver.Result found = solver.solve(canonicalGame);
+    assertEquals(expected.getMoves().size(), found.getMoves().size());
+    for (int[] m : found.getMoves()) {
+      int r = Symmetry.inverseRow(t, m[0], m[1]);
+      int c = Symmetry.inverseCol(t, m[0], m[1]);
+      assertTrue(expected.getMoves().stream().anyMatch(e -> e[0] == r && e[1] == c));
+    }
+  }
+
+  /**
+   * Records every reachable position, checks that all its images share its canonical position,
+   * then recurses into every legal continuation.
+   *
+   * @param moves the cells played so far
+   * @param ply   the number of cells played so far
+   */
+  private void visit(int[] moves, int ply) {
+    TicTacToe ttt = this.replay(moves, ply, Symmetry.IDENTITY);
+    int result = Symmetry.canonicalize(ttt);
+    if (!positions.add(this.packed(ttt))) {
+      return;
+    }
+    canonical.add(Symmetry.positionOf(result));
+    for (int t = 0; t < Symmetry.TRANSFORMS; t++) {
+      TicTacToe image = this.replay(moves, ply, t);
+      assertEquals(Symmetry.transform(t, this.packed(ttt)), this.packed(image));
+      assertEquals(Symmetry.positionOf(result), Symmetry.positionOf(Symmetry.canonicalize(image)));
+    }
+    assertEquals(Symmetry.positionOf(result),
+        Symmetry.transform(Symmetry.transformOf(result), this.packed(ttt)));
+    if (ttt.isGameOver()) {
+      return;
+    }
+    for (int cell = 0; cell < 9; cell++) {
+      if (ttt.getMarkAt(cell / 3, cell % 3) == null) {
+        moves[ply] = cell;
+        this.visit(moves, ply + 1);
+      }
+    }
+  }
+
+  /**
+   * Builds a model by playing the given moves, each mapped through a transform.
+   *
+   * @param moves the cells to play
+   * @param ply   the number of cells to play
+   * @param t     the transform to apply to every move
+   * @return the resulting model
+   */
+  private TicTacToe replay(int[] moves, int ply, int t) {
+    TicTacToe ttt = new TicTacToeModel();
+    for (int i = 0; i < ply; i++) {
+      int r = moves[i] / 3;
+      int c = moves[i] % 3;
+      ttt.move(Symmetry.mapRow(t, r, c), Symmetry.mapCol(t, r, c));
+    }
+    return ttt;
+  }
+
+  /**
+   * Packs a game as {@code xMask | oMask << 9}, cell by cell.
+   *
+   * @param ttt the game
+   * @return the packed position
+   */
+  private int packed(TicTacToe ttt) {
+    int position = 0;
+    for (int cell = 0; cell < 9; cell++) {
+      Player p = ttt.getMarkAt(cell / 3, cell % 3);
+      if (p != null) {
+        position |= 1 << (p == Player.X ? cell : cell + 9);
+      }
+    }
+    return position;
+  }
+}
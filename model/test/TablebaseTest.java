@@ -0,0 +1,129 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+
+import tictactoe.Tablebase;
+import tictactoe.TablebaseGenerator;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeModel;
+import tictactoe.TicTacToeSolver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test cases for the endgame tablebase. Verifying that a generated file agrees with the solver on
+ * every reachable game state.
+ */
+public class TablebaseTest {
+
+  private TicTacToeSolver solver = new TicTacToeSolver();
+  private Set<Integer> checked = new HashSet<>();
+
+  /**
+   * Tests every reachable game state against the solver, and that playing the stored best move
+   * takes exactly one ply off the distance to the end.
+   */
+  @Test
+  public void testMatchesSolver() throws IOException {
+    Tablebase tb = Tablebase.open(this.generate());
+    this.check(tb, new int[9], 0);
+    assertEquals(5478, checked.size());
+  }
+
+  /**
+   * Tests the lookups on the empty board.
+   */
+  @Test
+  public void testEmptyBoard() throws IOException {
+    Tablebase tb = Tablebase.open(this.generate());
+    int index = tb.indexOf(new TicTacToeModel());
+    assertEquals(0, index);
+    assertEquals(TicTacToeSolver.DRAW, tb.getValue(index));
+    assertEquals(9, tb.getDistance(index));
+  }
+
+  /**
+   * Tests a position that cannot be reached, where O has moved first.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnreachablePosition() throws IOException {
+    Tablebase.open(this.generate()).getValue(2);
+  }
+
+  /**
+   * Tests opening a file that is not a tablebase.
+   */
+  @Test(expected = IOException.class)
+  public void testNotATablebase() throws IOException {
+    Path path = this.generate();
+    Files.write(path, new byte[] {1, 2, 3});
+    Tablebase.open(path);
+  }
+
+  /**
+   * Generates a tablebase into a temporary file that is deleted on exit.
+   *
+   * @return the path of the file
+   */
+  private Path generate() throws IOException {
+    File file = File.createTempFile("tictactoe", ".tb");
+    file.deleteOnExit();
+    TablebaseGenerator.write(file.toPath());
+    return file.toPath();
+  }
+
+  /**
+   * Replays the given moves, compares the tablebase with the solver, then recurses into every
+   * legal continuation not checked before.
+   *
+   * @param tb    the tablebase under test
+   * @param moves the cells played so far
+   * @param ply   the number of cells played so far
+   */
+  private void check(Tablebase tb, int[] moves, int ply) {
+    TicTacToe ttt = this.replay(moves, ply);
+    int index = tb.indexOf(ttt);
+    if (!checked.add(index)) {
+      return;
+    }
+    TicTacToeSolver.Result result = solver.solve(ttt);
+    assertEquals(result.getValue(), tb.getValue(index));
+    if (ttt.isGameOver()) {
+      assertEquals(0, tb.getDistance(index));
+      assertEquals(-1, tb.getBestRow(index));
+      return;
+    }
+    int best = tb.getBestRow(index) * 3 + tb.getBestCol(index);
+    assertTrue(result.getMoves().stream().anyMatch(m -> m[0] * 3 + m[1] == best));
+    moves[ply] = best;
+    int next = tb.indexOf(this.replay(moves, ply + 1));
+    assertEquals(tb.getDistance(index) - 1, tb.getDistance(next));
+
+    for (int cell = 0; cell < 9; cell++) {
+      if (ttt.getMarkAt(cell / 3, cell % 3) == null) {
+        moves[ply] = cell;
+        this.check(tb, moves, ply + 1);
+      }
+    }
+  }
+
+  /**
+   * Builds a model by playing the given moves from the empty board.
+   *
+   * @param moves the cells to play
+   * @param ply   the number of cells to play
+   * @return the resulting model
+   */
+  private TicTacToe replay(int[] moves, int ply) {
+    TicTacToe ttt = new TicTacToeModel();
+    for (int i = 0; i < ply; i++) {
+      ttt.move(moves[i] / 3, moves[i] % 3);
+    }
+    return ttt;
+  }
+}
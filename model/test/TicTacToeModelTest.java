@@ -1,13 +1,20 @@
 import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Collectors;
 import org.junit.Test;
 
+import tictactoe.MoveResult;
 import tictactoe.Player;
+import tictactoe.ReadOnlyBoard;
 import tictactoe.TicTacToe;
 import tictactoe.TicTacToeModel;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -627,5 +634,182 @@ public class TicTacToeModelTest {
     assertEquals(Player.O, bd2[2][0]);
   }
 
+  /**
+   * Tests getBoardView method, which reflects later moves instead of copying the board.
+   */
+  @Test
+  public void testGetBoardView() {
+    ReadOnlyBoard view = ttt1.getBoardView();
+    assertEquals(3, view.getRows());
+    assertEquals(3, view.getCols());
+    assertNull(view.getMarkAt(1, 1));
+    ttt1.move(1, 1);
+    assertEquals(Player.X, view.getMarkAt(1, 1));
+    assertTrue(view == ttt1.getBoardView());
+  }
+
+  /**
+   * Tests an invalid position passed to the board view.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidBoardViewMark() {
+    ttt1.getBoardView().getMarkAt(3, 0);
+  }
+
+  /**
+   * Tests undoing a winning move, which reopens the game for the same player.
+   */
+  @Test
+  public void testUndoWinningMove() {
+    ttt1.move(0, 0); // X takes upper left
+    ttt1.move(1, 0); // O takes middle left
+    ttt1.move(0, 1); // X takes upper middle
+    ttt1.move(2, 0); // O takes lower left
+    ttt1.move(0, 2); // X takes upper right
+    assertEquals(Player.X, ttt1.getWinner());
+    ttt1.undo();
+    assertFalse(ttt1.isGameOver());
+    assertNull(ttt1.getWinner());
+    assertNull(ttt1.getMarkAt(0, 2));
+    assertEquals(Player.X, ttt1.getTurn());
+    ttt1.redo();
+    assertTrue(ttt1.isGameOver());
+    assertEquals(Player.X, ttt1.getWinner());
+  }
+
+  /**
+   * Tests that undoing every move restores the empty board and redo replays them in order.
+   */
+  @Test
+  public void testUndoRedoAll() {
+    ttt1.move(1, 1);
+    ttt1.move(0, 0);
+    ttt1.move(2, 2);
+    String before = ttt1.toString();
+    ttt1.undo();
+    ttt1.undo();
+    ttt1.undo();
+    assertEquals("   |   |  \n"
+        + "-----------\n"
+        + "   |   |  \n"
+        + "-----------\n"
+        + "   |   |  ", ttt1.toString());
+    assertEquals(Player.X, ttt1.getTurn());
+    ttt1.redo();
+    ttt1.redo();
+    ttt1.redo();
+    assertEquals(before, ttt1.toString());
+    assertEquals(Player.O, ttt1.getTurn());
+  }
+
+  /**
+   * Tests undo on a new game.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testUndoNoMove() {
+    ttt1.undo();
+  }
+
+  /**
+   * Tests that a new move discards the moves that could have been redone.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testRedoAfterNewMove() {
+    ttt1.move(1, 1);
+    ttt1.undo();
+    ttt1.move(0, 0);
+    ttt1.redo();
+  }
+
+  /**
+   * Tests that the rendering is reused until the board changes.
+   */
+  @Test
+  public void testToStringCachedUntilMove() {
+    ttt1.move(1, 1);
+    String first = ttt1.toString();
+    assertSame(first, ttt1.toString());
+    ttt1.move(0, 2);
+    assertNotSame(first, ttt1.toString());
+    ttt1.undo();
+    assertEquals(first, ttt1.toString());
+  }
+
+  /**
+   * Tests that the rendering follows every move, undo and redo of a long random walk.
+   */
+  @Test
+  public void testToStringMatchesBoard() {
+    Random random = new Random(42);
+    for (int step = 0; step < 10000; step++) {
+      int choice = random.nextInt(4);
+      int r = random.nextInt(3);
+      int c = random.nextInt(3);
+      try {
+        if (choice == 0) {
+          ttt1.undo();
+        } else if (choice == 1) {
+          ttt1.redo();
+        } else {
+          ttt1.move(r, c);
+        }
+      } catch (IllegalArgumentException | IllegalStateException e) {
+        // The step was not possible from this state; the board is unchanged.
+      }
+      assertEquals(Arrays.stream(ttt1.getBoard()).map(
+              row -> " " + Arrays.stream(row).map(
+                  p -> p == null ? " " : p.toString()).collect(Collectors.joining(" | ")))
+          .collect(Collectors.joining("\n-----------\n")), ttt1.toString());
+    }
+  }
+
+  /**
+   * Tests that tryMove reports every rejected move with its result and leaves the game unchanged.
+   */
+  @Test
+  public void testTryMoveResults() {
+    TicTacToe ttt = new TicTacToeModel();
+    assertEquals(MoveResult.OK, ttt.tryMove(0, 0));
+    assertEquals(Player.O, ttt.getTurn());
+    assertEquals(MoveResult.OCCUPIED, ttt.tryMove(0, 0));
+    assertEquals(MoveResult.OUT_OF_BOUNDS, ttt.tryMove(-1, 0));
+    assertEquals(MoveResult.OUT_OF_BOUNDS, ttt.tryMove(0, 3));
+    assertEquals(Player.O, ttt.getTurn());
+    assertEquals(MoveResult.OK, ttt.tryMove(1, 0));
+    assertEquals(MoveResult.OK, ttt.tryMove(0, 1));
+    assertEquals(MoveResult.OK, ttt.tryMove(1, 1));
+    assertEquals(MoveResult.OK, ttt.tryMove(0, 2));
+    String board = ttt.toString();
+    assertEquals(MoveResult.GAME_OVER, ttt.tryMove(2, 2));
+    assertEquals(MoveResult.OCCUPIED, ttt.tryMove(0, 0));
+    assertEquals(board, ttt.toString());
+    assertEquals(Player.X, ttt.getWinner());
+  }
+
+  /**
+   * Tests that the Zobrist key depends only on the position, and that undo and redo restore it.
+   */
+  @Test
+  public void testZobristKey() {
+    assertEquals(0, ttt1.getZobristKey());
+    ttt1.move(0, 0);
+    ttt1.move(1, 1);
+    ttt1.move(2, 2);
+    long key = ttt1.getZobristKey();
+    TicTacToe other = new TicTacToeModel();
+    other.move(2, 2);
+    other.move(1, 1);
+    other.move(0, 0);
+    assertEquals(key, other.getZobristKey());
+    other.undo();
+    assertNotEquals(key, other.getZobristKey());
+    other.redo();
+    assertEquals(key, other.getZobristKey());
+    for (int i = 0; i < 3; i++) {
+      other.undo();
+    }
+    assertEquals(0, other.getZobristKey());
+  }
+
   // TODO: test case where board is full AND there is a winner
 }
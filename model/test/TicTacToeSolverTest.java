@@ -0,0 +1,170 @@
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Test;
+
+import tictactoe.MnkTicTacToeModel;
+import tictactoe.Player;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeModel;
+import tictactoe.TicTacToeSolver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test cases for the perfect-play solver. Verifying its values and optimal moves against a plain
+ * minimax search on every reachable game state.
+ */
+public class TicTacToeSolverTest {
+
+  private TicTacToeSolver solver = new TicTacToeSolver();
+  private Map<String, Integer> minimax = new HashMap<>();
+  private Set<String> compared = new HashSet<>();
+
+  /**
+   * Tests that the empty board is a draw where every first move is optimal.
+   */
+  @Test
+  public void testEmptyBoard() {
+    TicTacToeSolver.Result result = solver.solve(new TicTacToeModel());
+    assertEquals(TicTacToeSolver.DRAW, result.getValue());
+    assertEquals(9, result.getMoves().size());
+  }
+
+  /**
+   * Tests that O must answer a center opening in a corner.
+   */
+  @Test
+  public void testReplyToCenter() {
+    TicTacToe ttt = new TicTacToeModel();
+    ttt.move(1, 1);
+    List<int[]> moves = solver.solve(ttt).getMoves();
+    assertEquals(4, moves.size());
+    assertArrayEquals(new int[] {0, 0}, moves.get(0));
+    assertArrayEquals(new int[] {2, 2}, moves.get(3));
+  }
+
+  /**
+   * Tests a position where X can complete a row immediately.
+   */
+  @Test
+  public void testImmediateWin() {
+    TicTacToe ttt = new TicTacToeModel();
+    ttt.move(0, 0);
+    ttt.move(1, 0);
+    ttt.move(0, 1);
+    ttt.move(2, 0);
+    TicTacToeSolver.Result result = solver.solve(ttt);
+    assertEquals(TicTacToeSolver.WIN, result.getValue());
+    assertTrue(result.getMoves().stream().anyMatch(m -> m[0] == 0 && m[1] == 2));
+  }
+
+  /**
+   * Tests a finished game, which has no moves and is lost for the player to move.
+   */
+  @Test
+  public void testGameOver() {
+    TicTacToe ttt = new TicTacToeModel();
+    ttt.move(0, 0);
+    ttt.move(1, 0);
+    ttt.move(0, 1);
+    ttt.move(2, 0);
+    ttt.move(0, 2);
+    TicTacToeSolver.Result result = solver.solve(ttt);
+    assertEquals(TicTacToeSolver.LOSS, result.getValue());
+    assertTrue(result.getMoves().isEmpty());
+  }
+
+  /**
+   * Tests that every reachable game state matches a plain minimax search.
+   */
+  @Test
+  public void testMatchesMinimax() {
+    this.compare(new int[9], 0);
+    assertEquals(5478, compared.size());
+  }
+
+  /**
+   * Tests a game that is not played on a three-by-three board.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testLargerBoard() {
+    solver.solve(new MnkTicTacToeModel(4, 4, 3));
+  }
+
+  /**
+   * Replays the given moves, compares the solver with minimax, then recurses into every legal
+   * continuation not compared before.
+   *
+   * @param moves the cells played so far
+   * @param ply   the number of cells played so far
+   */
+  private void compare(int[] moves, int ply) {
+    TicTacToe ttt = this.replay(moves, ply);
+    if (!compared.add(ttt.toString())) {
+      return;
+    }
+    TicTacToeSolver.Result result = solver.solve(ttt);
+    assertEquals(this.minimax(moves, ply), result.getValue());
+    for (int cell = 0; cell < 9; cell++) {
+      if (ttt.isGameOver() || ttt.getMarkAt(cell / 3, cell % 3) != null) {
+        continue;
+      }
+      moves[ply] = cell;
+      boolean optimal = -this.minimax(moves, ply + 1) == result.getValue();
+      boolean listed = result.getMoves().stream()
+          .anyMatch(m -> m[0] * 3 + m[1] == moves[ply]);
+      assertEquals(optimal, listed);
+      this.compare(moves, ply + 1);
+    }
+  }
+
+  /**
+   * Returns the value of a position for the player to move with an unpruned, memoized minimax.
+   *
+   * @param moves the cells played so far
+   * @param ply   the number of cells played so far
+   * @return 1 for a win, 0 for a draw and -1 for a loss
+   */
+  private int minimax(int[] moves, int ply) {
+    TicTacToe ttt = this.replay(moves, ply);
+    String key = ttt.toString();
+    if (minimax.containsKey(key)) {
+      return minimax.get(key);
+    }
+    int best;
+    if (ttt.isGameOver()) {
+      best = ttt.getWinner() == null ? 0 : ttt.getWinner() == ttt.getTurn() ? 1 : -1;
+    } else {
+      best = -1;
+      for (int cell = 0; cell < 9; cell++) {
+        if (ttt.getMarkAt(cell / 3, cell % 3) == null) {
+          moves[ply] = cell;
+          best = Math.max(best, -this.minimax(moves, ply + 1));
+        }
+      }
+    }
+    minimax.put(key, best);
+    return best;
+  }
+
+  /**
+   * Builds a model by playing the given moves from the empty board.
+   *
+   * @param moves the cells to play
+   * @param ply   the number of cells to play
+   * @return the resulting model
+   */
+  private TicTacToe replay(int[] moves, int ply) {
+    TicTacToe ttt = new TicTacToeModel();
+    for (int i = 0; i < ply; i++) {
+      ttt.move(moves[i] / 3, moves[i] % 3);
+    }
+    assertEquals(ply % 2 == 0 ? Player.X : Player.O, ttt.getTurn());
+    return ttt;
+  }
+}
@@ -0,0 +1,36 @@
+import tictactoe.BitboardTicTacToeModel;
+import tictactoe.TransitionTableTicTacToeModel;
+
+/**
+ * Benchmark for the transition table model. It reports how long the first use of the class takes,
+ * which loads its tables, after the first use of a model without tables has loaded the classes
+ * the two share. It exits with status 1 when loading the tables costs more than a millisecond over
+ * that first use, so a regression is visible; moves on the model are measured with the other
+ * models in the benchmark module.
+ */
+public class TransitionTableBenchmark {
+
+  private static final double BUDGET_MILLIS = 1.0;
+
+  /**
+   * Run the benchmark.
+   *
+   * @param args not used
+   */
+  public static void main(String[] args) {
+    long start = System.nanoTime();
+    new BitboardTicTacToeModel();
+    long loaded = System.nanoTime();
+    int states = TransitionTableTicTacToeModel.getStateCount();
+    long end = System.nanoTime();
+    double baseline = (loaded - start) / 1e6;
+    double millis = (end - loaded) / 1e6;
+    System.out.printf("loaded a model without tables in %.3f ms%n", baseline);
+    System.out.printf("loaded %d states in %.3f ms%n", states, millis);
+    if (millis > baseline + BUDGET_MILLIS) {
+      System.out.printf("class init is over the model without tables by more than %.1f ms%n",
+          BUDGET_MILLIS);
+      System.exit(1);
+    }
+  }
+}
@@ -0,0 +1,206 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+
+import tictactoe.MoveResult;
+import tictactoe.Player;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeModel;
+import tictactoe.TransitionTableGenerator;
+import tictactoe.TransitionTableTicTacToeModel;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test cases for the transition table tic tac toe model. Verifying that it agrees with the
+ * reference TicTacToeModel on every reachable game state and that its states are the positions.
+ */
+public class TransitionTableTicTacToeModelTest {
+
+  private TicTacToe ttt1 = new TransitionTableTicTacToeModel();
+
+  /**
+   * Tests the game starting with Player X on an empty board.
+   */
+  @Test
+  public void testInitialState() {
+    assertEquals(Player.X, ttt1.getTurn());
+    assertNull(ttt1.getWinner());
+    assertEquals("   |   |  \n"
+        + "-----------\n"
+        + "   |   |  \n"
+        + "-----------\n"
+        + "   |   |  ", ttt1.toString());
+  }
+
+  /**
+   * Tests a move at an occupied position.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalMoveDuplicateMove() {
+    ttt1.move(1, 1);
+    ttt1.move(1, 1);
+  }
+
+  /**
+   * Tests an invalid move when there is a winner.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testIllegalMoveGameOver() {
+    ttt1.move(0, 2); // X takes upper right
+    ttt1.move(0, 0); // O takes upper left
+    ttt1.move(1, 1); // X takes middle
+    ttt1.move(0, 1); // O takes upper middle
+    ttt1.move(2, 0); // X takes lower left
+    assertEquals(Player.X, ttt1.getWinner());
+
+    ttt1.move(2, 2);
+  }
+
+  /**
+   * Tests that undo restores the previous state and redo replays the move.
+   */
+  @Test
+  public void testUndoRedo() {
+    ttt1.move(0, 2); // X takes upper right
+    ttt1.move(0, 0); // O takes upper left
+    ttt1.move(1, 1); // X takes middle
+    ttt1.move(0, 1); // O takes upper middle
+    ttt1.move(2, 0); // X takes lower left
+    ttt1.undo();
+    assertNull(ttt1.getWinner());
+    assertNull(ttt1.getMarkAt(2, 0));
+    assertEquals(Player.X, ttt1.getTurn());
+    ttt1.undo();
+    assertNull(ttt1.getMarkAt(0, 1));
+    assertEquals(Player.O, ttt1.getTurn());
+    ttt1.redo();
+    ttt1.redo();
+    assertEquals(Player.X, ttt1.getWinner());
+  }
+
+  /**
+   * Tests that every reachable game state matches the reference model.
+   */
+  @Test
+  public void testMatchesReferenceModel() {
+    assertEquals(549946, this.compare(new int[9], 0));
+  }
+
+  /**
+   * Replays the given moves on both models and compares them, then recurses into every legal
+   * continuation.
+   *
+   * @param moves the cells played so far
+   * @param ply   the number of cells played so far
+   * @return the number of states compared
+   */
+  private int compare(int[] moves, int ply) {
+    TicTacToe expected = new TicTacToeModel();
+    TicTacToe actual = new TransitionTableTicTacToeModel();
+    for (int i = 0; i < ply; i++) {
+      expected.move(moves[i] / 3, moves[i] % 3);
+      actual.move(moves[i] / 3, moves[i] % 3);
+    }
+    assertEquals(expected.getTurn(), actual.getTurn());
+    assertEquals(expected.isGameOver(), actual.isGameOver());
+    assertEquals(expected.getWinner(), actual.getWinner());
+    assertArrayEquals(expected.getBoard(), actual.getBoard());
+    assertEquals(expected.toString(), actual.toString());
+    assertEquals(expected.getZobristKey(), actual.getZobristKey());
+    int count = 1;
+    if (actual.isGameOver()) {
+      return count;
+    }
+    for (int cell = 0; cell < 9; cell++) {
+      if (actual.getMarkAt(cell / 3, cell % 3) == null) {
+        moves[ply] = cell;
+        count += this.compare(moves, ply + 1);
+      }
+    }
+    assertTrue(count > 1);
+    return count;
+  }
+
+  /**
+   * Tests that tryMove reports every rejected move with its result and leaves the game unchanged.
+   */
+  @Test
+  public void testTryMoveResults() {
+    TicTacToe ttt = new TransitionTableTicTacToeModel();
+    assertEquals(MoveResult.OK, ttt.tryMove(0, 0));
+    assertEquals(Player.O, ttt.getTurn());
+    assertEquals(MoveResult.OCCUPIED, ttt.tryMove(0, 0));
+    assertEquals(MoveResult.OUT_OF_BOUNDS, ttt.tryMove(-1, 0));
+    assertEquals(MoveResult.OUT_OF_BOUNDS, ttt.tryMove(0, 3));
+    assertEquals(Player.O, ttt.getTurn());
+    assertEquals(MoveResult.OK, ttt.tryMove(1, 0));
+    assertEquals(MoveResult.OK, ttt.tryMove(0, 1));
+    assertEquals(MoveResult.OK, ttt.tryMove(1, 1));
+    assertEquals(MoveResult.OK, ttt.tryMove(0, 2));
+    String board = ttt.toString();
+    assertEquals(MoveResult.GAME_OVER, ttt.tryMove(2, 2));
+    assertEquals(MoveResult.OCCUPIED, ttt.tryMove(0, 0));
+    assertEquals(board, ttt.toString());
+    assertEquals(Player.X, ttt.getWinner());
+  }
+
+  /**
+   * Tests that the states number the reachable positions one to one, from 0 for the empty board.
+   */
+  @Test
+  public void testStatesArePositions() {
+    assertEquals(0, new TransitionTableTicTacToeModel().getState());
+    Map<Integer, String> positions = new HashMap<>();
+    this.collect(new TransitionTableTicTacToeModel(), positions);
+    assertEquals(5478, positions.size());
+    assertEquals(5478, TransitionTableTicTacToeModel.getStateCount());
+    for (int state = 0; state < 5478; state++) {
+      assertTrue(positions.containsKey(state));
+    }
+    assertEquals(5478, positions.values().stream().distinct().count());
+  }
+
+  /**
+   * Tests that the tables the model loads are the ones a fresh walk of the game generates.
+   */
+  @Test
+  public void testTablesMatchFreshBuild() throws IOException {
+    ByteArrayOutputStream fresh = new ByteArrayOutputStream();
+    TransitionTableGenerator.write(fresh);
+    byte[] loaded;
+    try (InputStream in = TransitionTableTicTacToeModel.class
+        .getResourceAsStream("transitions.bin")) {
+      loaded = in.readAllBytes();
+    }
+    assertArrayEquals(fresh.toByteArray(), loaded);
+  }
+
+  /**
+   * Record the position of every state reachable from the game, checking that a state reached
+   * again is in the same position, and leave the game as it was.
+   *
+   * @param game      the game
+   * @param positions the board of each state seen so far
+   */
+  private void collect(TransitionTableTicTacToeModel game, Map<Integer, String> positions) {
+    String board = game.toString();
+    String seen = positions.putIfAbsent(game.getState(), board);
+    if (seen != null) {
+      assertEquals(seen, board);
+      return;
+    }
+    for (int cell = 0; cell < 9; cell++) {
+      if (game.tryMove(cell / 3, cell % 3) == MoveResult.OK) {
+        this.collect(game, positions);
+        game.undo();
+      }
+    }
+  }
+}
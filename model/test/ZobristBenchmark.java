@@ -0,0 +1,167 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import tictactoe.MnkTicTacToeModel;
+import tictactoe.MoveResult;
+import tictactoe.Player;
+import tictactoe.ReadOnlyBoard;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeModel;
+
+/**
+ * Benchmark comparing the incremental Zobrist key with hashing a copy of the board from
+ * getBoard(). It counts the collisions of each on every reachable three-by-three position and on
+ * positions from random games on a 15x15 board, then times reading each key.
+ */
+public class ZobristBenchmark {
+
+  private static final int GAMES = 5_000;
+  private static final int MAX_MOVES = 60;
+  private static final int ITERATIONS = 2_000_000;
+
+  /**
+   * Run the benchmark.
+   *
+   * @param args not used
+   */
+  public static void main(String[] args) {
+    Collisions small = new Collisions();
+    visit(new TicTacToeModel(), small);
+    small.print("3x3 reachable");
+
+    Collisions large = new Collisions();
+    Random random = new Random(42);
+    for (int g = 0; g < GAMES; g++) {
+      TicTacToe m = new MnkTicTacToeModel(15, 15, 5);
+      for (int i = 0; i < MAX_MOVES && !m.isGameOver(); i++) {
+        int r = random.nextInt(15);
+        int c = random.nextInt(15);
+        if (m.getMarkAt(r, c) == null) {
+          m.move(r, c);
+          large.add(m);
+        }
+      }
+    }
+    large.print("15x15 random games");
+
+    TicTacToe small3 = new TicTacToeModel();
+    small3.move(1, 1);
+    small3.move(0, 0);
+    small3.move(2, 1);
+    TicTacToe large15 = new MnkTicTacToeModel(15, 15, 5);
+    int moves = 0;
+    while (moves < 40 && !large15.isGameOver()) {
+      if (large15.tryMove(random.nextInt(15), random.nextInt(15)) == MoveResult.OK) {
+        moves++;
+      }
+    }
+    for (int round = 0; round < 2; round++) {
+      time("3x3 getZobristKey()", small3, true);
+      time("3x3 deepHashCode(getBoard())", small3, false);
+      time("15x15 getZobristKey()", large15, true);
+      time("15x15 deepHashCode(getBoard())", large15, false);
+    }
+  }
+
+  /**
+   * Add every position reachable from a game, leaving the game as it was.
+   *
+   * @param m          the game
+   * @param collisions the positions seen so far
+   */
+  private static void visit(TicTacToe m, Collisions collisions) {
+    if (!collisions.add(m) || m.isGameOver()) {
+      return;
+    }
+    for (int cell = 0; cell < 9; cell++) {
+      if (m.getMarkAt(cell / 3, cell % 3) == null) {
+        m.move(cell / 3, cell % 3);
+        visit(m, collisions);
+        m.undo();
+      }
+    }
+  }
+
+  /**
+   * Time reading one kind of key and print the time per read.
+   *
+   * @param name    label printed with the result
+   * @param m       the game to read the key of
+   * @param zobrist whether to read the Zobrist key rather than hash the board
+   */
+  private static void time(String name, TicTacToe m, boolean zobrist) {
+    long sum = 0;
+    long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      sum += zobrist ? m.getZobristKey() : Arrays.deepHashCode(m.getBoard());
+    }
+    long elapsed = System.nanoTime() - start;
+    System.out.printf("%-32s %8.2f ns/key (checksum %d)%n", name, (double) elapsed / ITERATIONS,
+        sum);
+  }
+
+  /**
+   * The distinct positions seen, with the distinct values of both keys over them.
+   */
+  private static final class Collisions {
+    // Each position as the bits of its marks, two per cell, keyed by its Zobrist key.
+    private final Map<Long, long[]> positions = new HashMap<>();
+    private final Set<Integer> boardHashes = new HashSet<>();
+    private int zobristCollisions = 0;
+
+    /**
+     * Record a game's position.
+     *
+     * @param m the game
+     * @return whether the position was not seen before
+     */
+    boolean add(TicTacToe m) {
+      long[] marks = marksOf(m.getBoardView());
+      long[] seen = this.positions.putIfAbsent(m.getZobristKey(), marks);
+      if (seen != null) {
+        if (!Arrays.equals(seen, marks)) {
+          this.zobristCollisions++;
+        }
+        return false;
+      }
+      this.boardHashes.add(Arrays.deepHashCode(m.getBoard()));
+      return true;
+    }
+
+    /**
+     * Print the collisions of each key.
+     *
+     * @param name label printed with the result
+     */
+    void print(String name) {
+      int count = this.positions.size();
+      System.out.printf("%-20s %8d positions: Zobrist %d collisions, "
+              + "deepHashCode(getBoard()) %d collisions (%.3f%%)%n", name, count,
+          this.zobristCollisions, count - this.boardHashes.size(),
+          100.0 * (count - this.boardHashes.size()) / count);
+    }
+
+    /**
+     * Returns the marks of a board as bits, two per cell.
+     *
+     * @param board the board
+     * @return the bits
+     */
+    private static long[] marksOf(ReadOnlyBoard board) {
+      int cells = board.getRows() * board.getCols();
+      long[] marks = new long[(2 * cells + 63) / 64];
+      for (int cell = 0; cell < cells; cell++) {
+        Player p = board.getMarkAt(cell / board.getCols(), cell % board.getCols());
+        if (p != null) {
+          int bit = 2 * cell + (p == Player.X ? 0 : 1);
+          marks[bit / 64] |= 1L << (bit % 64);
+        }
+      }
+      return marks;
+    }
+  }
+}
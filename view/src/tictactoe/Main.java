@@ -7,11 +7,15 @@ public class Main {
   /**
    * Run a TicTacToe game interactively on the console.
    * 
-   * @param args not used
+   * @param args optionally the rows, columns and win length of a generalized game
    */
   public static void main(String[] args) {
-    TicTacToe m = new TicTacToeModel();
-    TicTacToeView v = new SwingTicTacToeView("Tic-Tac-Toe");
+    TicTacToe m = args.length == 3
+        ? new MnkTicTacToeModel(Integer.parseInt(args[0]), Integer.parseInt(args[1]),
+            Integer.parseInt(args[2]))
+        : new TicTacToeModel();
+    TicTacToeView v = new SwingTicTacToeView("Tic-Tac-Toe",
+        m.getBoardView().getRows(), m.getBoardView().getCols());
     TicTacToeController c = new SwingTicTacToeController(v, m);
     c.playGame();
   }
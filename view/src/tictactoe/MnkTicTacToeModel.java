@@ -0,0 +1,415 @@
+package tictactoe;
+
+import java.util.Arrays;
+
+/**
+ * This class represents a generalized m,n,k-game. It implements all methods in TicTacToe interface
+ * on a board of any number of rows and columns, where the first player to place k marks in a row
+ * either vertically, horizontally, or diagonally wins. The default 3,3,3 game plays exactly like
+ * {@link TicTacToeModel}.
+ *
+ * <p>Only occupied cells are stored, in an open-addressing hash table keyed by cell index, so a
+ * sparse 100x100 game costs memory proportional to the number of moves rather than the board size.
+ * A win is detected by counting along the four lines through the last move, which is O(k). The
+ * cells played are kept on a move stack for undo and redo.
+ */
+public class MnkTicTacToeModel implements TicTacToe {
+
+  /**
+   * Row and column steps of the four line directions: horizontal, vertical and both diagonals.
+   */
+  private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+  private static final int INITIAL_CAPACITY = 16;
+  private static final byte EMPTY = 0;
+  private static final byte MARK_X = 1;
+  private static final byte MARK_O = 2;
+
+  private final int rows;
+  private final int cols;
+  private final int k;
+  private Player turn;
+  private int moveCount;
+  private boolean gameOver;
+  private Player winner;
+  // Open-addressing table of occupied cells. A key is the cell index plus one, so zero is free.
+  private int[] keys;
+  private byte[] marks;
+  // Cells played; entries from moveCount up to historySize can be redone.
+  private int[] history;
+  private int historySize;
+  private long zobristKey;
+  private final ReadOnlyBoard boardView;
+
+  /**
+   * Constructs the standard three-by-three game where three in a row wins.
+   */
+  public MnkTicTacToeModel() {
+    this(UPPER_ROW - LOWER_ROW + 1, UPPER_COL - LOWER_COL + 1, 3);
+  }
+
+  /**
+   * Constructs an m,n,k-game with an empty board and X to move.
+   *
+   * @param rows the number of rows on the board
+   * @param cols the number of columns on the board
+   * @param k    the number of marks in a row needed to win
+   * @throws IllegalArgumentException if a dimension is not positive, the board has more cells
+   *                                  than an int can index, or k does not fit on the board
+   */
+  public MnkTicTacToeModel(int rows, int cols, int k) throws IllegalArgumentException {
+    if (rows < 1 || cols < 1 || (long) rows * cols >= Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("The board dimensions are invalid.");
+    }
+    if (k < 1 || k > Math.max(rows, cols)) {
+      throw new IllegalArgumentException("The win length must fit on the board.");
+    }
+    this.rows = rows;
+    this.cols = cols;
+    this.k = k;
+    this.turn = Player.X;
+    this.moveCount = 0;
+    this.gameOver = false;
+    this.winner = null;
+    this.keys = new int[INITIAL_CAPACITY];
+    this.marks = new byte[INITIAL_CAPACITY];
+    this.history = new int[INITIAL_CAPACITY];
+    this.historySize = 0;
+    this.zobristKey = 0;
+    this.boardView = new ReadOnlyBoard() {
+      @Override
+      public int getRows() {
+        return MnkTicTacToeModel.this.rows;
+      }
+
+      @Override
+      public int getCols() {
+        return MnkTicTacToeModel.this.cols;
+      }
+
+      @Override
+      public Player getMarkAt(int r, int c) {
+        return MnkTicTacToeModel.this.getMarkAt(r, c);
+      }
+    };
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder separator = new StringBuilder("\n");
+    for (int i = 0; i < 4 * this.cols - 1; i++) {
+      separator.append('-');
+    }
+    separator.append('\n');
+
+    StringBuilder str = new StringBuilder();
+    for (int r = 0; r < this.rows; r++) {
+      if (r > 0) {
+        str.append(separator);
+      }
+      for (int c = 0; c < this.cols; c++) {
+        Player p = this.markAt(r, c);
+        str.append(c > 0 ? " | " : " ").append(p == null ? " " : p.toString());
+      }
+    }
+    return str.toString();
+  }
+
+  @Override
+  public void move(int r, int c) throws IllegalArgumentException, IllegalStateException {
+    MoveResult result = this.tryMove(r, c);
+    if (result == MoveResult.GAME_OVER) {
+      throw new IllegalStateException("The game is over. No more movement is available.");
+    } else if (result != MoveResult.OK) {
+      throw new IllegalArgumentException("The movement is out of board's range "
+          + "or is occupied.");
+    }
+  }
+
+  @Override
+  public MoveResult tryMove(int r, int c) {
+    if (r < 0 || c < 0 || r >= this.rows || c >= this.cols) {
+      return MoveResult.OUT_OF_BOUNDS;
+    }
+    if (this.markAt(r, c) != null) {
+      return MoveResult.OCCUPIED;
+    }
+    if (this.isGameOver()) {
+      return MoveResult.GAME_OVER;
+    }
+    this.play(r * this.cols + c);
+    this.historySize = this.moveCount;
+    return MoveResult.OK;
+  }
+
+  @Override
+  public void undo() throws IllegalStateException {
+    if (this.moveCount == 0) {
+      throw new IllegalStateException("There is no move to undo.");
+    }
+    this.delete(this.history[--this.moveCount]);
+    this.turn = this.turn == Player.X ? Player.O : Player.X;
+    this.zobristKey ^= Zobrist.of(this.history[this.moveCount], this.turn);
+    // A game can only end on its last move, so every earlier state was still in play.
+    this.gameOver = false;
+    this.winner = null;
+  }
+
+  @Override
+  public void redo() throws IllegalStateException {
+    if (this.moveCount == this.historySize) {
+      throw new IllegalStateException("There is no move to redo.");
+    }
+    this.play(this.history[this.moveCount]);
+  }
+
+  @Override
+  public Player getTurn() {
+    return this.turn;
+  }
+
+  @Override
+  public boolean isGameOver() {
+    return this.gameOver;
+  }
+
+  @Override
+  public Player getWinner() {
+    return this.winner;
+  }
+
+  @Override
+  public Player[][] getBoard() {
+    Player[][] board = new Player[this.rows][this.cols];
+    for (int i = 0; i < this.keys.length; i++) {
+      if (this.keys[i] != 0) {
+        int cell = this.keys[i] - 1;
+        board[cell / this.cols][cell % this.cols] = toPlayer(this.marks[i]);
+      }
+    }
+    return board;
+  }
+
+  @Override
+  public ReadOnlyBoard getBoardView() {
+    return this.boardView;
+  }
+
+  @Override
+  public Player getMarkAt(int r, int c) {
+    this.checkIllegalIndex(r, c);
+    return this.markAt(r, c);
+  }
+
+  @Override
+  public long getZobristKey() {
+    return this.zobristKey;
+  }
+
+  /**
+   * Returns the number of marks in a row needed to win.
+   *
+   * @return the win length of this game
+   */
+  public int getWinLength() {
+    return this.k;
+  }
+
+  /**
+   * Marks a cell that is known to be legal for the current player, records it on the move stack
+   * and updates the outcome and turn.
+   *
+   * @param cell the cell index, row times columns plus column
+   */
+  private void play(int cell) {
+    this.put(cell, this.turn == Player.X ? MARK_X : MARK_O);
+    if (this.moveCount == this.history.length) {
+      this.history = Arrays.copyOf(this.history, 2 * this.history.length);
+    }
+    this.history[this.moveCount++] = cell;
+    this.zobristKey ^= Zobrist.of(cell, this.turn);
+    if (this.isWinningMove(cell / this.cols, cell % this.cols)) {
+      this.winner = this.turn;
+    }
+    this.gameOver = this.winner != null || this.moveCount == this.rows * this.cols;
+    this.turn = this.turn == Player.X ? Player.O : Player.X;
+  }
+
+  /**
+   * Returns whether the mark just placed at the given position completes k in a row. Only the
+   * four lines through that position are examined, and each at most k - 1 cells either way.
+   *
+   * @param r row of the grid that was just marked
+   * @param c column of the grid that was just marked
+   * @return whether the move wins the game
+   */
+  private boolean isWinningMove(int r, int c) {
+    byte mark = this.get(r * this.cols + c);
+    for (int[] d : DIRECTIONS) {
+      int count = 1 + this.countRun(r, c, d[0], d[1], mark)
+          + this.countRun(r, c, -d[0], -d[1], mark);
+      if (count >= this.k) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Counts consecutive cells holding the given mark, starting next to a position and stepping in
+   * one direction, stopping at k - 1 cells.
+   *
+   * @param r    row of the starting grid
+   * @param c    column of the starting grid
+   * @param dr   row step
+   * @param dc   column step
+   * @param mark the mark to count
+   * @return the number of matching cells found
+   */
+  private int countRun(int r, int c, int dr, int dc, byte mark) {
+    int count = 0;
+    int i = r + dr;
+    int j = c + dc;
+    while (count < this.k - 1 && i >= 0 && i < this.rows && j >= 0 && j < this.cols
+        && this.get(i * this.cols + j) == mark) {
+      count++;
+      i += dr;
+      j += dc;
+    }
+    return count;
+  }
+
+  /**
+   * Returns the mark at a position that is already known to be on the board.
+   *
+   * @param r row of a grid in the board
+   * @param c column of a grid in the board
+   * @return the player at the given position, or null if it's empty
+   */
+  private Player markAt(int r, int c) {
+    return toPlayer(this.get(r * this.cols + c));
+  }
+
+  /**
+   * Converts a stored mark to the player it represents.
+   *
+   * @param mark the stored mark
+   * @return the player, or null for an empty cell
+   */
+  private static Player toPlayer(byte mark) {
+    if (mark == MARK_X) {
+      return Player.X;
+    }
+    if (mark == MARK_O) {
+      return Player.O;
+    }
+    return null;
+  }
+
+  /**
+   * Looks up the mark stored for a cell index.
+   *
+   * @param cell the cell index, row times columns plus column
+   * @return the stored mark, or EMPTY if the cell is not occupied
+   */
+  private byte get(int cell) {
+    int key = cell + 1;
+    int mask = this.keys.length - 1;
+    for (int i = hash(key) & mask; this.keys[i] != 0; i = (i + 1) & mask) {
+      if (this.keys[i] == key) {
+        return this.marks[i];
+      }
+    }
+    return EMPTY;
+  }
+
+  /**
+   * Stores the mark for an unoccupied cell index, growing the table to keep it at most half full.
+   *
+   * @param cell the cell index, row times columns plus column
+   * @param mark the mark to store
+   */
+  private void put(int cell, byte mark) {
+    if (2L * (this.moveCount + 1) > this.keys.length) {
+      this.grow();
+    }
+    int mask = this.keys.length - 1;
+    int i = hash(cell + 1) & mask;
+    while (this.keys[i] != 0) {
+      i = (i + 1) & mask;
+    }
+    this.keys[i] = cell + 1;
+    this.marks[i] = mark;
+  }
+
+  /**
+   * Removes an occupied cell index from the table, shifting back any later entries of its probe
+   * run so that lookups never stop at the freed slot too early.
+   *
+   * @param cell the cell index, row times columns plus column
+   */
+  private void delete(int cell) {
+    int mask = this.keys.length - 1;
+    int i = hash(cell + 1) & mask;
+    while (this.keys[i] != cell + 1) {
+      i = (i + 1) & mask;
+    }
+    for (int j = (i + 1) & mask; this.keys[j] != 0; j = (j + 1) & mask) {
+      int home = hash(this.keys[j]) & mask;
+      // The entry at j may fill the hole at i unless its home slot lies cyclically in (i, j].
+      boolean staysPut = i <= j ? i < home && home <= j : i < home || home <= j;
+      if (!staysPut) {
+        this.keys[i] = this.keys[j];
+        this.marks[i] = this.marks[j];
+        i = j;
+      }
+    }
+    this.keys[i] = 0;
+    this.marks[i] = EMPTY;
+  }
+
+  /**
+   * Doubles the capacity of the cell table and reinserts every occupied cell.
+   */
+  private void grow() {
+    int[] oldKeys = this.keys;
+    byte[] oldMarks = this.marks;
+    this.keys = new int[oldKeys.length * 2];
+    this.marks = new byte[oldMarks.length * 2];
+    int mask = this.keys.length - 1;
+    for (int j = 0; j < oldKeys.length; j++) {
+      if (oldKeys[j] != 0) {
+        int i = hash(oldKeys[j]) & mask;
+        while (this.keys[i] != 0) {
+          i = (i + 1) & mask;
+        }
+        this.keys[i] = oldKeys[j];
+        this.marks[i] = oldMarks[j];
+      }
+    }
+  }
+
+  /**
+   * Spreads the bits of a key so that neighbouring cells land in different table slots.
+   *
+   * @param key the key to hash
+   * @return the mixed hash
+   */
+  private static int hash(int key) {
+    int h = key * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * Check illegal input of row and column.
+   *
+   * @param r row of a grid in the board
+   * @param c column of a grid in the board
+   * @throws IllegalArgumentException if row or column is out of boundary
+   */
+  private void checkIllegalIndex(int r, int c) throws IllegalArgumentException {
+    if (r < 0 || c < 0 || r >= this.rows || c >= this.cols) {
+      throw new IllegalArgumentException("The movement is out of board's range "
+          + "or is occupied.");
+    }
+  }
+}
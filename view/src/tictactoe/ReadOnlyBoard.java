@@ -0,0 +1,33 @@
+package tictactoe;
+
+/**
+ * A read-only view of a tic tac toe board. Unlike {@link TicTacToe#getBoard()}, a view is not a
+ * copy: it is backed by the model's own storage and always reflects the latest move.
+ */
+public interface ReadOnlyBoard {
+
+  /**
+   * Return the number of rows on the board.
+   *
+   * @return the number of rows
+   */
+  int getRows();
+
+  /**
+   * Return the number of columns on the board.
+   *
+   * @return the number of columns
+   */
+  int getCols();
+
+  /**
+   * Return the {@link Player} mark at a given row and column, or {@code null} if the position is
+   * empty.
+   *
+   * @param r the row
+   * @param c the column
+   * @return the player at the given position, or null if it's empty
+   * @throws IllegalArgumentException if the position is outside the board
+   */
+  Player getMarkAt(int r, int c);
+}
@@ -33,23 +33,19 @@ public class SwingTicTacToeController implements TicTacToeController, Features{
     Scanner sc = new Scanner(coordinate);
     int row = sc.nextInt();
     int col = sc.nextInt();
-    String turn = m.getTurn().toString();
-    if (!m.isGameOver()) {
-      try {
-        m.move(row, col);
-        if (m.isGameOver()) {
-          if (m.getWinner() != null) {
-            v.displayChess(row, col, turn);
-            v.updateStatus("Winner is " + m.getWinner());
-          } else {
-            v.displayChess(row, col, turn);
-            v.updateStatus("It's a Tie game.");
-          }
+    if (m.tryMove(row, col) == MoveResult.OK) {
+      String turn = m.getBoardView().getMarkAt(row, col).toString();
+      if (m.isGameOver()) {
+        if (m.getWinner() != null) {
+          v.displayChess(row, col, turn);
+          v.updateStatus("Winner is " + m.getWinner());
         } else {
-          v.updateStatus("Turn: " + m.getTurn().toString());
           v.displayChess(row, col, turn);
+          v.updateStatus("It's a Tie game.");
         }
-      } catch (IllegalArgumentException e) {
+      } else {
+        v.updateStatus("Turn: " + m.getTurn().toString());
+        v.displayChess(row, col, turn);
       }
     }
   }
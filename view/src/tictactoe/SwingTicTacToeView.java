@@ -14,8 +14,12 @@ public class SwingTicTacToeView extends JFrame implements TicTacToeView {
   JLabel status;
 
   public SwingTicTacToeView(String caption) {
+    this(caption, 3, 3);
+  }
+
+  public SwingTicTacToeView(String caption, int rows, int cols) {
     super(caption);
-    cells = new JButton[3][3];
+    cells = new JButton[rows][cols];
 
 
     this.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -34,11 +38,12 @@ public class SwingTicTacToeView extends JFrame implements TicTacToeView {
 
     // Set center part
     JPanel centerPanel = new JPanel();
-    centerPanel.setLayout(new GridLayout(3, 3));
-    for (int row = 0; row < 3; row++) {
-      for (int col = 0; col < 3; col++) {
+    centerPanel.setLayout(new GridLayout(rows, cols));
+    int fontSize = Math.max(8, 150 / Math.max(rows, cols));
+    for (int row = 0; row < rows; row++) {
+      for (int col = 0; col < cols; col++) {
         cells[row][col] = new JButton();
-        cells[row][col].setFont(new Font(cells[row][col].getName(), Font.PLAIN, 50));
+        cells[row][col].setFont(new Font(cells[row][col].getName(), Font.PLAIN, fontSize));
         cells[row][col].setActionCommand(row + " " + col);
         centerPanel.add(cells[row][col]);
       }
@@ -51,8 +56,8 @@ public class SwingTicTacToeView extends JFrame implements TicTacToeView {
 
   @Override
   public void addFeature(Features features) {
-    for (int row = 0; row < 3; row++) {
-      for (int col = 0; col < 3; col++) {
+    for (int row = 0; row < cells.length; row++) {
+      for (int col = 0; col < cells[row].length; col++) {
         cells[row][col].addActionListener(evt -> features.placePiece(evt.getActionCommand()));
       }
     }